@@ -1,7 +1,6 @@
 package com.xiaofuge.ai;
 
 import com.xiaofuge.functioncalling.FunctionCall;
-import com.xiaofuge.functioncalling.FunctionDefinition;
 import com.xiaofuge.functioncalling.FunctionRegistry;
 import com.xiaofuge.functioncalling.FunctionResult;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -16,6 +15,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +25,7 @@ import java.util.Map;
 public class AIService {
     
     private final FunctionRegistry functionRegistry;
+    private final ToolSchemaCache toolSchemaCache;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     @Value("${ai.openai.api-key}")
@@ -44,7 +45,7 @@ public class AIService {
             ChatCompletionRequest chatRequest = ChatCompletionRequest.builder()
                     .model(model)
                     .messages(messages)
-                    .functions(convertFunctionDefinitions())
+                    .functions(toolSchemaCache.get(ToolSchemaCache.Provider.OPENAI).getItems())
                     .functionCall(ChatCompletionRequest.ChatCompletionRequestFunctionCall.of("auto"))
                     .maxTokens(2000)
                     .temperature(0.1)
@@ -81,30 +82,6 @@ public class AIService {
                 """;
     }
     
-    private List<ChatFunction> convertFunctionDefinitions() {
-        List<ChatFunction> functions = new ArrayList<>();
-        
-        for (FunctionDefinition def : functionRegistry.getAllFunctionDefinitions()) {
-            ChatFunction function = ChatFunction.builder()
-                    .name(def.getName())
-                    .description(def.getDescription())
-                    .build();
-                    
-            // 使用反射设置parameters，因为parameters字段是private的
-            try {
-                java.lang.reflect.Field parametersField = ChatFunction.class.getDeclaredField("parameters");
-                parametersField.setAccessible(true);
-                parametersField.set(function, def.getParameters());
-            } catch (Exception e) {
-                log.warn("设置函数参数失败: {}", def.getName(), e);
-            }
-            
-            functions.add(function);
-        }
-        
-        return functions;
-    }
-    
     private String processAIResponse(OpenAiService service, ChatCompletionRequest chatRequest, List<ChatMessage> messages) {
         StringBuilder result = new StringBuilder();
         int maxIterations = 10; // 防止无限循环
@@ -135,14 +112,17 @@ public class AIService {
                 
                 if (!functionResult.isSuccess()) {
                     result.append("错误信息: ").append(functionResult.getErrorMessage()).append("\n");
-                    break; // 如果函数执行失败，终止流程
+                    // 参数校验错误交给模型在下一轮修正，其余错误终止流程
+                    if (!functionResult.hasValidationErrors()) {
+                        break;
+                    }
                 }
                 
                 // 继续对话
                 chatRequest = ChatCompletionRequest.builder()
                         .model(model)
                         .messages(messages)
-                        .functions(convertFunctionDefinitions())
+                        .functions(toolSchemaCache.get(ToolSchemaCache.Provider.OPENAI).getItems())
                         .functionCall(ChatCompletionRequest.ChatCompletionRequestFunctionCall.of("auto"))
                         .maxTokens(2000)
                         .temperature(0.1)
@@ -190,11 +170,15 @@ public class AIService {
     
     private String formatFunctionResult(FunctionResult result) {
         try {
-            return objectMapper.writeValueAsString(Map.of(
-                "success", result.isSuccess(),
-                "result", result.getResult(),
-                "error", result.getErrorMessage()
-            ));
+            // 失败时 result 为 null，Map.of 不接受 null 值
+            Map<String, Object> resultMap = new LinkedHashMap<>();
+            resultMap.put("success", result.isSuccess());
+            resultMap.put("result", result.getResult());
+            resultMap.put("error", result.getErrorMessage());
+            if (result.hasValidationErrors()) {
+                resultMap.put("validationErrors", result.getValidationErrors());
+            }
+            return objectMapper.writeValueAsString(resultMap);
         } catch (JsonProcessingException e) {
             return "结果序列化失败";
         }
@@ -1,5 +1,6 @@
 package com.xiaofuge.ai;
 
+import com.xiaofuge.ai.slot.UploadSlotExtractor;
 import com.xiaofuge.functioncalling.FunctionCall;
 import com.xiaofuge.functioncalling.FunctionRegistry;
 import com.xiaofuge.functioncalling.FunctionResult;
@@ -7,6 +8,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -16,7 +19,10 @@ import java.util.regex.Pattern;
 @Slf4j
 public class AIServiceSimple {
     
+    private static final Pattern CONTENT_ID = Pattern.compile("contentId=(\\d+)");
+    
     private final FunctionRegistry functionRegistry;
+    private final UploadSlotExtractor uploadSlotExtractor;
     
     public String processContentReview(String userPrompt) {
         log.info("收到用户请求: {}", userPrompt);
@@ -40,16 +46,17 @@ public class AIServiceSimple {
         StringBuilder result = new StringBuilder("开始执行内容发布流程:\n\n");
         
         try {
-            // 1. 上传内容
+            // 1. 上传内容，未抽取到的字段使用演示默认值
             log.info("步骤1: 上传内容");
+            Map<String, Object> uploadArguments = new LinkedHashMap<>();
+            uploadArguments.put("title", defaultTitle(userPrompt));
+            uploadArguments.put("textContent", "这是从用户请求中提取的内容: " + userPrompt);
+            uploadArguments.put("authorId", "demo_user_001");
+            uploadArguments.putAll(uploadSlotExtractor.extract(userPrompt).toArguments());
             FunctionResult uploadResult = functionRegistry.executeFunction(
                 FunctionCall.builder()
                     .name("upload_content")
-                    .arguments(Map.of(
-                        "title", extractTitle(userPrompt),
-                        "textContent", "这是从用户请求中提取的内容: " + userPrompt,
-                        "authorId", "demo_user_001"
-                    ))
+                    .arguments(uploadArguments)
                     .build()
             );
             
@@ -141,26 +148,24 @@ public class AIServiceSimple {
         Long contentId = 1L; // 假设检查ID为1的内容
         
         try {
-            // 检查敏感词
-            FunctionResult sensitiveResult = functionRegistry.executeFunction(
+            // 敏感词检测与图像识别一起提交，同一内容上的写调用由 executeAll 按顺序串行
+            List<FunctionResult> results = functionRegistry.executeAll(List.of(
                 FunctionCall.builder()
                     .name("check_sensitive_words")
                     .arguments(Map.of("contentId", contentId))
+                    .build(),
+                FunctionCall.builder()
+                    .name("recognize_image")
+                    .arguments(Map.of("contentId", contentId))
                     .build()
-            );
+            ));
+            FunctionResult sensitiveResult = results.get(0);
+            FunctionResult imageResult = results.get(1);
             
             result.append("敏感词检测结果: ")
                   .append(sensitiveResult.isSuccess() ? "✅ 通过" : "❌ 未通过")
                   .append("\n");
             
-            // 图像识别
-            FunctionResult imageResult = functionRegistry.executeFunction(
-                FunctionCall.builder()
-                    .name("recognize_image")
-                    .arguments(Map.of("contentId", contentId))
-                    .build()
-            );
-            
             result.append("图像识别结果: ")
                   .append(imageResult.isSuccess() ? "✅ 通过" : "❌ 未通过")
                   .append("\n");
@@ -181,15 +186,8 @@ public class AIServiceSimple {
         return false;
     }
     
-    private String extractTitle(String userPrompt) {
-        // 简单的标题提取逻辑
-        Pattern titlePattern = Pattern.compile("标题[是为]?[\"']?([^\"'，。！]+)[\"']?");
-        Matcher matcher = titlePattern.matcher(userPrompt);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        
-        // 如果没有明确标题，生成一个默认标题
+    // 没有抽取到标题时按关键词生成默认标题
+    private String defaultTitle(String userPrompt) {
         if (containsKeywords(userPrompt, "技术", "Java", "Spring")) {
             return "技术分享文章";
         } else if (containsKeywords(userPrompt, "产品", "宣传")) {
@@ -205,8 +203,7 @@ public class AIServiceSimple {
             try {
                 // 简单的ID提取逻辑，实际项目中会更复杂
                 String resultStr = result.toString();
-                Pattern idPattern = Pattern.compile("contentId=(\\d+)");
-                Matcher matcher = idPattern.matcher(resultStr);
+                Matcher matcher = CONTENT_ID.matcher(resultStr);
                 if (matcher.find()) {
                     return Long.parseLong(matcher.group(1));
                 }
@@ -4,11 +4,26 @@ import com.xiaofuge.ai.claude.*;
 import com.xiaofuge.ai.intent.HybridIntentClassifier;
 import com.xiaofuge.ai.intent.IntentClassificationResult;
 import com.xiaofuge.ai.intent.UserIntent;
+import com.xiaofuge.ai.plan.ObservedCall;
+import com.xiaofuge.ai.plan.PlanKey;
+import com.xiaofuge.ai.plan.PlanStep;
+import com.xiaofuge.ai.plan.ToolPlan;
+import com.xiaofuge.ai.plan.ToolPlanCache;
+import com.xiaofuge.ai.slot.SlotExtraction;
+import com.xiaofuge.ai.slot.UploadSlotExtractor;
 import com.xiaofuge.functioncalling.*;
+import com.xiaofuge.tracing.Scope;
+import com.xiaofuge.tracing.Span;
+import com.xiaofuge.tracing.Tracer;
+import com.xiaofuge.workflow.ReviewWorkflows;
+import com.xiaofuge.workflow.StepResult;
+import com.xiaofuge.workflow.WorkflowEngine;
+import com.xiaofuge.workflow.WorkflowResult;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -18,17 +33,108 @@ import java.util.*;
 @Slf4j
 public class ClaudeAIService {
     
+    /**
+     * 静态系统提示词，作为提示词缓存断点前的前缀，所有意图共用同一份字节
+     */
+    private static final String SYSTEM_PROMPT = """
+            你是一个专业的内容审核与发布助手，负责协调智能化内容管理流程。
+            
+            ## 核心职责
+            1. 准确理解用户的内容发布或审核需求
+            2. 根据内容类型和复杂度选择合适的处理流程
+            3. 智能调用相关工具完成任务
+            4. 提供清晰的执行反馈
+            
+            ## 可用工具
+            - upload_content: 上传内容到系统
+            - check_sensitive_words: 敏感词检测
+            - recognize_image: 图像识别审核
+            - submit_manual_review: 提交人工审核
+            - check_manual_review: 检查人工审核结果
+            - publish_content: 发布已审核内容
+            - send_notification: 发送通知
+            
+            ## 智能流程规则
+            ### 文本内容流程
+            1. upload_content → 2. check_sensitive_words → 3. publish_content → 4. send_notification
+            
+            ### 图像内容流程
+            1. upload_content → 2. check_sensitive_words → 3. recognize_image → 4. publish_content → 5. send_notification
+            
+            ### 复杂/敏感内容流程
+            1. upload_content → 2. check_sensitive_words → 3. recognize_image → 4. submit_manual_review → 5. check_manual_review → 6. publish_content → 7. send_notification
+            
+            ## 决策逻辑
+            - 如果敏感词检测失败，终止流程并说明原因
+            - 如果图像识别检测到违规内容，转入人工审核
+            - 如果内容涉及复杂主题（社会、政治、争议话题），主动提交人工审核
+            - 所有审核通过后才能发布
+            
+            ## 响应风格
+            - 专业、简洁、友好
+            - 清楚说明每个步骤的执行情况
+            - 如果遇到问题，提供具体的解决建议
+            """;
+    
+    // 意图相关的指导放在缓存断点之后，不影响前缀命中
+    private static final String CONTENT_PUBLISH_GUIDANCE = """
+            ## 当前场景：内容发布
+            用户想要发布内容，请：
+            1. 仔细提取内容信息（标题、正文、媒体链接等）
+            2. 根据内容类型选择合适的审核流程
+            3. 确保所有审核步骤都正确执行
+            4. 发布成功后发送确认通知
+            """;
+    
+    private static final String CONTENT_REVIEW_GUIDANCE = """
+            ## 当前场景：内容审核
+            用户想要审核现有内容，请：
+            1. 理解用户要审核的具体内容
+            2. 执行相应的检测工具
+            3. 提供详细的审核报告
+            4. 如有问题，给出改进建议
+            """;
+    
     private final ClaudeApiClient claudeClient;
     private final FunctionRegistry functionRegistry;
+    private final ToolSchemaCache toolSchemaCache;
     private final HybridIntentClassifier intentClassifier;
+    private final WorkflowEngine workflowEngine;
+    private final ToolPlanCache toolPlanCache;
+    private final UploadSlotExtractor uploadSlotExtractor;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
+    @Value("${ai.workflow.enabled:true}")
+    private boolean workflowEnabled;
+    
+    @Value("${ai.slot-extraction.confidence-threshold:0.8}")
+    private double slotConfidenceThreshold;
+    
     public String processContentReview(String userPrompt) {
+        return processContentReview(userPrompt, ReviewProgressListener.NONE);
+    }
+    
+    /**
+     * 处理过程中的工具执行进度和模型文本增量实时交给 listener，返回值与同步接口相同
+     */
+    public String processContentReview(String userPrompt, ReviewProgressListener listener) {
         log.info("Claude处理用户请求: {}", userPrompt);
         
         try {
             // 第一步：混合意图识别和预处理
-            IntentClassificationResult intentResult = intentClassifier.classifyIntent(userPrompt);
+            IntentClassificationResult intentResult;
+            Span classify = Tracer.startSpan("intent.classify");
+            try (Scope ignored = classify.makeCurrent()) {
+                intentResult = intentClassifier.classifyIntent(userPrompt);
+                classify.setAttribute("intent", intentResult.getIntent())
+                        .setAttribute("intent.confidence", intentResult.getConfidence());
+            } catch (RuntimeException e) {
+                classify.recordException(e);
+                throw e;
+            } finally {
+                classify.end();
+            }
+            
             UserIntent intent = intentResult.getIntent();
             double confidence = intentResult.getConfidence();
             
@@ -40,8 +146,16 @@ public class ClaudeAIService {
                 return preResponse;
             }
             
-            // 第三步：调用Claude进行Function Calling
-            return executeClaudeFunctionCalling(userPrompt, intent);
+            // 第三步：发布请求走固定工作流，模型只负责提取参数
+            if (workflowEnabled && intent == UserIntent.CONTENT_PUBLISH) {
+                String workflowResponse = executeReviewWorkflow(userPrompt, intent, listener);
+                if (workflowResponse != null) {
+                    return workflowResponse;
+                }
+            }
+            
+            // 第四步：调用Claude进行Function Calling
+            return executeClaudeFunctionCalling(userPrompt, intent, listener);
             
         } catch (Exception e) {
             log.error("Claude AI服务调用失败", e);
@@ -85,90 +199,198 @@ public class ClaudeAIService {
         return null; // 继续使用Claude处理
     }
     
-    private String executeClaudeFunctionCalling(String userPrompt, UserIntent intent) throws Exception {
+    private String executeClaudeFunctionCalling(String userPrompt, UserIntent intent,
+                                                ReviewProgressListener listener) throws Exception {
         // 构建Claude请求
         ClaudeRequest request = ClaudeRequest.builder()
-                .systemPrompt(buildEnhancedSystemPrompt(intent))
+                .cachedSystemPrompt(SYSTEM_PROMPT)
+                .systemPrompt(buildIntentSpecificGuidance(intent))
                 .messages(List.of(Map.of(
                     "role", "user",
                     "content", userPrompt
                 )))
-                .tools(convertFunctionDefinitions())
+                .tools(toolSchemaCache.get(ToolSchemaCache.Provider.CLAUDE).getRaw())
                 .toolChoice(Map.of("type", "auto"))
                 .maxTokens(2000)
                 .temperature(0.1)
                 .build();
         
-        return processClaudeResponse(request, userPrompt);
+        return processClaudeResponse(request, userPrompt, intent, listener);
+    }
+    
+    /**
+     * 先在本地抽取上传参数，必填字段都可信时不调用模型；否则一次模型调用强制选择 upload_content 提取参数
+     * 之后的审核、发布、通知由工作流直接执行
+     * 模型未给出参数时返回其回复；上传参数校验失败时返回 null，交给多轮 Function Calling 修正
+     */
+    private String executeReviewWorkflow(String userPrompt, UserIntent intent,
+                                         ReviewProgressListener listener) throws Exception {
+        SlotExtraction slots = uploadSlotExtractor.extract(userPrompt);
+        Map<String, Object> input;
+        if (slots.isConfident(UploadSlotExtractor.REQUIRED_FIELDS, slotConfidenceThreshold)) {
+            log.info("本地抽取上传参数可信，跳过模型调用: {}", slots.getConfidence());
+            input = slots.toArguments();
+        } else {
+            ClaudeRequest request = ClaudeRequest.builder()
+                    .cachedSystemPrompt(SYSTEM_PROMPT)
+                    .systemPrompt(buildIntentSpecificGuidance(intent))
+                    .messages(List.of(Map.of(
+                        "role", "user",
+                        "content", userPrompt
+                    )))
+                    .tools(toolSchemaCache.get(ToolSchemaCache.Provider.CLAUDE).getRaw())
+                    .toolChoice(Map.of("type", "tool", "name", "upload_content"))
+                    .maxTokens(2000)
+                    .temperature(0.1)
+                    .build();
+            
+            ClaudeResponse response = claudeClient.createMessage(request);
+            ClaudeToolUse toolUse = response.getToolUse();
+            if (toolUse == null || !"upload_content".equals(toolUse.getName())) {
+                return response.getContent() != null ? "\n🤖 " + response.getContent() : null;
+            }
+            input = objectMapper.convertValue(toolUse.getInput(), Map.class);
+        }
+        
+        WorkflowResult workflowResult = workflowEngine.run(ReviewWorkflows.STANDARD_REVIEW, input);
+        
+        StepResult upload = workflowResult.step(ReviewWorkflows.UPLOAD);
+        if (upload.getFunctionResult() != null && upload.getFunctionResult().hasValidationErrors()) {
+            log.info("工作流上传参数校验失败，转入多轮 Function Calling: {}", upload.getReason());
+            return null;
+        }
+        return formatWorkflowResult(workflowResult, listener);
     }
     
-    private String processClaudeResponse(ClaudeRequest request, String originalPrompt) throws Exception {
+    private String formatWorkflowResult(WorkflowResult workflowResult, ReviewProgressListener listener) {
+        StringBuilder result = new StringBuilder();
+        for (StepResult step : workflowResult.getSteps()) {
+            if (step.getStatus() == StepResult.Status.SKIPPED || step.getStatus() == StepResult.Status.ABORTED) {
+                continue;
+            }
+            progress(result, listener, String.format("🔧 执行: %s - %s\n",
+                step.getFunction(),
+                step.isPassed() ? "✅ 成功" : "❌ 失败"
+            ));
+            if (!step.isPassed()) {
+                progress(result, listener, String.format("原因: %s\n", step.getReason()));
+            }
+        }
+        
+        if (workflowResult.isCompleted()) {
+            result.append(String.format("\n🤖 内容已审核通过并发布，耗时 %dms", workflowResult.getElapsedMillis()));
+        } else {
+            result.append(String.format("\n🤖 流程在 %s 终止: %s", workflowResult.getFailedStep(), workflowResult.getReason()));
+        }
+        return result.toString();
+    }
+    
+    private String processClaudeResponse(ClaudeRequest request, String originalPrompt, UserIntent intent,
+                                         ReviewProgressListener listener) throws Exception {
         List<Map<String, Object>> conversationHistory = new ArrayList<>(request.getMessages());
         StringBuilder result = new StringBuilder();
+        // 成功执行的工具调用，以模型最终回复结束时记入计划缓存
+        List<ObservedCall> observed = new ArrayList<>();
+        PlanKey planKey = null;
         int maxIterations = 8;
         int currentIteration = 0;
         
         while (currentIteration < maxIterations) {
             currentIteration++;
             
-            // 更新请求的消息历史
-            ClaudeRequest currentRequest = ClaudeRequest.builder()
-                    .systemPrompt(request.getSystemPrompt())
-                    .messages(conversationHistory)
-                    .tools(request.getTools())
-                    .toolChoice(request.getToolChoice())
-                    .maxTokens(request.getMaxTokens())
-                    .temperature(request.getTemperature())
-                    .build();
-            
-            ClaudeResponse response = claudeClient.createMessage(currentRequest);
-            
-            if (response.getToolUse() != null) {
-                // Claude选择使用工具
-                ClaudeToolUse toolUse = response.getToolUse();
-                log.info("Claude决定调用函数: {}", toolUse.getName());
-                
-                // 执行函数调用
-                FunctionResult functionResult = executeFunctionCall(toolUse);
-                
-                // 添加assistant消息
-                conversationHistory.add(Map.of(
-                    "role", "assistant",
-                    "content", List.of(Map.of(
-                        "type", "tool_use",
-                        "id", toolUse.getId(),
-                        "name", toolUse.getName(),
-                        "input", toolUse.getInput()
-                    ))
-                ));
-                
-                // 添加工具结果消息
-                conversationHistory.add(Map.of(
-                    "role", "user",
-                    "content", List.of(Map.of(
-                        "type", "tool_result",
-                        "tool_use_id", toolUse.getId(),
-                        "content", formatFunctionResult(functionResult)
-                    ))
-                ));
-                
-                result.append(String.format("🔧 执行: %s - %s\n", 
-                    toolUse.getName(), 
-                    functionResult.isSuccess() ? "✅ 成功" : "❌ 失败"
-                ));
-                
-                if (!functionResult.isSuccess()) {
-                    result.append(String.format("错误: %s\n", functionResult.getErrorMessage()));
+            // 每轮一个 span，模型调用与工具执行都挂在其下
+            Span iteration = Tracer.startSpan("agent.iteration")
+                    .setAttribute("agent.iteration", currentIteration);
+            try (Scope ignored = iteration.makeCurrent()) {
+                // 更新请求的消息历史
+                ClaudeRequest currentRequest = ClaudeRequest.builder()
+                        .cachedSystemPrompt(request.getCachedSystemPrompt())
+                        .systemPrompt(request.getSystemPrompt())
+                        .messages(conversationHistory)
+                        .tools(request.getTools())
+                        .toolChoice(request.getToolChoice())
+                        .maxTokens(request.getMaxTokens())
+                        .temperature(request.getTemperature())
+                        .build();
+                
+                // 流式调用时模型文本边生成边推送，工具调用仍在块结束、参数完整后执行
+                ClaudeResponse response = listener == ReviewProgressListener.NONE
+                        ? claudeClient.createMessage(currentRequest)
+                        : claudeClient.streamMessage(currentRequest, listener::onText);
+                
+                if (!response.getToolUses().isEmpty()) {
+                    // Claude选择使用工具，同一轮可能给出多个调用，每个都要在下一条消息中给出结果
+                    List<Map<String, Object>> toolResults = new ArrayList<>(response.getToolUses().size());
+                    boolean invalid = false;
+                    boolean failed = false;
+                    for (ClaudeToolUse toolUse : response.getToolUses()) {
+                        log.info("Claude决定调用函数: {}", toolUse.getName());
+                        iteration.setAttribute("gen_ai.tool.name", toolUse.getName());
+                        
+                        // 执行函数调用
+                        Map<String, Object> arguments = argumentsOf(toolUse);
+                        FunctionResult functionResult = executeFunctionCall(toolUse.getName(), arguments);
+                        toolResults.add(toolResultBlock(toolUse.getId(), functionResult));
+                        
+                        progress(result, listener, String.format("🔧 执行: %s - %s\n", 
+                            toolUse.getName(), 
+                            functionResult.isSuccess() ? "✅ 成功" : "❌ 失败"
+                        ));
+                        
+                        if (!functionResult.isSuccess()) {
+                            progress(result, listener, String.format("错误: %s\n", functionResult.getErrorMessage()));
+                            // 参数校验错误交给模型在下一轮修正，其余错误终止流程
+                            if (!functionResult.hasValidationErrors()) {
+                                failed = true;
+                                break;
+                            }
+                            invalid = true;
+                            continue;
+                        }
+                        observed.add(new ObservedCall(toolUse.getName(), arguments, functionResult));
+                    }
+                    if (failed) {
+                        break;
+                    }
+                    conversationHistory.add(Map.of(
+                        "role", "assistant",
+                        "content", assistantBlocks(response)
+                    ));
+                    conversationHistory.add(Map.of(
+                        "role", "user",
+                        "content", toolResults
+                    ));
+                    if (invalid) {
+                        continue;
+                    }
+                
+                    if (planKey == null && !observed.isEmpty()) {
+                        planKey = toolPlanCache.keyOf(intent, observed.get(0));
+                        // 首轮只调用了一个工具时才能按计划回放，已有稳定计划时后续步骤不再经过模型
+                        ToolPlan plan = observed.size() == 1 ? toolPlanCache.lookup(planKey) : null;
+                        if (plan != null && replayPlan(plan, planKey, observed, conversationHistory, result, listener)) {
+                            toolPlanCache.observe(planKey, observed);
+                            progress(result, listener, "\n🤖 已按执行计划完成全部步骤");
+                            break;
+                        }
+                    }
+                
+                } else if (response.getContent() != null) {
+                    // Claude给出最终回复
+                    result.append("\n🤖 ").append(response.getContent());
+                    if (planKey != null) {
+                        toolPlanCache.observe(planKey, observed);
+                    }
+                    break;
+                } else {
+                    log.warn("Claude响应格式异常: {}", response);
                     break;
                 }
-                
-            } else if (response.getContent() != null) {
-                // Claude给出最终回复
-                result.append("\n🤖 ").append(response.getContent());
-                break;
-            } else {
-                log.warn("Claude响应格式异常: {}", response);
-                break;
+            } catch (Exception e) {
+                iteration.recordException(e);
+                throw e;
+            } finally {
+                iteration.end();
             }
         }
         
@@ -179,107 +401,130 @@ public class ClaudeAIService {
         return result.toString();
     }
     
-    private String buildEnhancedSystemPrompt(UserIntent intent) {
-        String basePrompt = """
-                你是一个专业的内容审核与发布助手，负责协调智能化内容管理流程。
-                
-                ## 核心职责
-                1. 准确理解用户的内容发布或审核需求
-                2. 根据内容类型和复杂度选择合适的处理流程
-                3. 智能调用相关工具完成任务
-                4. 提供清晰的执行反馈
-                
-                ## 可用工具
-                - upload_content: 上传内容到系统
-                - check_sensitive_words: 敏感词检测
-                - recognize_image: 图像识别审核
-                - submit_manual_review: 提交人工审核
-                - check_manual_review: 检查人工审核结果
-                - publish_content: 发布已审核内容
-                - send_notification: 发送通知
-                
-                ## 智能流程规则
-                ### 文本内容流程
-                1. upload_content → 2. check_sensitive_words → 3. publish_content → 4. send_notification
-                
-                ### 图像内容流程
-                1. upload_content → 2. check_sensitive_words → 3. recognize_image → 4. publish_content → 5. send_notification
-                
-                ### 复杂/敏感内容流程
-                1. upload_content → 2. check_sensitive_words → 3. recognize_image → 4. submit_manual_review → 5. check_manual_review → 6. publish_content → 7. send_notification
-                
-                ## 决策逻辑
-                - 如果敏感词检测失败，终止流程并说明原因
-                - 如果图像识别检测到违规内容，转入人工审核
-                - 如果内容涉及复杂主题（社会、政治、争议话题），主动提交人工审核
-                - 所有审核通过后才能发布
-                
-                ## 响应风格
-                - 专业、简洁、友好
-                - 清楚说明每个步骤的执行情况
-                - 如果遇到问题，提供具体的解决建议
-                """;
-        
-        // 根据意图添加特定指导
-        return basePrompt + buildIntentSpecificGuidance(intent);
-    }
-    
     private String buildIntentSpecificGuidance(UserIntent intent) {
         return switch (intent) {
-            case CONTENT_PUBLISH -> """
-                
-                ## 当前场景：内容发布
-                用户想要发布内容，请：
-                1. 仔细提取内容信息（标题、正文、媒体链接等）
-                2. 根据内容类型选择合适的审核流程
-                3. 确保所有审核步骤都正确执行
-                4. 发布成功后发送确认通知
-                """;
-                
-            case CONTENT_REVIEW -> """
-                
-                ## 当前场景：内容审核
-                用户想要审核现有内容，请：
-                1. 理解用户要审核的具体内容
-                2. 执行相应的检测工具
-                3. 提供详细的审核报告
-                4. 如有问题，给出改进建议
-                """;
-                
-            default -> "";
+            case CONTENT_PUBLISH -> CONTENT_PUBLISH_GUIDANCE;
+            case CONTENT_REVIEW -> CONTENT_REVIEW_GUIDANCE;
+            default -> null;
         };
     }
     
-    private List<Map<String, Object>> convertFunctionDefinitions() {
-        List<Map<String, Object>> tools = new ArrayList<>();
+    /**
+     * 按计划执行首个工具之后的稳定步骤，并以合成的 tool_use/tool_result 写入对话历史，模型接手时能看到完整过程
+     * 返回 true 表示计划全部执行完毕；结果分支偏离记录或遇到不稳定步骤时返回 false，交回模型继续
+     */
+    private boolean replayPlan(ToolPlan plan, PlanKey planKey, List<ObservedCall> observed,
+                               List<Map<String, Object>> conversationHistory, StringBuilder result,
+                               ReviewProgressListener listener) {
+        List<PlanStep> steps = plan.getSteps();
+        String firstBranch = ToolPlan.branchOf(observed.get(0).getResult());
+        if (!firstBranch.equals(steps.get(0).getBranch())) {
+            toolPlanCache.recordDivergence(planKey, steps.get(0).getFunction(), steps.get(0).getBranch(), firstBranch);
+            return false;
+        }
         
-        for (FunctionDefinition def : functionRegistry.getAllFunctionDefinitions()) {
-            Map<String, Object> tool = Map.of(
-                "name", def.getName(),
-                "description", def.getDescription(),
-                "input_schema", def.getParameters()
-            );
-            tools.add(tool);
+        Map<String, Object> input = observed.get(0).getArguments();
+        List<Map<String, Object>> results = new ArrayList<>();
+        results.add(ToolPlan.propertiesOf(observed.get(0).getResult().getResult()));
+        int replayable = plan.replayableSteps();
+        for (int i = 1; i <= replayable; i++) {
+            PlanStep step = steps.get(i);
+            Map<String, Object> arguments = new LinkedHashMap<>();
+            step.getArguments().forEach((name, template) -> arguments.put(name, template.resolve(input, results)));
+            
+            FunctionResult functionResult = executeFunctionCall(step.getFunction(), arguments);
+            toolPlanCache.recordReplayed();
+            observed.add(new ObservedCall(step.getFunction(), arguments, functionResult));
+            results.add(ToolPlan.propertiesOf(functionResult.getResult()));
+            appendToolExchange(conversationHistory, "toolu_plan_" + i, step.getFunction(), arguments, functionResult);
+            progress(result, listener, String.format("🔧 执行: %s - %s (计划)\n",
+                step.getFunction(),
+                functionResult.isSuccess() ? "✅ 成功" : "❌ 失败"
+            ));
+            
+            String branch = ToolPlan.branchOf(functionResult);
+            if (!branch.equals(step.getBranch())) {
+                toolPlanCache.recordDivergence(planKey, step.getFunction(), step.getBranch(), branch);
+                return false;
+            }
         }
+        return replayable == steps.size() - 1;
+    }
+    
+    private static void progress(StringBuilder result, ReviewProgressListener listener, String line) {
+        result.append(line);
+        listener.onProgress(line);
+    }
+    
+    private void appendToolExchange(List<Map<String, Object>> conversationHistory, String toolUseId, String name,
+                                    Object input, FunctionResult functionResult) {
+        // 添加assistant消息
+        conversationHistory.add(Map.of(
+            "role", "assistant",
+            "content", List.of(toolUseBlock(toolUseId, name, input))
+        ));
         
-        return tools;
+        // 添加工具结果消息
+        conversationHistory.add(Map.of(
+            "role", "user",
+            "content", List.of(toolResultBlock(toolUseId, functionResult))
+        ));
+    }
+    
+    // 原样回传模型本轮的文本和全部 tool_use 块，空文本块会被接口拒绝
+    private static List<Map<String, Object>> assistantBlocks(ClaudeResponse response) {
+        List<Map<String, Object>> blocks = new ArrayList<>(response.getContentBlocks().size());
+        for (ClaudeContentBlock block : response.getContentBlocks()) {
+            if (block.isText() && block.getText() != null && !block.getText().isBlank()) {
+                blocks.add(Map.of(
+                    "type", "text",
+                    "text", block.getText()
+                ));
+            } else if (block.isToolUse() && block.getToolUse() != null) {
+                ClaudeToolUse toolUse = block.getToolUse();
+                blocks.add(toolUseBlock(toolUse.getId(), toolUse.getName(), toolUse.getInput()));
+            }
+        }
+        return blocks;
+    }
+    
+    private static Map<String, Object> toolUseBlock(String toolUseId, String name, Object input) {
+        return Map.of(
+            "type", "tool_use",
+            "id", toolUseId,
+            "name", name,
+            "input", input
+        );
     }
     
-    private FunctionResult executeFunctionCall(ClaudeToolUse toolUse) {
+    private Map<String, Object> toolResultBlock(String toolUseId, FunctionResult functionResult) {
+        return Map.of(
+            "type", "tool_result",
+            "tool_use_id", toolUseId,
+            "content", formatFunctionResult(functionResult),
+            "is_error", !functionResult.isSuccess()
+        );
+    }
+    
+    private Map<String, Object> argumentsOf(ClaudeToolUse toolUse) {
         try {
-            Map<String, Object> arguments = objectMapper.convertValue(toolUse.getInput(), Map.class);
-            
-            FunctionCall call = FunctionCall.builder()
-                    .name(toolUse.getName())
-                    .arguments(arguments)
-                    .build();
-                    
-            return functionRegistry.executeFunction(call);
-            
-        } catch (Exception e) {
+            return objectMapper.convertValue(toolUse.getInput(), Map.class);
+        } catch (IllegalArgumentException e) {
             log.error("解析函数参数失败", e);
-            return FunctionResult.error(toolUse.getName(), "参数解析失败: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private FunctionResult executeFunctionCall(String name, Map<String, Object> arguments) {
+        if (arguments == null) {
+            return FunctionResult.error(name, "参数解析失败");
         }
+        FunctionCall call = FunctionCall.builder()
+                .name(name)
+                .arguments(arguments)
+                .build();
+        
+        return functionRegistry.executeFunction(call);
     }
     
     private String formatFunctionResult(FunctionResult result) {
@@ -287,7 +532,8 @@ public class ClaudeAIService {
             Map<String, Object> resultMap = Map.of(
                 "success", result.isSuccess(),
                 "result", result.getResult() != null ? result.getResult() : "",
-                "error", result.getErrorMessage() != null ? result.getErrorMessage() : ""
+                "error", result.getErrorMessage() != null ? result.getErrorMessage() : "",
+                "validationErrors", result.hasValidationErrors() ? result.getValidationErrors() : List.of()
             );
             return objectMapper.writeValueAsString(resultMap);
         } catch (Exception e) {
@@ -0,0 +1,25 @@
+package com.xiaofuge.ai;
+
+/**
+ * 审核处理过程的进度回调，流式接口用它把工具执行进度和模型文本增量推给客户端
+ */
+public interface ReviewProgressListener {
+    
+    /**
+     * 不推送任何进度，同步接口使用；处理过程据此选择非流式的模型调用
+     */
+    ReviewProgressListener NONE = new ReviewProgressListener() {
+    };
+    
+    /**
+     * 一行处理进度，如工具执行结果
+     */
+    default void onProgress(String line) {
+    }
+    
+    /**
+     * 模型回复的文本增量
+     */
+    default void onText(String delta) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.xiaofuge.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.xiaofuge.ai.claude.ClaudeRequest;
+import com.xiaofuge.functioncalling.FunctionDefinition;
+import com.xiaofuge.functioncalling.FunctionRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按模型厂商缓存转换并序列化好的工具列表
+ * 以 FunctionRegistry 的版本号为准，函数集合不变时每轮请求直接拼接同一份 JSON 字节，不再重复转换和序列化
+ * 工具按名称排序，相同函数集合总是得到相同的字节
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ToolSchemaCache {
+    
+    public enum Provider {
+        CLAUDE("input_schema", true),
+        OPENAI("parameters", false);
+        
+        private final String schemaField;
+        // 最后一个工具带 cache_control，工具列表作为提示词缓存的前缀
+        private final boolean cacheBreakpoint;
+        
+        Provider(String schemaField, boolean cacheBreakpoint) {
+            this.schemaField = schemaField;
+            this.cacheBreakpoint = cacheBreakpoint;
+        }
+    }
+    
+    private final FunctionRegistry functionRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final Map<Provider, Snapshot> snapshots = Collections.synchronizedMap(new EnumMap<>(Provider.class));
+    
+    public Snapshot get(Provider provider) {
+        long version = functionRegistry.getVersion();
+        Snapshot snapshot = snapshots.get(provider);
+        if (snapshot == null || snapshot.version != version) {
+            // 先读版本再读函数：构建期间有新注册时版本号偏旧，下次调用会再重建一次
+            snapshot = build(provider, version);
+            snapshots.put(provider, snapshot);
+            log.info("工具列表已重建，厂商: {}, 版本: {}, 函数数: {}, 大小: {} 字节",
+                    provider, version, snapshot.tools.size(), snapshot.json.length);
+        }
+        return snapshot;
+    }
+    
+    private Snapshot build(Provider provider, long version) {
+        List<FunctionDefinition> definitions = functionRegistry.getAllFunctionDefinitions();
+        definitions.sort(Comparator.comparing(FunctionDefinition::getName));
+        
+        List<Map<String, Object>> tools = new ArrayList<>(definitions.size());
+        List<RawValue> items = new ArrayList<>(definitions.size());
+        for (FunctionDefinition definition : definitions) {
+            Map<String, Object> tool = new LinkedHashMap<>();
+            tool.put("name", definition.getName());
+            tool.put("description", definition.getDescription());
+            tool.put(provider.schemaField, definition.getParameters());
+            if (provider.cacheBreakpoint && tools.size() == definitions.size() - 1) {
+                tool.put("cache_control", ClaudeRequest.CACHE_CONTROL);
+            }
+            tools.add(Collections.unmodifiableMap(tool));
+            items.add(rawOf(serialize(tool)));
+        }
+        byte[] json = serialize(tools);
+        return new Snapshot(version, Collections.unmodifiableList(tools), json, rawOf(json),
+                Collections.unmodifiableList(items));
+    }
+    
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("工具列表序列化失败", e);
+        }
+    }
+    
+    // SerializedString 持有 UTF-8 字节，字节输出的 JsonGenerator 写入时直接拷贝，无需重新编码
+    private static RawValue rawOf(byte[] json) {
+        return new RawValue(new SerializedString(new String(json, StandardCharsets.UTF_8)));
+    }
+    
+    public static final class Snapshot {
+        private final long version;
+        private final List<Map<String, Object>> tools;
+        private final byte[] json;
+        private final RawValue raw;
+        private final List<RawValue> items;
+        
+        private Snapshot(long version, List<Map<String, Object>> tools, byte[] json, RawValue raw,
+                         List<RawValue> items) {
+            this.version = version;
+            this.tools = tools;
+            this.json = json;
+            this.raw = raw;
+            this.items = items;
+        }
+        
+        public long getVersion() {
+            return version;
+        }
+        
+        /**
+         * 转换后的工具列表，只读
+         */
+        public List<Map<String, Object>> getTools() {
+            return tools;
+        }
+        
+        /**
+         * 整个工具数组序列化后的 UTF-8 字节，调用方不得修改
+         */
+        public byte[] getJson() {
+            return json;
+        }
+        
+        /**
+         * 整个工具数组，作为字段值写入请求体时原样拼接
+         */
+        public RawValue getRaw() {
+            return raw;
+        }
+        
+        /**
+         * 逐个工具的预序列化值，供只接受列表的客户端库使用
+         */
+        public List<RawValue> getItems() {
+            return items;
+        }
+    }
+}
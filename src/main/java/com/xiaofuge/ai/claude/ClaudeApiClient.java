@@ -1,23 +1,47 @@
 package com.xiaofuge.ai.claude;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xiaofuge.tracing.Span;
+import com.xiaofuge.tracing.SpanKind;
+import com.xiaofuge.tracing.Tracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okio.BufferedSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
 import java.time.Duration;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 @Slf4j
 public class ClaudeApiClient {
     
+    public static final String RETRIES = "ai.claude.retries";
+    public static final String TOKENS = "ai.claude.tokens";
+    
+    // 不同的静态 system 前缀只有少数几个，超出上限时不再缓存编码结果
+    private static final int MAX_CACHED_SYSTEM_BLOCKS = 64;
+    
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final ClaudeRetryPolicy retryPolicy;
+    private final ClaudeRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
     
     @Value("${ai.claude.api-key}")
     private String apiKey;
@@ -28,77 +52,320 @@ public class ClaudeApiClient {
     @Value("${ai.claude.base-url:https://api.anthropic.com}")
     private String baseUrl;
     
-    public ClaudeApiClient() {
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(Duration.ofSeconds(30))
-                .readTimeout(Duration.ofSeconds(60))
-                .writeTimeout(Duration.ofSeconds(60))
+    private final Map<String, SerializedString> cachedSystemBlocks = new ConcurrentHashMap<>();
+    private SerializedString encodedModel;
+    private HttpUrl messagesUrl;
+    private Headers headers;
+    
+    public ClaudeApiClient(OkHttpClient claudeHttpClient, ClaudeRetryPolicy retryPolicy,
+                           ClaudeRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.httpClient = claudeHttpClient;
+        this.objectMapper = ClaudeJson.MAPPER;
+        this.retryPolicy = retryPolicy;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * 模型名、URL 和请求头每次调用都相同，启动时构建一次
+     */
+    @PostConstruct
+    void init() {
+        encodedModel = new SerializedString(model);
+        messagesUrl = HttpUrl.get(baseUrl + "/v1/messages");
+        headers = new Headers.Builder()
+                .add("x-api-key", apiKey)
+                .add("anthropic-version", "2024-06-01")
+                .add("anthropic-beta", "tools-2024-04-04,prompt-caching-2024-07-31")
                 .build();
-        this.objectMapper = new ObjectMapper();
     }
     
     public ClaudeResponse createMessage(ClaudeRequest request) throws IOException {
-        String requestBody = objectMapper.writeValueAsString(Map.of(
-            "model", model,
-            "max_tokens", request.getMaxTokens(),
-            "temperature", request.getTemperature(),
-            "messages", request.getMessages(),
-            "tools", request.getTools(),
-            "tool_choice", request.getToolChoice(),
-            "system", request.getSystemPrompt()
-        ));
-        
-        Request httpRequest = new Request.Builder()
-                .url(baseUrl + "/v1/messages")
-                .header("Content-Type", "application/json")
-                .header("x-api-key", apiKey)
-                .header("anthropic-version", "2024-06-01")
-                .header("anthropic-beta", "tools-2024-04-04")
-                .post(RequestBody.create(requestBody, MediaType.get("application/json")))
-                .build();
-        
-        log.debug("发送Claude API请求: {}", requestBody);
+        return execute(request, false, this::readResponse);
+    }
+    
+    /**
+     * 以 SSE 流式调用 Messages API，文本增量和完整的工具调用到达即回调 listener，
+     * 返回值与 createMessage 相同，便于调用方沿用同一套 Function Calling 循环
+     * 只在收到响应头之前重试，已推送给 listener 的内容无法撤回，流中途的错误直接抛出
+     */
+    public ClaudeResponse streamMessage(ClaudeRequest request, ClaudeStreamListener listener) throws IOException {
+        return execute(request, true, response -> {
+            ClaudeStreamParser parser = new ClaudeStreamParser(objectMapper, listener);
+            BufferedSource source = response.body().source();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                parser.feedLine(line);
+            }
+            return parser.finish();
+        });
+    }
+    
+    /**
+     * 通过 enqueue 异步调用，调用线程不等待模型响应；取消返回的 future 会取消底层请求
+     * 并发上限和排队由共享客户端的 Dispatcher 控制，见 ai.claude.http；限流等待和重试退避通过延迟调度完成，不占用线程
+     */
+    public CompletableFuture<ClaudeResponse> createMessageAsync(ClaudeRequest request) {
+        ClaudeRequestBody requestBody;
+        try {
+            requestBody = requestBody(request, false);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Request httpRequest = httpRequest(requestBody);
+        Span span = startSpan(httpRequest, false);
         
-        try (Response response = httpClient.newCall(httpRequest).execute()) {
-            if (!response.isSuccessful()) {
-                String errorBody = response.body() != null ? response.body().string() : "No response body";
-                log.error("Claude API调用失败: HTTP {}, Body: {}", response.code(), errorBody);
-                throw new IOException("Claude API调用失败: " + response.code() + " - " + errorBody);
+        CompletableFuture<ClaudeResponse> future = new CompletableFuture<>();
+        AtomicReference<Call> currentCall = new AtomicReference<>();
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                Call call = currentCall.get();
+                if (call != null) {
+                    call.cancel();
+                }
+            } else if (error != null) {
+                span.recordException(error instanceof CompletionException ? error.getCause() : error);
             }
-            
-            String responseBody = response.body().string();
-            log.debug("Claude API响应: {}", responseBody);
-            
-            JsonNode jsonResponse = objectMapper.readTree(responseBody);
-            return parseClaudeResponse(jsonResponse);
+            span.end();
+        });
+        enqueue(httpRequest, bodySize(requestBody), request.getMaxTokens(), span, future, currentCall, 1);
+        return future;
+    }
+    
+    private ClaudeResponse execute(ClaudeRequest request, boolean stream, ResponseReader reader) throws IOException {
+        ClaudeRequestBody requestBody = requestBody(request, stream);
+        Request httpRequest = httpRequest(requestBody);
+        Span span = startSpan(httpRequest, stream);
+        int bodySize = bodySize(requestBody);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                ClaudeRateLimiter.Permit permit = rateLimiter.acquire(bodySize, request.getMaxTokens());
+                Response response = null;
+                try {
+                    response = httpClient.newCall(httpRequest).execute();
+                    checkResponse(response, span);
+                } catch (IOException e) {
+                    if (response != null) {
+                        response.close();
+                    }
+                    rateLimiter.refund(permit);
+                    Duration backoff = backoff(attempt, e, span);
+                    if (backoff == null) {
+                        throw e;
+                    }
+                    sleep(backoff);
+                    continue;
+                }
+                
+                try (Response received = response) {
+                    ClaudeResponse claudeResponse = reader.read(received);
+                    rateLimiter.reconcile(permit, claudeResponse.getUsage());
+                    return endSpan(span, claudeResponse);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
         }
     }
     
-    private ClaudeResponse parseClaudeResponse(JsonNode response) {
-        ClaudeResponse.ClaudeResponseBuilder builder = ClaudeResponse.builder();
+    private void enqueue(Request httpRequest, int bodySize, Integer maxTokens, Span span,
+                         CompletableFuture<ClaudeResponse> future, AtomicReference<Call> currentCall, int attempt) {
+        ClaudeRateLimiter.Permit permit;
+        try {
+            permit = rateLimiter.reserve(bodySize, maxTokens);
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            return;
+        }
         
-        builder.id(response.path("id").asText())
-               .model(response.path("model").asText())
-               .role(response.path("role").asText())
-               .stopReason(response.path("stop_reason").asText());
+        Runnable send = () -> {
+            if (future.isDone()) {
+                rateLimiter.refund(permit);
+                return;
+            }
+            Call call = httpClient.newCall(httpRequest);
+            currentCall.set(call);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    retryOrFail(e);
+                }
+                
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try {
+                        checkResponse(response, span);
+                    } catch (IOException e) {
+                        response.close();
+                        retryOrFail(e);
+                        return;
+                    }
+                    try (response) {
+                        ClaudeResponse claudeResponse = readResponse(response);
+                        rateLimiter.reconcile(permit, claudeResponse.getUsage());
+                        future.complete(endSpan(span, claudeResponse));
+                    } catch (IOException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+                
+                private void retryOrFail(IOException e) {
+                    rateLimiter.refund(permit);
+                    Duration backoff = future.isDone() ? null : backoff(attempt, e, span);
+                    if (backoff == null) {
+                        future.completeExceptionally(e);
+                        return;
+                    }
+                    CompletableFuture.delayedExecutor(backoff.toMillis(), TimeUnit.MILLISECONDS).execute(() ->
+                            enqueue(httpRequest, bodySize, maxTokens, span, future, currentCall, attempt + 1));
+                }
+            });
+        };
         
-        JsonNode contentArray = response.path("content");
-        if (contentArray.isArray() && contentArray.size() > 0) {
-            JsonNode firstContent = contentArray.get(0);
-            String type = firstContent.path("type").asText();
-            
-            if ("text".equals(type)) {
-                builder.content(firstContent.path("text").asText());
-            } else if ("tool_use".equals(type)) {
-                ClaudeToolUse toolUse = ClaudeToolUse.builder()
-                        .id(firstContent.path("id").asText())
-                        .name(firstContent.path("name").asText())
-                        .input(firstContent.path("input"))
-                        .build();
-                builder.toolUse(toolUse);
+        if (permit.getDelay().isZero()) {
+            send.run();
+        } else {
+            CompletableFuture.delayedExecutor(permit.getDelay().toNanos(), TimeUnit.NANOSECONDS).execute(send);
+        }
+    }
+    
+    private Duration backoff(int attempt, IOException error, Span span) {
+        Duration backoff = retryPolicy.backoff(attempt, error);
+        if (backoff == null) {
+            return null;
+        }
+        String status = error instanceof ClaudeApiException apiError
+                ? String.valueOf(apiError.getStatusCode()) : "io_error";
+        Counter.builder(RETRIES)
+                .description("Claude API 调用重试次数")
+                .tag("status", status)
+                .register(meterRegistry)
+                .increment();
+        span.setAttribute("http.request.resend_count", attempt);
+        log.warn("Claude API调用失败（第 {} 次）: {}，{}ms 后重试", attempt, error.getMessage(), backoff.toMillis());
+        return backoff;
+    }
+    
+    private static void sleep(Duration duration) throws IOException {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待重试时被中断");
+        }
+    }
+    
+    // 请求体在发送时才序列化，这里只记录摘要；完整请求体仅在 trace 级别另行生成
+    private ClaudeRequestBody requestBody(ClaudeRequest request, boolean stream) throws IOException {
+        ClaudeRequestBody requestBody = new ClaudeRequestBody(encodedModel, request,
+                cachedSystemBlock(request.getCachedSystemPrompt()), stream);
+        log.debug("发送Claude API请求: 消息数 {}, 预估大小 {} 字节",
+                request.getMessages() != null ? request.getMessages().size() : 0, requestBody.getEstimatedBytes());
+        if (log.isTraceEnabled()) {
+            StringWriter json = new StringWriter();
+            try (JsonGenerator generator = objectMapper.createGenerator(json)) {
+                requestBody.writeJson(generator);
             }
+            log.trace("Claude API请求体: {}", json);
         }
-        
-        return builder.build();
+        return requestBody;
+    }
+    
+    // 带缓存断点的静态 system 块按提示词编码一次，之后每次请求直接拷贝字节
+    private SerializedString cachedSystemBlock(String cachedSystemPrompt) throws IOException {
+        if (cachedSystemPrompt == null) {
+            return null;
+        }
+        SerializedString block = cachedSystemBlocks.get(cachedSystemPrompt);
+        if (block != null) {
+            return block;
+        }
+        Map<String, Object> blockMap = new LinkedHashMap<>();
+        blockMap.put("type", "text");
+        blockMap.put("text", cachedSystemPrompt);
+        blockMap.put("cache_control", ClaudeRequest.CACHE_CONTROL);
+        block = new SerializedString(objectMapper.writeValueAsString(blockMap));
+        if (cachedSystemBlocks.size() < MAX_CACHED_SYSTEM_BLOCKS) {
+            cachedSystemBlocks.putIfAbsent(cachedSystemPrompt, block);
+        }
+        return block;
+    }
+    
+    private static int bodySize(ClaudeRequestBody requestBody) {
+        return (int) Math.min(requestBody.getEstimatedBytes(), Integer.MAX_VALUE);
+    }
+    
+    private Request httpRequest(ClaudeRequestBody requestBody) {
+        return new Request.Builder()
+                .url(messagesUrl)
+                .headers(headers)
+                .post(requestBody)
+                .build();
+    }
+    
+    private Span startSpan(Request httpRequest, boolean stream) {
+        return Tracer.startSpan("chat " + model, SpanKind.CLIENT)
+                .setAttribute("gen_ai.system", "anthropic")
+                .setAttribute("gen_ai.request.model", model)
+                .setAttribute("gen_ai.request.stream", stream)
+                .setAttribute("http.request.method", "POST")
+                .setAttribute("url.full", httpRequest.url().toString());
+    }
+    
+    private ClaudeResponse readResponse(Response response) throws IOException {
+        ClaudeResponse claudeResponse = ClaudeResponseDecoder.decode(objectMapper, response.body().byteStream());
+        log.debug("Claude API响应: {}", claudeResponse);
+        return claudeResponse;
+    }
+    
+    private void checkResponse(Response response, Span span) throws IOException {
+        span.setAttribute("http.response.status_code", response.code());
+        // 请求体以分块方式写出，实际大小在发送后才知道
+        if (response.request().body() instanceof ClaudeRequestBody requestBody) {
+            span.setAttribute("http.request.body.size", requestBody.getWrittenBytes());
+        }
+        if (!response.isSuccessful()) {
+            String errorBody = response.body() != null ? response.body().string() : "No response body";
+            log.error("Claude API调用失败: HTTP {}, Body: {}", response.code(), errorBody);
+            throw new ClaudeApiException(response.code(), errorBody,
+                    ClaudeRetryPolicy.parseRetryAfter(response.header("retry-after")));
+        }
+    }
+    
+    private ClaudeResponse endSpan(Span span, ClaudeResponse claudeResponse) {
+        span.setAttribute("gen_ai.response.id", claudeResponse.getId())
+                .setAttribute("gen_ai.response.finish_reason", claudeResponse.getStopReason());
+        ClaudeUsage usage = claudeResponse.getUsage();
+        if (usage != null) {
+            span.setAttribute("gen_ai.usage.input_tokens", usage.getInputTokens())
+                    .setAttribute("gen_ai.usage.output_tokens", usage.getOutputTokens())
+                    .setAttribute("gen_ai.usage.cache_creation_input_tokens", usage.getCacheCreationInputTokens())
+                    .setAttribute("gen_ai.usage.cache_read_input_tokens", usage.getCacheReadInputTokens());
+            recordTokens("input", usage.getInputTokens());
+            recordTokens("output", usage.getOutputTokens());
+            recordTokens("cache_write", usage.getCacheCreationInputTokens());
+            recordTokens("cache_read", usage.getCacheReadInputTokens());
+        }
+        return claudeResponse;
+    }
+    
+    /**
+     * 按类型累计 token 用量，cache_read / (cache_read + cache_write + input) 即提示词缓存命中率
+     */
+    private void recordTokens(String type, int tokens) {
+        Counter.builder(TOKENS)
+                .description("Claude API 消耗的 token 数")
+                .tag("model", model)
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment(tokens);
+    }
+    
+    @FunctionalInterface
+    private interface ResponseReader {
+        ClaudeResponse read(Response response) throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package com.xiaofuge.ai.claude;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Claude API 返回非 2xx 状态码，retryAfter 为响应头 retry-after 的解析结果，没有时为 null
+ */
+@Getter
+public class ClaudeApiException extends IOException {
+    private final int statusCode;
+    private final Duration retryAfter;
+    
+    public ClaudeApiException(int statusCode, String body, Duration retryAfter) {
+        super("Claude API调用失败: " + statusCode + " - " + body);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+}
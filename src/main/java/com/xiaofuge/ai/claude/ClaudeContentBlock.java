@@ -0,0 +1,27 @@
+package com.xiaofuge.ai.claude;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 响应 content 数组中的一个块：text 块只有 text，tool_use 块只有 toolUse，其他类型只记录 type
+ */
+@Data
+@Builder
+public class ClaudeContentBlock {
+    
+    public static final String TEXT = "text";
+    public static final String TOOL_USE = "tool_use";
+    
+    private String type;
+    private String text;
+    private ClaudeToolUse toolUse;
+    
+    public boolean isText() {
+        return TEXT.equals(type);
+    }
+    
+    public boolean isToolUse() {
+        return TOOL_USE.equals(type);
+    }
+}
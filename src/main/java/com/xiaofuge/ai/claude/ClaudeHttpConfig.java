@@ -0,0 +1,66 @@
+package com.xiaofuge.ai.claude;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享的 OkHttpClient：按配置调整连接池和 Dispatcher 并发上限，同步、异步和流式调用共用
+ */
+@Configuration
+@Slf4j
+public class ClaudeHttpConfig {
+    
+    public static final String CALLS = "ai.claude.http.calls";
+    public static final String CONNECTIONS = "ai.claude.http.connections";
+    
+    @Bean
+    public OkHttpClient claudeHttpClient(ClaudeHttpProperties properties, MeterRegistry meterRegistry) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(properties.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(properties.getMaxRequestsPerHost());
+        ConnectionPool connectionPool = new ConnectionPool(properties.getMaxIdleConnections(),
+                properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+        
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(properties.getConnectTimeout())
+                .readTimeout(properties.getReadTimeout())
+                .writeTimeout(properties.getWriteTimeout())
+                .dispatcher(dispatcher)
+                .connectionPool(connectionPool);
+        if (!properties.isHttp2()) {
+            builder.protocols(List.of(Protocol.HTTP_1_1));
+        }
+        
+        Gauge.builder(CALLS, dispatcher, Dispatcher::runningCallsCount)
+                .description("正在执行的 Claude API 请求数")
+                .tag("state", "running")
+                .register(meterRegistry);
+        Gauge.builder(CALLS, dispatcher, Dispatcher::queuedCallsCount)
+                .description("因并发上限在 Dispatcher 中排队的 Claude API 请求数")
+                .tag("state", "queued")
+                .register(meterRegistry);
+        Gauge.builder(CONNECTIONS, connectionPool, ConnectionPool::connectionCount)
+                .description("Claude API 连接池中的连接数")
+                .tag("state", "total")
+                .register(meterRegistry);
+        Gauge.builder(CONNECTIONS, connectionPool, ConnectionPool::idleConnectionCount)
+                .description("Claude API 连接池中的空闲连接数")
+                .tag("state", "idle")
+                .register(meterRegistry);
+        
+        log.info("Claude HTTP 客户端已初始化，最大并发: {}/{}, 空闲连接: {}, HTTP/2: {}",
+                properties.getMaxRequests(), properties.getMaxRequestsPerHost(),
+                properties.getMaxIdleConnections(), properties.isHttp2());
+        return builder.build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.xiaofuge.ai.claude;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Claude API 的 HTTP 客户端配置，对应 ai.claude.http
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.claude.http")
+public class ClaudeHttpProperties {
+
+    private Duration connectTimeout = Duration.ofSeconds(30);
+
+    private Duration readTimeout = Duration.ofSeconds(60);
+
+    private Duration writeTimeout = Duration.ofSeconds(60);
+
+    /**
+     * 连接池保留的空闲连接数，OkHttp 默认仅 5 个
+     */
+    private int maxIdleConnections = 50;
+
+    private Duration keepAlive = Duration.ofMinutes(5);
+
+    /**
+     * 启用后通过 ALPN 协商 HTTP/2，同一主机的并发请求复用少量连接
+     */
+    private boolean http2 = true;
+
+    /**
+     * 同时执行的请求上限，超出的异步请求在 Dispatcher 中排队
+     */
+    private int maxRequests = 256;
+
+    /**
+     * 单个主机同时执行的请求上限，OkHttp 默认仅 5 个；所有请求都发往同一 API 主机，通常与 maxRequests 相同
+     */
+    private int maxRequestsPerHost = 256;
+}
@@ -0,0 +1,25 @@
+package com.xiaofuge.ai.claude;
+
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Claude API 客户端共用的 ObjectMapper
+ * 不注册为 Spring Bean，避免替换 Spring Boot 自动配置的 MVC ObjectMapper；
+ * Blackbird 以 LambdaMetafactory 生成的访问器代替反射读写 Bean 属性
+ */
+public final class ClaudeJson {
+    
+    public static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new BlackbirdModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            // 请求体写入 OkHttp 的 sink，关闭生成器时只刷新，由 OkHttp 负责关闭
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    
+    private ClaudeJson() {
+    }
+}
@@ -0,0 +1,190 @@
+package com.xiaofuge.ai.claude;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Claude API 客户端限流，按每分钟请求数、输入 token 数和输出 token 数三个令牌桶平滑流量
+ * 输入 token 按请求体字节数估算，输出 token 按 max_tokens 预留，响应返回 usage 后按实际用量校正；
+ * 预留允许透支，后到的请求按透支额排队等待，等待超过 max-wait 时直接失败而不是堆积
+ */
+@Component
+@Slf4j
+public class ClaudeRateLimiter {
+    
+    public static final String WAIT = "ai.claude.throttle.wait";
+    public static final String REJECTED = "ai.claude.throttle.rejected";
+    
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final int bytesPerToken;
+    private final TokenBucket requests;
+    private final TokenBucket inputTokens;
+    private final TokenBucket outputTokens;
+    private final LongSupplier nanoClock;
+    private final Timer waits;
+    private final Counter rejected;
+    
+    @Autowired
+    public ClaudeRateLimiter(@Value("${ai.claude.rate-limit.enabled:true}") boolean enabled,
+                             @Value("${ai.claude.rate-limit.requests-per-minute:50}") long requestsPerMinute,
+                             @Value("${ai.claude.rate-limit.input-tokens-per-minute:50000}") long inputTokensPerMinute,
+                             @Value("${ai.claude.rate-limit.output-tokens-per-minute:10000}") long outputTokensPerMinute,
+                             @Value("${ai.claude.rate-limit.max-wait:30s}") Duration maxWait,
+                             @Value("${ai.claude.rate-limit.bytes-per-token:3}") int bytesPerToken,
+                             MeterRegistry meterRegistry) {
+        this(enabled, requestsPerMinute, inputTokensPerMinute, outputTokensPerMinute, maxWait, bytesPerToken,
+                meterRegistry, System::nanoTime);
+    }
+    
+    ClaudeRateLimiter(boolean enabled, long requestsPerMinute, long inputTokensPerMinute, long outputTokensPerMinute,
+                      Duration maxWait, int bytesPerToken, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.maxWait = maxWait;
+        this.bytesPerToken = Math.max(1, bytesPerToken);
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        this.requests = new TokenBucket(requestsPerMinute, now);
+        this.inputTokens = new TokenBucket(inputTokensPerMinute, now);
+        this.outputTokens = new TokenBucket(outputTokensPerMinute, now);
+        this.waits = Timer.builder(WAIT)
+                .description("请求发出前在客户端限流器中的等待时间")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED)
+                .description("限流等待超过上限而直接失败的请求数")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 预留一次请求的额度并返回需要等待的时间，不阻塞；异步调用据此延迟发送
+     */
+    public Permit reserve(int requestBytes, Integer maxOutputTokens) throws IOException {
+        long input = Math.max(1, requestBytes / bytesPerToken);
+        long output = maxOutputTokens != null ? maxOutputTokens : 0;
+        if (!enabled) {
+            return new Permit(input, output, Duration.ZERO);
+        }
+        
+        long waitNanos;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            waitNanos = Math.max(requests.waitFor(1, now),
+                    Math.max(inputTokens.waitFor(input, now), outputTokens.waitFor(output, now)));
+            if (waitNanos > maxWait.toNanos()) {
+                rejected.increment();
+                throw new IOException(String.format("Claude API 客户端限流: 需等待 %dms，超过上限 %dms",
+                        TimeUnit.NANOSECONDS.toMillis(waitNanos), maxWait.toMillis()));
+            }
+            requests.take(1);
+            inputTokens.take(input);
+            outputTokens.take(output);
+        }
+        waits.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos > 0) {
+            log.debug("Claude API 请求限流等待 {}ms，预估输入 token: {}", TimeUnit.NANOSECONDS.toMillis(waitNanos), input);
+        }
+        return new Permit(input, output, Duration.ofNanos(waitNanos));
+    }
+    
+    /**
+     * 预留额度并阻塞到可以发送
+     */
+    public Permit acquire(int requestBytes, Integer maxOutputTokens) throws IOException {
+        Permit permit = reserve(requestBytes, maxOutputTokens);
+        if (!permit.getDelay().isZero()) {
+            try {
+                Thread.sleep(permit.getDelay().toMillis(), permit.getDelay().toNanosPart() % 1_000_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待 Claude API 限流额度时被中断");
+            }
+        }
+        return permit;
+    }
+    
+    /**
+     * 按响应中的实际用量校正预留的 token，多退少补；没有 usage 时保持预留不变
+     */
+    public void reconcile(Permit permit, ClaudeUsage usage) {
+        if (!enabled || usage == null) {
+            return;
+        }
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            // 命中缓存的输入不计入每分钟输入 token 配额，写入缓存的计入
+            inputTokens.adjust(permit.getInputTokens() - usage.getInputTokens()
+                    - usage.getCacheCreationInputTokens(), now);
+            outputTokens.adjust(permit.getOutputTokens() - usage.getOutputTokens(), now);
+        }
+    }
+    
+    /**
+     * 请求未被服务端处理（如 429、连接失败）时退还 token 预留，请求数额度不退还
+     */
+    public void refund(Permit permit) {
+        reconcile(permit, new ClaudeUsage());
+    }
+    
+    @Getter
+    public static class Permit {
+        private final long inputTokens;
+        private final long outputTokens;
+        private final Duration delay;
+        
+        private Permit(long inputTokens, long outputTokens, Duration delay) {
+            this.inputTokens = inputTokens;
+            this.outputTokens = outputTokens;
+            this.delay = delay;
+        }
+    }
+    
+    /**
+     * 容量为每分钟配额、匀速补充的令牌桶，余额可以为负表示已被后续请求预支
+     */
+    private static class TokenBucket {
+        private final double capacity;
+        private final double nanosPerToken;
+        private double available;
+        private long lastRefill;
+        
+        private TokenBucket(long perMinute, long now) {
+            this.capacity = Math.max(1, perMinute);
+            this.nanosPerToken = TimeUnit.MINUTES.toNanos(1) / capacity;
+            this.available = capacity;
+            this.lastRefill = now;
+        }
+        
+        private long waitFor(long cost, long now) {
+            refill(now);
+            // 单次需求超过整桶容量时按整桶计算，否则永远等不到
+            double deficit = Math.min(cost, capacity) - available;
+            return deficit <= 0 ? 0 : (long) Math.ceil(deficit * nanosPerToken);
+        }
+        
+        private void take(long cost) {
+            available -= Math.min(cost, capacity);
+        }
+        
+        private void adjust(long delta, long now) {
+            refill(now);
+            available = Math.min(capacity, available + delta);
+        }
+        
+        private void refill(long now) {
+            available = Math.min(capacity, available + (now - lastRefill) / nanosPerToken);
+            lastRefill = now;
+        }
+    }
+}
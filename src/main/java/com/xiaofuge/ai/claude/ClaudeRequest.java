@@ -1,5 +1,6 @@
 package com.xiaofuge.ai.claude;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,9 +10,19 @@ import java.util.Map;
 @Data
 @Builder
 public class ClaudeRequest {
+    
+    /**
+     * 提示词缓存断点：请求中到此为止的前缀（tools、system、messages 依次拼接）会被服务端缓存
+     */
+    public static final Map<String, Object> CACHE_CONTROL = Map.of("type", "ephemeral");
+    
+    // 静态系统提示词，作为带缓存断点的第一个 system 块发送
+    private String cachedSystemPrompt;
+    // 随请求变化的系统提示词，放在缓存断点之后
     private String systemPrompt;
     private List<Map<String, Object>> messages;
-    private List<Map<String, Object>> tools;
+    // 预先序列化的工具数组，写入请求体时原样拼接
+    private RawValue tools;
     private Map<String, Object> toolChoice;
     private Integer maxTokens;
     private Double temperature;
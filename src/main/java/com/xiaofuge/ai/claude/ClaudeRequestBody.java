@@ -0,0 +1,228 @@
+package com.xiaofuge.ai.claude;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Messages API 请求体，发送时直接以 JSON 流写入 OkHttp 的 BufferedSink，不生成完整的 byte[] 或 String
+ * 字段名、模型名、静态 system 块和工具列表都是预先编码好的字节，写入时直接拷贝；对话历史在写出时逐个序列化
+ * 每次写入都重新生成，重试时可以再次发送
+ */
+public class ClaudeRequestBody extends RequestBody {
+    
+    public static final MediaType JSON = MediaType.get("application/json");
+    
+    private static final SerializedString MODEL = new SerializedString("model");
+    private static final SerializedString MAX_TOKENS = new SerializedString("max_tokens");
+    private static final SerializedString TEMPERATURE = new SerializedString("temperature");
+    private static final SerializedString SYSTEM = new SerializedString("system");
+    private static final SerializedString TOOLS = new SerializedString("tools");
+    private static final SerializedString TOOL_CHOICE = new SerializedString("tool_choice");
+    private static final SerializedString STREAM = new SerializedString("stream");
+    private static final SerializedString MESSAGES = new SerializedString("messages");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString TEXT = new SerializedString("text");
+    
+    private final SerializableString model;
+    private final ClaudeRequest request;
+    private final SerializableString cachedSystemBlock;
+    private final boolean stream;
+    private final long estimatedBytes;
+    private volatile long writtenBytes;
+    
+    /**
+     * @param model             预先编码的模型名
+     * @param cachedSystemBlock 预先编码的带缓存断点的静态 system 块，没有时为 null
+     */
+    public ClaudeRequestBody(SerializableString model, ClaudeRequest request,
+                             SerializableString cachedSystemBlock, boolean stream) {
+        this.model = model;
+        this.request = request;
+        this.cachedSystemBlock = cachedSystemBlock;
+        this.stream = stream;
+        this.estimatedBytes = estimateBytes(request);
+    }
+    
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+    
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        CountingOutputStream out = new CountingOutputStream(sink.outputStream());
+        try (JsonGenerator generator = ClaudeJson.MAPPER.createGenerator(out, JsonEncoding.UTF8)) {
+            writeJson(generator);
+        }
+        writtenBytes = out.count;
+    }
+    
+    /**
+     * 按与 writeTo 相同的格式写入任意生成器，用于调试日志
+     */
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(MODEL);
+        generator.writeString(model);
+        if (request.getMaxTokens() != null) {
+            generator.writeFieldName(MAX_TOKENS);
+            generator.writeNumber(request.getMaxTokens());
+        }
+        if (request.getTemperature() != null) {
+            generator.writeFieldName(TEMPERATURE);
+            generator.writeNumber(request.getTemperature());
+        }
+        writeSystem(generator);
+        if (request.getTools() != null) {
+            generator.writeFieldName(TOOLS);
+            generator.writeObject(request.getTools());
+        }
+        if (request.getToolChoice() != null) {
+            generator.writeFieldName(TOOL_CHOICE);
+            generator.writeObject(request.getToolChoice());
+        }
+        if (stream) {
+            generator.writeFieldName(STREAM);
+            generator.writeBoolean(true);
+        }
+        generator.writeFieldName(MESSAGES);
+        generator.writeObject(request.getMessages());
+        generator.writeEndObject();
+    }
+    
+    /**
+     * 写入前按字符串的 UTF-8 长度估算的请求体大小，限流器据此估算输入 token
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+    
+    /**
+     * 最近一次实际写出的字节数，尚未发送时为 0
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+    
+    // 有静态块时以 system 块数组发送，缓存断点落在静态块上；否则保持纯文本
+    private void writeSystem(JsonGenerator generator) throws IOException {
+        String systemPrompt = request.getSystemPrompt();
+        if (cachedSystemBlock == null) {
+            if (systemPrompt != null) {
+                generator.writeFieldName(SYSTEM);
+                generator.writeString(systemPrompt);
+            }
+            return;
+        }
+        generator.writeFieldName(SYSTEM);
+        generator.writeStartArray();
+        generator.writeRawValue(cachedSystemBlock);
+        if (systemPrompt != null && !systemPrompt.isBlank()) {
+            generator.writeStartObject();
+            generator.writeFieldName(TYPE);
+            generator.writeString(TEXT);
+            generator.writeFieldName(TEXT);
+            generator.writeString(systemPrompt);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+    
+    private long estimateBytes(ClaudeRequest request) {
+        long bytes = 128;
+        if (cachedSystemBlock != null) {
+            bytes += cachedSystemBlock.asUnquotedUTF8().length;
+        }
+        return bytes + estimateBytes(request.getSystemPrompt()) + estimateBytes(request.getTools())
+                + estimateBytes(request.getToolChoice()) + estimateBytes(request.getMessages());
+    }
+    
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return utf8Length(text) + 2;
+        }
+        if (value instanceof RawValue raw && raw.rawValue() instanceof SerializableString serialized) {
+            return serialized.asUnquotedUTF8().length;
+        }
+        long bytes = 2;
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                bytes += estimateBytes(String.valueOf(entry.getKey())) + estimateBytes(entry.getValue()) + 2;
+            }
+        } else if (value instanceof Collection<?> collection) {
+            for (Object item : collection) {
+                bytes += estimateBytes(item) + 1;
+            }
+        } else if (value instanceof JsonNode node) {
+            if (node.isTextual()) {
+                return utf8Length(node.textValue()) + 2;
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                bytes += estimateBytes(field.getKey()) + estimateBytes(field.getValue()) + 2;
+            }
+            if (node.isArray()) {
+                for (JsonNode item : node) {
+                    bytes += estimateBytes(item) + 1;
+                }
+            }
+        } else {
+            // 数字、布尔值等
+            bytes = 8;
+        }
+        return bytes;
+    }
+    
+    private static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // 代理对两个 char 合计 4 字节
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+    
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+        
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
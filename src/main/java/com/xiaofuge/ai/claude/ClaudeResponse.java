@@ -3,13 +3,23 @@ package com.xiaofuge.ai.claude;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 @Builder
 public class ClaudeResponse {
     private String id;
     private String model;
     private String role;
+    // 所有 text 块拼接的文本，没有文本时为 null
     private String content;
     private String stopReason;
+    // 第一个 tool_use 块
     private ClaudeToolUse toolUse;
+    // 按顺序的全部 tool_use 块，同一轮的每个调用都要在下一条消息中给出 tool_result
+    @Builder.Default
+    private List<ClaudeToolUse> toolUses = List.of();
+    @Builder.Default
+    private List<ClaudeContentBlock> contentBlocks = List.of();
+    private ClaudeUsage usage;
 }
\ No newline at end of file
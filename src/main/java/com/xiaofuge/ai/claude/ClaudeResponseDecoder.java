@@ -0,0 +1,131 @@
+package com.xiaofuge.ai.claude;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Messages API 非流式响应的解码器
+ * 用 JsonParser 直接从响应字节流按字段读取，不经过整体 String 和 JsonNode 树；
+ * 只有 tool_use 的 input 按 JsonNode 读出，交给函数调用时再按参数类型转换
+ */
+public final class ClaudeResponseDecoder {
+    
+    private ClaudeResponseDecoder() {
+    }
+    
+    public static ClaudeResponse decode(ObjectMapper objectMapper, InputStream in) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Claude API响应不是 JSON 对象: " + parser.currentToken());
+            }
+            ClaudeResponse.ClaudeResponseBuilder builder = ClaudeResponse.builder();
+            List<ClaudeContentBlock> blocks = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "id" -> builder.id(parser.getValueAsString());
+                    case "model" -> builder.model(parser.getValueAsString());
+                    case "role" -> builder.role(parser.getValueAsString());
+                    case "stop_reason" -> builder.stopReason(parser.getValueAsString());
+                    case "content" -> readBlocks(parser, blocks);
+                    case "usage" -> builder.usage(readUsage(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            return withBlocks(builder, blocks).build();
+        }
+    }
+    
+    /**
+     * 由全部内容块填充 content、toolUse、toolUses 和 contentBlocks，流式解析器共用
+     */
+    static ClaudeResponse.ClaudeResponseBuilder withBlocks(ClaudeResponse.ClaudeResponseBuilder builder,
+                                                            List<ClaudeContentBlock> blocks) {
+        StringBuilder text = new StringBuilder();
+        List<ClaudeToolUse> toolUses = new ArrayList<>();
+        for (ClaudeContentBlock block : blocks) {
+            if (block.isText() && block.getText() != null) {
+                text.append(block.getText());
+            } else if (block.isToolUse() && block.getToolUse() != null) {
+                toolUses.add(block.getToolUse());
+            }
+        }
+        return builder.content(text.length() > 0 ? text.toString() : null)
+                .toolUse(toolUses.isEmpty() ? null : toolUses.get(0))
+                .toolUses(Collections.unmodifiableList(toolUses))
+                .contentBlocks(Collections.unmodifiableList(blocks));
+    }
+    
+    private static void readBlocks(JsonParser parser, List<ClaudeContentBlock> blocks) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            blocks.add(readBlock(parser));
+        }
+    }
+    
+    // 字段顺序不固定，读完整个对象再按 type 组装
+    private static ClaudeContentBlock readBlock(JsonParser parser) throws IOException {
+        String type = null;
+        String text = null;
+        String id = null;
+        String name = null;
+        JsonNode input = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "type" -> type = parser.getValueAsString();
+                case "text" -> text = parser.getValueAsString();
+                case "id" -> id = parser.getValueAsString();
+                case "name" -> name = parser.getValueAsString();
+                case "input" -> input = parser.readValueAsTree();
+                default -> parser.skipChildren();
+            }
+        }
+        
+        ClaudeContentBlock.ClaudeContentBlockBuilder block = ClaudeContentBlock.builder().type(type);
+        if (ClaudeContentBlock.TEXT.equals(type)) {
+            block.text(text);
+        } else if (ClaudeContentBlock.TOOL_USE.equals(type)) {
+            block.toolUse(ClaudeToolUse.builder()
+                    .id(id)
+                    .name(name)
+                    .input(input != null ? input : JsonNodeFactory.instance.objectNode())
+                    .build());
+        }
+        return block.build();
+    }
+    
+    private static ClaudeUsage readUsage(JsonParser parser) throws IOException {
+        ClaudeUsage usage = new ClaudeUsage();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return usage;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "input_tokens" -> usage.setInputTokens(parser.getValueAsInt());
+                case "output_tokens" -> usage.setOutputTokens(parser.getValueAsInt());
+                case "cache_creation_input_tokens" -> usage.setCacheCreationInputTokens(parser.getValueAsInt());
+                case "cache_read_input_tokens" -> usage.setCacheReadInputTokens(parser.getValueAsInt());
+                default -> parser.skipChildren();
+            }
+        }
+        return usage;
+    }
+}
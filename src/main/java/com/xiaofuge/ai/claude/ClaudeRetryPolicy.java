@@ -0,0 +1,86 @@
+package com.xiaofuge.ai.claude;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Claude API 调用的重试策略
+ * 限流（429）、过载（529）和网关类错误按指数退避加随机抖动重试；响应带 retry-after 时至少等待该时长，
+ * 超过最大退避时间则不再重试，直接交给调用方
+ */
+@Component
+public class ClaudeRetryPolicy {
+    
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(408, 429, 500, 502, 503, 504, 529);
+    
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    
+    public ClaudeRetryPolicy(@Value("${ai.claude.retry.max-attempts:4}") int maxAttempts,
+                             @Value("${ai.claude.retry.initial-backoff:1s}") Duration initialBackoff,
+                             @Value("${ai.claude.retry.max-backoff:30s}") Duration maxBackoff) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+    
+    /**
+     * 第 attempt 次（从 1 开始）调用失败后的等待时间，不应重试时返回 null
+     * 连接失败、超时等未收到响应的 IOException 也会重试
+     */
+    public Duration backoff(int attempt, IOException error) {
+        if (attempt >= maxAttempts) {
+            return null;
+        }
+        Duration retryAfter = null;
+        if (error instanceof ClaudeApiException apiError) {
+            if (!RETRYABLE_STATUS.contains(apiError.getStatusCode())) {
+                return null;
+            }
+            retryAfter = apiError.getRetryAfter();
+        }
+        
+        long initialMillis = initialBackoff.toMillis();
+        if (retryAfter != null) {
+            if (retryAfter.compareTo(maxBackoff) > 0) {
+                return null;
+            }
+            // 同一时刻被限流的请求错开重试，避免在 retry-after 到期时再次集中打到服务端
+            return retryAfter.plusMillis(ThreadLocalRandom.current().nextLong(initialMillis + 1));
+        }
+        long ceiling = Math.min(maxBackoff.toMillis(), initialMillis << Math.min(attempt - 1, 20));
+        // 等值抖动：一半固定一半随机，既分散重试又保证退避逐次增长
+        return Duration.ofMillis(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+    }
+    
+    /**
+     * 解析 retry-after：秒数（可带小数）或 HTTP 日期，无法解析时返回 null
+     */
+    public static Duration parseRetryAfter(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        String value = header.trim();
+        try {
+            return Duration.ofMillis((long) Math.max(0, Double.parseDouble(value) * 1000));
+        } catch (NumberFormatException ignored) {
+            // 非数字时按 HTTP 日期解析
+        }
+        try {
+            Duration delay = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.xiaofuge.ai.claude;
+
+/**
+ * 流式响应回调，在读取响应的线程上同步调用
+ */
+@FunctionalInterface
+public interface ClaudeStreamListener {
+    
+    void onText(String delta);
+    
+    /**
+     * tool_use 块结束、参数 JSON 拼接完整后回调
+     */
+    default void onToolUse(ClaudeToolUse toolUse) {
+    }
+}
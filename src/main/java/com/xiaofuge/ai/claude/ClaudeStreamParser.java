@@ -0,0 +1,167 @@
+package com.xiaofuge.ai.claude;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Messages API 流式响应（SSE）的增量解析器
+ * 按行输入，空行结束一个事件；text_delta 到达即回调，tool_use 的 input_json_delta 累积到块结束时再解析
+ */
+public class ClaudeStreamParser {
+    
+    private final ObjectMapper objectMapper;
+    private final ClaudeStreamListener listener;
+    private final StringBuilder data = new StringBuilder();
+    // 按 index 排序，组装结果时保持块的原始顺序
+    private final Map<Integer, ContentBlock> blocks = new TreeMap<>();
+    private final ClaudeResponse.ClaudeResponseBuilder response = ClaudeResponse.builder();
+    private int inputTokens;
+    private int outputTokens;
+    private int cacheCreationInputTokens;
+    private int cacheReadInputTokens;
+    private boolean completed;
+    
+    public ClaudeStreamParser(ObjectMapper objectMapper, ClaudeStreamListener listener) {
+        this.objectMapper = objectMapper;
+        this.listener = listener;
+    }
+    
+    public void feedLine(String line) throws IOException {
+        if (line.isEmpty()) {
+            dispatch();
+        } else if (line.startsWith("data:")) {
+            if (data.length() > 0) {
+                data.append('\n');
+            }
+            data.append(line, line.startsWith("data: ") ? 6 : 5, line.length());
+        }
+        // event: 行与 data 中的 type 一致，注释行（以 : 开头）忽略
+    }
+    
+    /**
+     * 输入结束后调用；未收到 message_stop 说明连接中途断开
+     */
+    public ClaudeResponse finish() throws IOException {
+        dispatch();
+        if (!completed) {
+            throw new IOException("Claude 流式响应未完整结束");
+        }
+        
+        List<ClaudeContentBlock> contentBlocks = new ArrayList<>(blocks.size());
+        for (ContentBlock block : blocks.values()) {
+            contentBlocks.add(ClaudeContentBlock.builder()
+                    .type(block.type)
+                    .text(ClaudeContentBlock.TEXT.equals(block.type) ? block.text.toString() : null)
+                    .toolUse(block.toolUse)
+                    .build());
+        }
+        return ClaudeResponseDecoder.withBlocks(response, contentBlocks).usage(ClaudeUsage.builder()
+                        .inputTokens(inputTokens)
+                        .outputTokens(outputTokens)
+                        .cacheCreationInputTokens(cacheCreationInputTokens)
+                        .cacheReadInputTokens(cacheReadInputTokens)
+                        .build())
+                .build();
+    }
+    
+    private void dispatch() throws IOException {
+        if (data.length() == 0) {
+            return;
+        }
+        JsonNode event = objectMapper.readTree(data.toString());
+        data.setLength(0);
+        
+        switch (event.path("type").asText()) {
+            case "message_start" -> {
+                JsonNode message = event.path("message");
+                response.id(message.path("id").asText())
+                        .model(message.path("model").asText())
+                        .role(message.path("role").asText());
+                JsonNode usage = message.path("usage");
+                inputTokens = usage.path("input_tokens").asInt();
+                cacheCreationInputTokens = usage.path("cache_creation_input_tokens").asInt();
+                cacheReadInputTokens = usage.path("cache_read_input_tokens").asInt();
+            }
+            case "content_block_start" -> {
+                JsonNode contentBlock = event.path("content_block");
+                ContentBlock block = new ContentBlock(contentBlock.path("type").asText());
+                block.id = contentBlock.path("id").asText(null);
+                block.name = contentBlock.path("name").asText(null);
+                block.text.append(contentBlock.path("text").asText(""));
+                blocks.put(event.path("index").asInt(), block);
+            }
+            case "content_block_delta" -> onDelta(blockAt(event), event.path("delta"));
+            case "content_block_stop" -> onBlockStop(blockAt(event));
+            case "message_delta" -> {
+                response.stopReason(event.path("delta").path("stop_reason").asText());
+                // message_delta 中的 output_tokens 是累计值
+                outputTokens = event.path("usage").path("output_tokens").asInt(outputTokens);
+            }
+            case "message_stop" -> completed = true;
+            case "error" -> {
+                JsonNode error = event.path("error");
+                throw new IOException("Claude 流式响应错误: " + error.path("type").asText()
+                        + " - " + error.path("message").asText());
+            }
+            default -> {
+                // ping 等事件无需处理
+            }
+        }
+    }
+    
+    private void onDelta(ContentBlock block, JsonNode delta) {
+        switch (delta.path("type").asText()) {
+            case "text_delta" -> {
+                String text = delta.path("text").asText();
+                block.text.append(text);
+                listener.onText(text);
+            }
+            case "input_json_delta" -> block.json.append(delta.path("partial_json").asText());
+            default -> {
+            }
+        }
+    }
+    
+    private void onBlockStop(ContentBlock block) throws IOException {
+        if (!ClaudeContentBlock.TOOL_USE.equals(block.type)) {
+            return;
+        }
+        // 无参数的工具调用不会收到任何 input_json_delta
+        JsonNode input = block.json.length() == 0
+                ? objectMapper.createObjectNode()
+                : objectMapper.readTree(block.json.toString());
+        block.toolUse = ClaudeToolUse.builder()
+                .id(block.id)
+                .name(block.name)
+                .input(input)
+                .build();
+        listener.onToolUse(block.toolUse);
+    }
+    
+    private ContentBlock blockAt(JsonNode event) throws IOException {
+        ContentBlock block = blocks.get(event.path("index").asInt());
+        if (block == null) {
+            throw new IOException("Claude 流式响应缺少 content_block_start: " + event.path("index").asInt());
+        }
+        return block;
+    }
+    
+    private static class ContentBlock {
+        private final String type;
+        private final StringBuilder text = new StringBuilder();
+        private final StringBuilder json = new StringBuilder();
+        private String id;
+        private String name;
+        private ClaudeToolUse toolUse;
+        
+        private ContentBlock(String type) {
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.xiaofuge.ai.claude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 响应中的 usage，限流器据此校正按估算预留的 token 额度
+ * inputTokens 不含命中缓存和写入缓存的部分，三者之和才是完整的输入长度
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaudeUsage {
+    private int inputTokens;
+    private int outputTokens;
+    private int cacheCreationInputTokens;
+    private int cacheReadInputTokens;
+}
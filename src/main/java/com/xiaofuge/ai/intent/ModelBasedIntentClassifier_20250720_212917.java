@@ -53,6 +53,9 @@ public class ModelBasedIntentClassifier {
         )
     );
     
+    // 类加载时构建一次，作为带缓存断点的静态前缀；示例按枚举顺序排列，保证每个进程得到相同的字节
+    private static final String FEW_SHOT_SYSTEM_PROMPT = buildFewShotSystemPrompt();
+    
     public IntentResult classifyIntentWithModel(String userInput) {
         if (StrUtil.isBlank(userInput)) {
             return IntentResult.of(UserIntent.UNKNOWN, 0.0, "输入为空");
@@ -61,11 +64,8 @@ public class ModelBasedIntentClassifier {
         try {
             log.debug("使用模型进行意图识别: {}", userInput);
             
-            // 构建Few-Shot Prompt
-            String systemPrompt = buildFewShotSystemPrompt();
-            
             ClaudeRequest request = ClaudeRequest.builder()
-                    .systemPrompt(systemPrompt)
+                    .cachedSystemPrompt(FEW_SHOT_SYSTEM_PROMPT)
                     .messages(List.of(Map.of(
                         "role", "user", 
                         "content", String.format("请分析以下用户输入的意图：\n\n用户输入：\"%s\"\n\n请严格按照JSON格式返回结果。", userInput)
@@ -90,7 +90,7 @@ public class ModelBasedIntentClassifier {
         }
     }
     
-    private String buildFewShotSystemPrompt() {
+    private static String buildFewShotSystemPrompt() {
         StringBuilder prompt = new StringBuilder();
         prompt.append("""
                 你是一个专业的意图识别模型，专门用于识别用户在内容审核发布系统中的意图。
@@ -106,13 +106,17 @@ public class ModelBasedIntentClassifier {
                 ## Few-Shot学习示例
                 """);
         
-        // 添加Few-Shot示例
-        INTENT_EXAMPLES.forEach((intent, examples) -> {
-            prompt.append(String.format("\n### %s 示例：\n", intent.name()));
+        // 添加Few-Shot示例，Map.of 的遍历顺序随进程变化，按枚举顺序输出
+        for (UserIntent intent : UserIntent.values()) {
+            List<String> examples = INTENT_EXAMPLES.get(intent);
+            if (examples == null) {
+                continue;
+            }
+            prompt.append("\n### ").append(intent.name()).append(" 示例：\n");
             examples.forEach(example -> 
-                prompt.append(String.format("用户输入：\"%s\" -> 意图：%s\n", example, intent.name()))
+                prompt.append("用户输入：\"").append(example).append("\" -> 意图：").append(intent.name()).append('\n')
             );
-        });
+        }
         
         prompt.append("""
                 
@@ -0,0 +1,46 @@
+package com.xiaofuge.ai.plan;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回放时参数值的来源：首个调用的参数、前序步骤结果中的字段，或固定值
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArgumentTemplate {
+    
+    public enum Source {
+        INPUT, RESULT, LITERAL
+    }
+    
+    private Source source;
+    private int step;
+    private String field;
+    private Object value;
+    
+    public static ArgumentTemplate input(String field) {
+        return new ArgumentTemplate(Source.INPUT, 0, field, null);
+    }
+    
+    public static ArgumentTemplate result(int step, String field) {
+        return new ArgumentTemplate(Source.RESULT, step, field, null);
+    }
+    
+    public static ArgumentTemplate literal(Object value) {
+        return new ArgumentTemplate(Source.LITERAL, 0, null, value);
+    }
+    
+    public Object resolve(Map<String, Object> input, List<Map<String, Object>> results) {
+        return switch (source) {
+            case INPUT -> input.get(field);
+            case RESULT -> results.get(step).get(field);
+            case LITERAL -> value;
+        };
+    }
+}
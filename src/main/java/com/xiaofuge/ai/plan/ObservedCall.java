@@ -0,0 +1,18 @@
+package com.xiaofuge.ai.plan;
+
+import com.xiaofuge.functioncalling.FunctionResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 一次对话中实际执行的工具调用
+ */
+@Data
+@AllArgsConstructor
+public class ObservedCall {
+    private String function;
+    private Map<String, Object> arguments;
+    private FunctionResult result;
+}
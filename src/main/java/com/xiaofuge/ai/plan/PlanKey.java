@@ -0,0 +1,19 @@
+package com.xiaofuge.ai.plan;
+
+import com.xiaofuge.ai.intent.UserIntent;
+import com.xiaofuge.domain.Content;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 计划缓存键：意图 + 首个工具 + 内容类型 + 首个工具调用中出现的参数名
+ */
+@Data
+@AllArgsConstructor
+public class PlanKey {
+    private UserIntent intent;
+    private String firstFunction;
+    private Content.ContentType contentType;
+    // 排序后以逗号拼接
+    private String flags;
+}
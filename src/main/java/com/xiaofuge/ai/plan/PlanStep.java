@@ -0,0 +1,21 @@
+package com.xiaofuge.ai.plan;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanStep {
+    private String function;
+    private Map<String, ArgumentTemplate> arguments;
+    // 结果分支签名，回放结果与之不同即视为偏离
+    private String branch;
+    // 多次观察到的参数模板一致时为 true，回放只进行到第一个不稳定的步骤之前
+    private boolean stable;
+}
@@ -0,0 +1,157 @@
+package com.xiaofuge.ai.plan;
+
+import com.xiaofuge.functioncalling.FunctionResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 同一缓存键下模型选择的工具序列
+ * 第 0 步由模型给出参数，之后各步的参数由模板从首个调用的参数和前序结果中还原
+ */
+@Data
+@AllArgsConstructor
+public class ToolPlan {
+    
+    private List<PlanStep> steps;
+    private int observations;
+    
+    public static ToolPlan from(List<ObservedCall> calls) {
+        Map<String, Object> input = calls.get(0).getArguments();
+        List<Map<String, Object>> results = new ArrayList<>(calls.size());
+        List<PlanStep> steps = new ArrayList<>(calls.size());
+        for (ObservedCall call : calls) {
+            Map<String, ArgumentTemplate> arguments = new LinkedHashMap<>();
+            if (!steps.isEmpty()) {
+                call.getArguments().forEach((name, value) -> arguments.put(name, templateOf(value, input, results)));
+            }
+            steps.add(PlanStep.builder()
+                    .function(call.getFunction())
+                    .arguments(arguments)
+                    .branch(branchOf(call.getResult()))
+                    .stable(true)
+                    .build());
+            results.add(propertiesOf(call.getResult().getResult()));
+        }
+        return new ToolPlan(Collections.unmodifiableList(steps), 1);
+    }
+    
+    /**
+     * 工具序列与各步分支都相同时累加观察次数，参数模板不一致的步骤标记为不稳定；否则以新观察替换
+     */
+    public ToolPlan merge(ToolPlan observed) {
+        if (!sameShape(observed)) {
+            return observed;
+        }
+        List<PlanStep> merged = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            PlanStep current = steps.get(i);
+            boolean stable = current.isStable() && observed.steps.get(i).isStable()
+                    && current.getArguments().equals(observed.steps.get(i).getArguments());
+            merged.add(PlanStep.builder()
+                    .function(current.getFunction())
+                    .arguments(current.getArguments())
+                    .branch(current.getBranch())
+                    .stable(stable)
+                    .build());
+        }
+        return new ToolPlan(Collections.unmodifiableList(merged), observations + 1);
+    }
+    
+    /**
+     * 第 0 步之后连续稳定的步骤数
+     */
+    public int replayableSteps() {
+        int count = 0;
+        for (int i = 1; i < steps.size() && steps.get(i).isStable(); i++) {
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * 结果分支签名：执行失败为 error，成功时为结果中所有布尔字段，如 ok{passed=true}
+     */
+    public static String branchOf(FunctionResult result) {
+        if (!result.isSuccess()) {
+            return "error";
+        }
+        Map<String, Object> flags = new TreeMap<>();
+        propertiesOf(result.getResult()).forEach((name, value) -> {
+            if (value instanceof Boolean) {
+                flags.put(name, value);
+            }
+        });
+        return "ok" + flags;
+    }
+    
+    public static Map<String, Object> propertiesOf(Object target) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (target instanceof Map<?, ?> map) {
+            map.forEach((name, value) -> properties.put(String.valueOf(name), value));
+        } else if (target != null && !isScalar(target)) {
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(target);
+            for (PropertyDescriptor descriptor : wrapper.getPropertyDescriptors()) {
+                if (descriptor.getReadMethod() != null && !"class".equals(descriptor.getName())) {
+                    properties.put(descriptor.getName(), wrapper.getPropertyValue(descriptor.getName()));
+                }
+            }
+        }
+        return properties;
+    }
+    
+    private boolean sameShape(ToolPlan other) {
+        if (steps.size() != other.steps.size()) {
+            return false;
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            if (!steps.get(i).getFunction().equals(other.steps.get(i).getFunction())
+                    || !steps.get(i).getBranch().equals(other.steps.get(i).getBranch())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // 优先匹配首个调用的参数，其次由近到远匹配前序结果，都不匹配时作为固定值
+    private static ArgumentTemplate templateOf(Object value, Map<String, Object> input,
+                                               List<Map<String, Object>> results) {
+        if (!isScalar(value) || value instanceof Boolean) {
+            return ArgumentTemplate.literal(value);
+        }
+        String text = value.toString();
+        for (Map.Entry<String, Object> entry : input.entrySet()) {
+            if (matches(entry.getValue(), text)) {
+                return ArgumentTemplate.input(entry.getKey());
+            }
+        }
+        for (int step = results.size() - 1; step >= 0; step--) {
+            for (Map.Entry<String, Object> entry : results.get(step).entrySet()) {
+                if (matches(entry.getValue(), text)) {
+                    return ArgumentTemplate.result(step, entry.getKey());
+                }
+            }
+        }
+        return ArgumentTemplate.literal(value);
+    }
+    
+    // 模型给出的数字可能是字符串，按文本比较
+    private static boolean matches(Object candidate, String text) {
+        return isScalar(candidate) && !(candidate instanceof Boolean) && !text.isBlank()
+                && Objects.equals(candidate.toString(), text);
+    }
+    
+    private static boolean isScalar(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean;
+    }
+}
@@ -0,0 +1,162 @@
+package com.xiaofuge.ai.plan;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xiaofuge.ai.intent.UserIntent;
+import com.xiaofuge.domain.Content;
+import com.xiaofuge.service.ContentCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 工具调用计划缓存
+ * 记录 Function Calling 循环中模型选择的工具序列，同一键下连续多次观察到相同序列后，
+ * 首个工具之后的步骤直接按计划执行；某一步结果的分支与记录不同时交回模型继续
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ToolPlanCache {
+    
+    public static final String LOOKUPS = "ai.plan.lookups";
+    public static final String DIVERGENCES = "ai.plan.divergences";
+    public static final String REPLAYED_STEPS = "ai.plan.replayed.steps";
+    
+    private static final List<String> TEXT_FIELDS = List.of("textContent");
+    private static final List<String> IMAGE_FIELDS = List.of("imageUrl", "imageBlobId");
+    private static final List<String> VIDEO_FIELDS = List.of("videoUrl", "videoBlobId");
+    
+    private final ContentCache contentCache;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${ai.plan-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ai.plan-cache.min-observations:3}")
+    private int minObservations;
+    
+    @Value("${ai.plan-cache.maximum-size:1000}")
+    private long maximumSize;
+    
+    @Value("${ai.plan-cache.expire-after-write:1h}")
+    private Duration expireAfterWrite;
+    
+    private Cache<PlanKey, ToolPlan> plans;
+    private Counter hits;
+    private Counter misses;
+    private Counter divergences;
+    private Counter replayedSteps;
+    
+    @PostConstruct
+    void init() {
+        plans = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, plans, "tool-plan");
+        hits = lookupCounter("hit");
+        misses = lookupCounter("miss");
+        divergences = Counter.builder(DIVERGENCES)
+                .description("计划回放时结果偏离记录分支的次数")
+                .register(meterRegistry);
+        replayedSteps = Counter.builder(REPLAYED_STEPS)
+                .description("按计划直接执行、未经模型选择的工具调用数")
+                .register(meterRegistry);
+        log.info("工具调用计划缓存已初始化，启用: {}, 最少观察次数: {}", enabled, minObservations);
+    }
+    
+    /**
+     * 由首个工具调用确定缓存键；内容类型取自上传参数，或按 contentId 从内容缓存读取
+     */
+    public PlanKey keyOf(UserIntent intent, ObservedCall first) {
+        Map<String, Object> arguments = first.getArguments();
+        TreeSet<String> flags = new TreeSet<>();
+        arguments.forEach((name, value) -> {
+            if (value != null && StrUtil.isNotBlank(value.toString())) {
+                flags.add(name);
+            }
+        });
+        
+        boolean hasText = flags.stream().anyMatch(TEXT_FIELDS::contains);
+        boolean hasImage = flags.stream().anyMatch(IMAGE_FIELDS::contains);
+        boolean hasVideo = flags.stream().anyMatch(VIDEO_FIELDS::contains);
+        Content.ContentType contentType = null;
+        if (hasText || hasImage || hasVideo || flags.contains("title")) {
+            contentType = Content.ContentType.of(hasText, hasImage, hasVideo);
+        } else if (arguments.get("contentId") instanceof Number contentId) {
+            contentType = contentCache.findById(contentId.longValue()).map(Content::getType).orElse(null);
+        }
+        return new PlanKey(intent, first.getFunction(), contentType, String.join(",", flags));
+    }
+    
+    /**
+     * 返回可回放的计划，观察次数不足或首个工具之后没有稳定步骤时返回 null
+     */
+    public ToolPlan lookup(PlanKey key) {
+        if (!enabled) {
+            return null;
+        }
+        ToolPlan plan = plans.getIfPresent(key);
+        if (plan == null || plan.getObservations() < minObservations || plan.replayableSteps() == 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return plan;
+    }
+    
+    /**
+     * 记录一次以模型最终回复结束的完整调用序列
+     */
+    public void observe(PlanKey key, List<ObservedCall> calls) {
+        if (!enabled || calls.isEmpty()) {
+            return;
+        }
+        ToolPlan observed = ToolPlan.from(calls);
+        ToolPlan merged = plans.asMap().merge(key, observed, (current, next) -> current.merge(next));
+        log.debug("记录工具调用计划: {}, 观察次数: {}", key, merged.getObservations());
+    }
+    
+    public void recordReplayed() {
+        replayedSteps.increment();
+    }
+    
+    public void recordDivergence(PlanKey key, String function, String expected, String actual) {
+        divergences.increment();
+        log.info("计划回放偏离: {}, 步骤: {}, 记录分支: {}, 实际分支: {}", key, function, expected, actual);
+    }
+    
+    public Map<String, Object> snapshot() {
+        double hitCount = hits.count();
+        double lookups = hitCount + misses.count();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("plans", plans.estimatedSize());
+        snapshot.put("lookups", (long) lookups);
+        snapshot.put("hits", (long) hitCount);
+        snapshot.put("hitRate", lookups == 0 ? 0.0 : hitCount / lookups);
+        snapshot.put("divergences", (long) divergences.count());
+        snapshot.put("divergenceRate", hitCount == 0 ? 0.0 : divergences.count() / hitCount);
+        snapshot.put("replayedSteps", (long) replayedSteps.count());
+        return snapshot;
+    }
+    
+    private Counter lookupCounter(String result) {
+        return Counter.builder(LOOKUPS)
+                .description("工具调用计划缓存查询次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
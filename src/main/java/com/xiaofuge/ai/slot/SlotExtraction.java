@@ -0,0 +1,57 @@
+package com.xiaofuge.ai.slot;
+
+import cn.hutool.core.util.StrUtil;
+import com.xiaofuge.service.dto.ContentUploadRequest;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 本地抽取的上传参数及各字段置信度，未抽取到的字段置信度为 0
+ * 出现了标签却没有取到值的字段记入 unresolved，说明规则没有理解输入，此时不应跳过模型
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotExtraction {
+    private ContentUploadRequest request;
+    private Map<String, Double> confidence;
+    @Builder.Default
+    private Set<String> unresolved = Set.of();
+    
+    public double confidenceOf(String field) {
+        return confidence.getOrDefault(field, 0.0);
+    }
+    
+    public boolean isConfident(Collection<String> fields, double threshold) {
+        return unresolved.isEmpty() && fields.stream().allMatch(field -> confidenceOf(field) >= threshold);
+    }
+    
+    /**
+     * 转为 upload_content 的调用参数，只包含抽取到的字段
+     */
+    public Map<String, Object> toArguments() {
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        putIfPresent(arguments, UploadSlotExtractor.TITLE, request.getTitle());
+        putIfPresent(arguments, UploadSlotExtractor.TEXT_CONTENT, request.getTextContent());
+        putIfPresent(arguments, UploadSlotExtractor.IMAGE_URL, request.getImageUrl());
+        putIfPresent(arguments, UploadSlotExtractor.VIDEO_URL, request.getVideoUrl());
+        putIfPresent(arguments, UploadSlotExtractor.IMAGE_BLOB_ID, request.getImageBlobId());
+        putIfPresent(arguments, UploadSlotExtractor.VIDEO_BLOB_ID, request.getVideoBlobId());
+        putIfPresent(arguments, UploadSlotExtractor.AUTHOR_ID, request.getAuthorId());
+        return arguments;
+    }
+    
+    private static void putIfPresent(Map<String, Object> arguments, String field, String value) {
+        if (StrUtil.isNotBlank(value)) {
+            arguments.put(field, value);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.xiaofuge.ai.slot;
+
+import cn.hutool.core.util.StrUtil;
+import com.xiaofuge.service.dto.ContentUploadRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内抽取上传参数，替代仅为提取标题、正文、媒体链接和作者而发起的模型调用
+ * 规则：标签只在开头或分隔符、空白之后才算数；带标签的字段（如“标题：”“作者是”）取到下一个标签为止，
+ * 正文只在紧跟分隔符的下一个标签处结束，以免把正文里的“图片是”当作新字段；未标注的链接按扩展名归类；
+ * 标题缺失时依次尝试《》和引号。每个字段给出置信度，必填字段都足够可信时调用方可跳过模型
+ */
+@Component
+@Slf4j
+public class UploadSlotExtractor {
+    
+    public static final String TITLE = "title";
+    public static final String TEXT_CONTENT = "textContent";
+    public static final String IMAGE_URL = "imageUrl";
+    public static final String VIDEO_URL = "videoUrl";
+    public static final String IMAGE_BLOB_ID = "imageBlobId";
+    public static final String VIDEO_BLOB_ID = "videoBlobId";
+    public static final String AUTHOR_ID = "authorId";
+    
+    // 与 ContentUploadRequest 中 required 的参数一致
+    public static final List<String> REQUIRED_FIELDS = List.of(TITLE, AUTHOR_ID);
+    
+    private static final double LABELED = 0.95;
+    private static final double LABELED_TEXT = 0.9;
+    private static final double BY_EXTENSION = 0.9;
+    private static final double BOOK_TITLE = 0.85;
+    private static final double BY_KEYWORD = 0.6;
+    private static final double QUOTED_TITLE = 0.6;
+    
+    // 标签后必须跟“是/为/冒号/等号”，避免把“发布一篇内容”中的“内容”当作标签
+    private static final Pattern LABEL = Pattern.compile(
+            "(标题|题目|title|正文|内容|textContent|content|text|作者ID|作者id|作者|authorId|author"
+                    + "|图片|图像|照片|imageUrl|image|视频|videoUrl|video)\\s*(?:是|为|[:：=])\\s*",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern URL = Pattern.compile("https?://[^\\s，。；;、,\"'“”‘’<>（）()]+",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern BLOB = Pattern.compile("(?:blob://)?\\b([0-9a-f]{64})\\b");
+    private static final String DELIMITERS = "，,。；;\n";
+    private static final Pattern DELIMITER = Pattern.compile("[" + DELIMITERS + "]");
+    private static final Pattern AUTHOR_VALUE = Pattern.compile("^[\\p{L}\\p{N}_@.\\-]+");
+    private static final Pattern BOOK_QUOTED = Pattern.compile("《([^》]{1,100})》");
+    private static final Pattern QUOTED = Pattern.compile("[\"“]([^\"“”]{1,100})[\"”]");
+    private static final Pattern IMAGE_EXTENSION = Pattern.compile("\\.(jpe?g|png|gif|webp|bmp)(\\?.*)?$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern VIDEO_EXTENSION = Pattern.compile("\\.(mp4|mov|avi|mkv|flv|webm|m3u8)(\\?.*)?$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern IMAGE_KEYWORD = Pattern.compile("图片|图像|照片|配图|image|photo",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern VIDEO_KEYWORD = Pattern.compile("视频|video", Pattern.CASE_INSENSITIVE);
+    private static final String QUOTES = "\"'“”‘’「」《》";
+    
+    public SlotExtraction extract(String prompt) {
+        Map<String, String> values = new HashMap<>();
+        Map<String, Double> confidence = new HashMap<>();
+        Set<String> unresolved = new HashSet<>();
+        if (StrUtil.isNotBlank(prompt)) {
+            Set<String> usedMedia = new HashSet<>();
+            extractLabeled(prompt, values, confidence, usedMedia, unresolved);
+            extractUnlabeledMedia(prompt, values, confidence, usedMedia);
+            extractFallbackTitle(prompt, values, confidence);
+            unresolved.removeIf(values::containsKey);
+        }
+        
+        ContentUploadRequest request = ContentUploadRequest.builder()
+                .title(values.get(TITLE))
+                .textContent(values.get(TEXT_CONTENT))
+                .imageUrl(values.get(IMAGE_URL))
+                .videoUrl(values.get(VIDEO_URL))
+                .imageBlobId(values.get(IMAGE_BLOB_ID))
+                .videoBlobId(values.get(VIDEO_BLOB_ID))
+                .authorId(values.get(AUTHOR_ID))
+                .build();
+        log.debug("本地抽取上传参数: {}, 置信度: {}", request, confidence);
+        return SlotExtraction.builder()
+                .request(request)
+                .confidence(confidence)
+                .unresolved(unresolved)
+                .build();
+    }
+    
+    private void extractLabeled(String prompt, Map<String, String> values, Map<String, Double> confidence,
+                                Set<String> usedMedia, Set<String> unresolved) {
+        List<int[]> spans = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<Boolean> afterDelimiter = new ArrayList<>();
+        Matcher matcher = LABEL.matcher(prompt);
+        while (matcher.find()) {
+            int boundary = precedingNonSpace(prompt, matcher.start());
+            // 标签前紧挨着其他文字时只是普通词语，如“图片是我拍的”中的“图片”
+            if (boundary == matcher.start() && boundary > 0 && !isDelimiter(prompt.charAt(boundary - 1))) {
+                continue;
+            }
+            spans.add(new int[]{matcher.start(), matcher.end()});
+            labels.add(matcher.group(1).toLowerCase(Locale.ROOT));
+            afterDelimiter.add(boundary == 0 || isDelimiter(prompt.charAt(boundary - 1)));
+        }
+        
+        // 每个标签的值延伸到下一个标签之前，同一字段以第一次出现为准
+        for (int i = 0; i < spans.size(); i++) {
+            int next = i + 1;
+            if (isTextLabel(labels.get(i))) {
+                // 正文可能包含空白后的“图片是”“作者为”等，只在分隔符后的标签处结束
+                while (next < spans.size() && !afterDelimiter.get(next)) {
+                    next++;
+                }
+            }
+            int end = next < spans.size() ? spans.get(next)[0] : prompt.length();
+            String segment = prompt.substring(spans.get(i)[1], end);
+            String field = switch (labels.get(i)) {
+                case "标题", "题目", "title" -> {
+                    put(values, confidence, TITLE, stripQuotes(untilDelimiter(segment)), LABELED);
+                    yield TITLE;
+                }
+                case "正文", "内容", "textcontent", "content", "text" -> {
+                    put(values, confidence, TEXT_CONTENT, stripQuotes(trimDelimiters(segment)), LABELED_TEXT);
+                    yield TEXT_CONTENT;
+                }
+                case "作者id", "作者", "authorid", "author" -> {
+                    Matcher author = AUTHOR_VALUE.matcher(stripQuotes(untilDelimiter(segment)));
+                    if (author.find()) {
+                        put(values, confidence, AUTHOR_ID, author.group(), LABELED);
+                    }
+                    yield AUTHOR_ID;
+                }
+                case "视频", "videourl", "video" ->
+                        putMedia(segment, false, values, confidence, usedMedia, LABELED);
+                default ->
+                        putMedia(segment, true, values, confidence, usedMedia, LABELED);
+            };
+            if (!values.containsKey(field)) {
+                unresolved.add(field);
+            }
+            i = next - 1;
+        }
+    }
+    
+    private void extractUnlabeledMedia(String prompt, Map<String, String> values, Map<String, Double> confidence,
+                                       Set<String> usedMedia) {
+        boolean mentionsImage = IMAGE_KEYWORD.matcher(prompt).find();
+        boolean mentionsVideo = VIDEO_KEYWORD.matcher(prompt).find();
+        
+        Matcher url = URL.matcher(prompt);
+        while (url.find()) {
+            String value = url.group();
+            if (usedMedia.contains(value)) {
+                continue;
+            }
+            if (IMAGE_EXTENSION.matcher(value).find()) {
+                put(values, confidence, IMAGE_URL, value, BY_EXTENSION);
+            } else if (VIDEO_EXTENSION.matcher(value).find()) {
+                put(values, confidence, VIDEO_URL, value, BY_EXTENSION);
+            } else if (mentionsVideo && !mentionsImage) {
+                put(values, confidence, VIDEO_URL, value, BY_KEYWORD);
+            } else if (mentionsImage && !mentionsVideo) {
+                put(values, confidence, IMAGE_URL, value, BY_KEYWORD);
+            }
+        }
+        
+        Matcher blob = BLOB.matcher(prompt);
+        while (blob.find()) {
+            String blobId = blob.group(1);
+            if (usedMedia.contains(blobId)) {
+                continue;
+            }
+            if (mentionsVideo && !mentionsImage) {
+                put(values, confidence, VIDEO_BLOB_ID, blobId, BY_KEYWORD);
+            } else if (mentionsImage && !mentionsVideo) {
+                put(values, confidence, IMAGE_BLOB_ID, blobId, BY_KEYWORD);
+            }
+        }
+    }
+    
+    private void extractFallbackTitle(String prompt, Map<String, String> values, Map<String, Double> confidence) {
+        if (values.containsKey(TITLE)) {
+            return;
+        }
+        Matcher book = BOOK_QUOTED.matcher(prompt);
+        if (book.find()) {
+            put(values, confidence, TITLE, book.group(1).trim(), BOOK_TITLE);
+            return;
+        }
+        Matcher quoted = QUOTED.matcher(prompt);
+        if (quoted.find()) {
+            put(values, confidence, TITLE, quoted.group(1).trim(), QUOTED_TITLE);
+        }
+    }
+    
+    // 带标签的媒体：优先识别链接，其次识别本地 blob ID；返回写入的字段，都没有时返回链接字段
+    private String putMedia(String segment, boolean image, Map<String, String> values, Map<String, Double> confidence,
+                            Set<String> usedMedia, double score) {
+        String urlField = image ? IMAGE_URL : VIDEO_URL;
+        Matcher url = URL.matcher(segment);
+        if (url.find()) {
+            usedMedia.add(url.group());
+            put(values, confidence, urlField, url.group(), score);
+            return urlField;
+        }
+        Matcher blob = BLOB.matcher(segment);
+        if (blob.find()) {
+            String blobField = image ? IMAGE_BLOB_ID : VIDEO_BLOB_ID;
+            usedMedia.add(blob.group(1));
+            put(values, confidence, blobField, blob.group(1), score);
+            return blobField;
+        }
+        return urlField;
+    }
+    
+    private static void put(Map<String, String> values, Map<String, Double> confidence, String field,
+                            String value, double score) {
+        if (StrUtil.isNotBlank(value) && !values.containsKey(field)) {
+            values.put(field, value);
+            confidence.put(field, score);
+        }
+    }
+    
+    private static String untilDelimiter(String segment) {
+        Matcher delimiter = DELIMITER.matcher(segment);
+        return delimiter.find() ? segment.substring(0, delimiter.start()) : segment;
+    }
+    
+    private static String trimDelimiters(String segment) {
+        int start = 0;
+        int end = segment.length();
+        while (start < end && isTrimmable(segment.charAt(start))) {
+            start++;
+        }
+        while (end > start && isTrimmable(segment.charAt(end - 1))) {
+            end--;
+        }
+        return segment.substring(start, end);
+    }
+    
+    private static boolean isTrimmable(char c) {
+        return Character.isWhitespace(c) || isDelimiter(c);
+    }
+    
+    private static boolean isDelimiter(char c) {
+        return DELIMITERS.indexOf(c) >= 0;
+    }
+    
+    private static boolean isTextLabel(String label) {
+        return switch (label) {
+            case "正文", "内容", "textcontent", "content", "text" -> true;
+            default -> false;
+        };
+    }
+    
+    // 跳过 index 之前的空白，返回第一个非空白字符之后的位置
+    private static int precedingNonSpace(String prompt, int index) {
+        while (index > 0 && Character.isWhitespace(prompt.charAt(index - 1))) {
+            index--;
+        }
+        return index;
+    }
+    
+    private static String stripQuotes(String value) {
+        String trimmed = value.trim();
+        int start = 0;
+        int end = trimmed.length();
+        while (start < end && QUOTES.indexOf(trimmed.charAt(start)) >= 0) {
+            start++;
+        }
+        while (end > start && QUOTES.indexOf(trimmed.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return trimmed.substring(start, end).trim();
+    }
+}
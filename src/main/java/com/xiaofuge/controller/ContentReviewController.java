@@ -1,11 +1,26 @@
 package com.xiaofuge.controller;
 
 import com.xiaofuge.ai.ClaudeAIService;
+import com.xiaofuge.ai.ReviewProgressListener;
+import com.xiaofuge.tracing.Scope;
+import com.xiaofuge.tracing.Span;
+import com.xiaofuge.tracing.SpanKind;
+import com.xiaofuge.tracing.Tracer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api/content-review")
@@ -15,26 +30,96 @@ public class ContentReviewController {
     
     private final ClaudeAIService aiService;
     
+    @Value("${content.review.stream.threads:16}")
+    private int streamThreads;
+    
+    @Value("${content.review.stream.timeout:2m}")
+    private Duration streamTimeout;
+    
+    private ExecutorService streamExecutor;
+    
+    @PostConstruct
+    void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        streamExecutor = Executors.newFixedThreadPool(streamThreads, runnable -> {
+            Thread thread = new Thread(runnable, "review-stream-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        streamExecutor.shutdown();
+    }
+    
     @PostMapping("/process")
     public Map<String, Object> processContentReview(@RequestBody Map<String, String> request) {
         String userPrompt = request.get("prompt");
         log.info("接收到内容审核请求: {}", userPrompt);
         
-        try {
+        // 每个请求一条 trace，traceId 随响应返回，可在 /api/traces/recent 中查看各阶段耗时
+        Span span = Tracer.startSpan("POST /api/content-review/process", SpanKind.SERVER);
+        try (Scope ignored = span.makeCurrent()) {
             String result = aiService.processContentReview(userPrompt);
             return Map.of(
                 "success", true,
-                "result", result
+                "result", result,
+                "traceId", span.getTraceId()
             );
         } catch (Exception e) {
             log.error("处理内容审核请求失败", e);
+            span.recordException(e);
             return Map.of(
                 "success", false,
-                "error", e.getMessage()
+                "error", e.getMessage(),
+                "traceId", span.getTraceId()
             );
+        } finally {
+            span.end();
         }
     }
     
+    /**
+     * 流式版本：先推送 trace 事件，处理中逐条推送 progress（工具执行进度）和 text（模型文本增量），
+     * 结束时推送与同步接口相同结构的 done 事件
+     */
+    @PostMapping(value = "/process/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter processContentReviewStream(@RequestBody Map<String, String> request) {
+        String userPrompt = request.get("prompt");
+        log.info("接收到流式内容审核请求: {}", userPrompt);
+        
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Span span = Tracer.startSpan("POST /api/content-review/process/stream", SpanKind.SERVER);
+        SseProgressListener listener = new SseProgressListener(emitter);
+        listener.send("trace", span.getTraceId());
+        
+        // 处理在独立线程上进行，请求线程立即返回，响应头和首个事件不必等待模型
+        streamExecutor.execute(() -> {
+            try (Scope ignored = span.makeCurrent()) {
+                String result = aiService.processContentReview(userPrompt, listener);
+                listener.send("done", Map.of(
+                    "success", true,
+                    "result", result,
+                    "traceId", span.getTraceId()
+                ));
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("处理流式内容审核请求失败", e);
+                span.recordException(e);
+                listener.send("done", Map.of(
+                    "success", false,
+                    "error", String.valueOf(e.getMessage()),
+                    "traceId", span.getTraceId()
+                ));
+                emitter.complete();
+            } finally {
+                span.end();
+            }
+        });
+        return emitter;
+    }
+    
     @GetMapping("/health")
     public Map<String, Object> health() {
         return Map.of(
@@ -42,4 +127,39 @@ public class ContentReviewController {
             "timestamp", System.currentTimeMillis()
         );
     }
+    
+    /**
+     * 客户端断开后不再推送，处理本身继续完成以保持内容状态一致
+     */
+    private static class SseProgressListener implements ReviewProgressListener {
+        
+        private final SseEmitter emitter;
+        private volatile boolean disconnected;
+        
+        private SseProgressListener(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        @Override
+        public void onProgress(String line) {
+            send("progress", line);
+        }
+        
+        @Override
+        public void onText(String delta) {
+            send("text", delta);
+        }
+        
+        private void send(String name, Object data) {
+            if (disconnected) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            } catch (IOException | IllegalStateException e) {
+                disconnected = true;
+                log.debug("流式客户端已断开: {}", e.getMessage());
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.xiaofuge.controller;
+
+import com.xiaofuge.functioncalling.FunctionRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/functions")
+@RequiredArgsConstructor
+public class FunctionStatsController {
+    
+    private final FunctionRegistry functionRegistry;
+    
+    /**
+     * 各函数调用次数与 p50/p95/p99 耗时；Prometheus 抓取使用 /actuator/prometheus
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return functionRegistry.getStats();
+    }
+}
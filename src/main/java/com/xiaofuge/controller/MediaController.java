@@ -0,0 +1,133 @@
+package com.xiaofuge.controller;
+
+import com.xiaofuge.media.BlobDescriptor;
+import com.xiaofuge.media.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/media")
+@RequiredArgsConstructor
+@Slf4j
+public class MediaController {
+    
+    // Tomcat NIO 连接器的 sendfile 请求属性，设置后由容器直接零拷贝发送文件
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    private final BlobStore blobStore;
+    
+    @PostMapping
+    public Map<String, Object> upload(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("接收到媒体上传: {}, 大小: {}", file.getOriginalFilename(), file.getSize());
+        
+        try (InputStream input = file.getInputStream()) {
+            BlobDescriptor descriptor = blobStore.store(input, file.getContentType());
+            return Map.of(
+                "success", true,
+                "blobId", descriptor.getBlobId(),
+                "ref", descriptor.getRef(),
+                "size", descriptor.getSize(),
+                "contentType", descriptor.getContentType(),
+                "deduplicated", descriptor.isDeduplicated()
+            );
+        }
+    }
+    
+    @GetMapping("/{blobId}")
+    public void download(@PathVariable("blobId") String blobId,
+                         @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Optional<Path> blobPath = blobStore.locate(blobId);
+        if (blobPath.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "媒体内容不存在");
+            return;
+        }
+        
+        Path path = blobPath.get();
+        long size = Files.size(path);
+        long start = 0;
+        long end = size - 1;
+        
+        if (rangeHeader != null) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() != 1 || size == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            try {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+            } catch (IllegalArgumentException e) {
+                start = size;
+            }
+            // 起点超出文件末尾时 HttpRange 不抛异常，需要自行判断
+            if (start >= size || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        
+        long length = end - start + 1;
+        response.setContentType(blobStore.contentType(blobId));
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // 内容寻址，同一 ID 的字节永远不变
+        response.setHeader(HttpHeaders.ETAG, "\"" + blobId + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        
+        if (length <= 0) {
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        
+        // 容器不支持 sendfile 时退化为经堆缓冲区的普通拷贝：目标是 Servlet 输出流包装的通道，
+        // transferTo 无法走内核零拷贝，只是省去了手写读写循环
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.xiaofuge.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.xiaofuge.ai.plan.ToolPlanCache;
+import com.xiaofuge.journal.ReviewEvent;
+import com.xiaofuge.journal.ReviewEventJournal;
+import com.xiaofuge.ratelimit.AuthorRateLimiter;
+import com.xiaofuge.service.ContentCache;
+import com.xiaofuge.stats.ReviewStatistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/monitor")
+@RequiredArgsConstructor
+@Slf4j
+public class MonitorController {
+    
+    private final ContentCache contentCache;
+    private final ReviewEventJournal reviewEventJournal;
+    private final ReviewStatistics reviewStatistics;
+    private final AuthorRateLimiter authorRateLimiter;
+    private final ToolPlanCache toolPlanCache;
+    
+    @GetMapping("/content-cache")
+    public Map<String, Object> contentCacheStats() {
+        CacheStats stats = contentCache.stats();
+        return Map.of(
+            "size", contentCache.size(),
+            "hitCount", stats.hitCount(),
+            "missCount", stats.missCount(),
+            "hitRate", stats.hitRate(),
+            "evictionCount", stats.evictionCount(),
+            "averageLoadPenaltyNanos", stats.averageLoadPenalty()
+        );
+    }
+    
+    @GetMapping("/review-stats")
+    public Map<String, Object> reviewStats() {
+        return reviewStatistics.snapshot();
+    }
+    
+    @GetMapping("/rate-limit")
+    public Map<String, Object> rateLimit() {
+        return authorRateLimiter.snapshot();
+    }
+    
+    /**
+     * 工具调用计划缓存的命中率与回放偏离率
+     */
+    @GetMapping("/tool-plans")
+    public Map<String, Object> toolPlans() {
+        return toolPlanCache.snapshot();
+    }
+    
+    @GetMapping("/review-events")
+    public Map<String, Object> reviewEvents(@RequestParam(value = "from", required = false) Instant from,
+                                            @RequestParam(value = "to", required = false) Instant to) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofHours(1));
+        List<ReviewEvent> events = reviewEventJournal.findBetween(start, end);
+        return Map.of(
+            "from", start.toString(),
+            "to", end.toString(),
+            "count", events.size(),
+            "events", events
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.xiaofuge.controller;
+
+import com.xiaofuge.tracing.Span;
+import com.xiaofuge.tracing.TraceCollector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/traces")
+@RequiredArgsConstructor
+public class TraceController {
+    
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    
+    private final TraceCollector traceCollector;
+    
+    /**
+     * 最近完成的 trace，最新的在前；每个 span 给出相对 trace 开始的偏移和耗时（毫秒）
+     */
+    @GetMapping("/recent")
+    public List<Map<String, Object>> recent(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<Map<String, Object>> traces = new ArrayList<>();
+        for (List<Span> trace : traceCollector.recent(limit)) {
+            Span root = trace.stream().filter(Span::isRoot).findFirst().orElse(trace.get(0));
+            long traceStart = trace.get(0).getStartEpochNanos();
+            
+            List<Map<String, Object>> spans = new ArrayList<>(trace.size());
+            for (Span span : trace) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("spanId", span.getSpanId());
+                item.put("parentSpanId", span.getParentSpanId());
+                item.put("name", span.getName());
+                item.put("kind", span.getKind());
+                item.put("offsetMs", (span.getStartEpochNanos() - traceStart) / NANOS_PER_MILLI);
+                item.put("durationMs", span.getDurationNanos() / NANOS_PER_MILLI);
+                item.put("status", span.getStatus());
+                item.put("attributes", span.getAttributes());
+                spans.add(item);
+            }
+            
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("traceId", root.getTraceId());
+            summary.put("name", root.getName());
+            summary.put("durationMs", root.getDurationNanos() / NANOS_PER_MILLI);
+            summary.put("status", root.getStatus());
+            summary.put("spanCount", trace.size());
+            summary.put("spans", spans);
+            traces.add(summary);
+        }
+        return traces;
+    }
+}
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Content {
     
     @Id
@@ -23,9 +23,6 @@ public class Content {
     @Column(nullable = false)
     private String title;
     
-    @Column(columnDefinition = "TEXT")
-    private String textContent;
-    
     private String imageUrl;
     
     private String videoUrl;
@@ -42,12 +39,19 @@ public class Content {
     
     private String rejectReason;
     
+    // 最近一次拒绝发生在哪个审核环节
+    @Enumerated(EnumType.STRING)
+    private ReviewStage rejectStage;
+    
     private LocalDateTime createTime;
     
     private LocalDateTime updateTime;
     
     private LocalDateTime publishTime;
     
+    @Version
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createTime = LocalDateTime.now();
@@ -63,7 +67,19 @@ public class Content {
     }
     
     public enum ContentType {
-        TEXT, IMAGE, VIDEO, MIXED
+        TEXT, IMAGE, VIDEO, MIXED;
+        
+        public static ContentType of(boolean hasText, boolean hasImage, boolean hasVideo) {
+            if (hasText && (hasImage || hasVideo)) {
+                return MIXED;
+            } else if (hasVideo) {
+                return VIDEO;
+            } else if (hasImage) {
+                return IMAGE;
+            } else {
+                return TEXT;
+            }
+        }
     }
     
     public enum ReviewStatus {
@@ -75,4 +91,12 @@ public class Content {
         REJECTED,          // 审核拒绝
         PUBLISHED          // 已发布
     }
+    
+    public enum ReviewStage {
+        UPLOAD,            // 上传
+        TEXT,              // 文本审核
+        IMAGE,             // 图像审核
+        MANUAL,            // 人工审核
+        PUBLISH            // 发布
+    }
 }
\ No newline at end of file
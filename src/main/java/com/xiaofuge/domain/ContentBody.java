@@ -0,0 +1,49 @@
+package com.xiaofuge.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * 内容正文，与 content 表的状态/元数据分表存储
+ * 只有真正需要文本的步骤（如敏感词检测）才按 contentId 单独读取
+ */
+@Entity
+@Table(name = "content_body")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentBody implements Persistable<Long> {
+    
+    // 与 Content.id 相同，由上传时显式赋值
+    @Id
+    private Long contentId;
+    
+    @Column(columnDefinition = "TEXT")
+    private String textContent;
+    
+    // 主键为手动赋值，标记新建实体以避免 save() 先 SELECT 再 merge
+    @Transient
+    @Builder.Default
+    private boolean newEntity = true;
+    
+    @Override
+    public Long getId() {
+        return contentId;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+    
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        newEntity = false;
+    }
+}
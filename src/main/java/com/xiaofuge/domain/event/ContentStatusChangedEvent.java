@@ -0,0 +1,24 @@
+package com.xiaofuge.domain.event;
+
+import com.xiaofuge.domain.Content;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内容状态流转成功后由 ContentStateMachine 发布
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ContentStatusChangedEvent {
+    private Long contentId;
+    // 调用方未给出期望状态时为 null
+    private Content.ReviewStatus fromStatus;
+    private Content.ReviewStatus toStatus;
+    private String reason;
+    private Content.ReviewStage stage;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,21 @@
+package com.xiaofuge.domain.event;
+
+import com.xiaofuge.domain.Content;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内容上传落库后由 ContentUploadService 发布
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ContentUploadedEvent {
+    private Long contentId;
+    private Content.ContentType type;
+    private String authorId;
+    private LocalDateTime occurredAt;
+}
@@ -2,6 +2,8 @@ package com.xiaofuge.exception;
 
 import lombok.Getter;
 
+import java.time.Duration;
+
 @Getter
 public class ContentReviewException extends RuntimeException {
     private final String code;
@@ -29,6 +31,15 @@ public class ContentReviewException extends RuntimeException {
         return new ContentReviewException("IMAGE_VIOLATION", "图像违规: " + type);
     }
     
+    public static ContentReviewException blobNotFound(String blobId) {
+        return new ContentReviewException("BLOB_NOT_FOUND", "媒体内容不存在: " + blobId);
+    }
+    
+    public static ContentReviewException rateLimited(String authorId, long limit, Duration window) {
+        return new ContentReviewException("RATE_LIMITED",
+                "上传过于频繁: " + authorId + "，每 " + window.toSeconds() + " 秒最多 " + limit + " 次");
+    }
+    
     public static ContentReviewException reviewNotPassed(String reason) {
         return new ContentReviewException("REVIEW_FAILED", "审核未通过: " + reason);
     }
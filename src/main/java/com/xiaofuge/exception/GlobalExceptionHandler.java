@@ -15,7 +15,8 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ContentReviewException.class)
     public ResponseEntity<Map<String, Object>> handleContentReviewException(ContentReviewException e) {
         log.error("内容审核异常", e);
-        return ResponseEntity.badRequest().body(Map.of(
+        HttpStatus status = "RATE_LIMITED".equals(e.getCode()) ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(Map.of(
             "success", false,
             "error", e.getMessage(),
             "code", e.getCode()
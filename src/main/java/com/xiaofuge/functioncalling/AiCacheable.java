@@ -0,0 +1,27 @@
+package com.xiaofuge.functioncalling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 与 @AiFunction 一起声明函数结果可缓存：参数相同的重复调用在有效期内直接返回上次的成功结果
+ * 函数声明了 conflictKey 时，该资源上的任何状态流转都会使相关结果失效
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AiCacheable {
+    
+    /**
+     * 结果有效期
+     */
+    long ttlMillis() default 30000;
+    
+    /**
+     * 组成缓存键的参数名，为空时使用全部参数
+     */
+    String[] keys() default {};
+}
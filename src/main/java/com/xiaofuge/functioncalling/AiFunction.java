@@ -0,0 +1,34 @@
+package com.xiaofuge.functioncalling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 把 Bean 方法声明为可供模型调用的函数
+ * 启动时由 FunctionRegistry 扫描注册，参数 schema 由方法参数与 DTO 上的 @AiParam 生成
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AiFunction {
+    
+    /**
+     * 函数名，即模型看到的工具名
+     */
+    String name();
+    
+    String description();
+    
+    /**
+     * 标识被操作资源的参数名，如 contentId；为空表示与其他调用无冲突
+     */
+    String conflictKey() default "";
+    
+    /**
+     * 只读函数不修改 conflictKey 指向的资源
+     */
+    boolean readOnly() default false;
+}
@@ -0,0 +1,503 @@
+package com.xiaofuge.functioncalling;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * 把 @AiFunction 方法绑定为 FunctionDefinition 与 FunctionHandler
+ * 参数 schema 直接由方法签名和 DTO 字段生成；每个参数的转换器、DTO 构造器与字段 setter 的 MethodHandle
+ * 在注册时一次性构建，调用时只做取值、转换和一次 invokeExact，不再有反射查找
+ */
+public final class AiFunctionBinder {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final Set<Class<?>> INTEGER_TYPES = Set.of(
+            Long.class, long.class, Integer.class, int.class, Short.class, short.class, Byte.class, byte.class);
+    private static final Set<Class<?>> NUMBER_TYPES = Set.of(
+            Double.class, double.class, Float.class, float.class, BigDecimal.class);
+
+    private AiFunctionBinder() {
+    }
+
+    public static Binding bind(Object bean, Method method) {
+        AiFunction function = method.getAnnotation(AiFunction.class);
+        if (function == null) {
+            throw new IllegalArgumentException("方法未标注 @AiFunction: " + method);
+        }
+        AiResilience resilience = method.getAnnotation(AiResilience.class);
+        AiCacheable cacheable = method.getAnnotation(AiCacheable.class);
+
+        Map<String, Object> properties = new LinkedHashMap<>();
+        List<String> required = new ArrayList<>();
+        Parameter[] parameters = method.getParameters();
+        ArgumentResolver[] resolvers = new ArgumentResolver[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            resolvers[i] = resolverFor(parameters[i], properties, required);
+        }
+
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", properties);
+        schema.put("required", required);
+
+        List<String> cacheKeys = cacheable != null ? List.of(cacheable.keys()) : List.of();
+        for (String key : cacheKeys) {
+            if (!properties.containsKey(key)) {
+                throw new IllegalStateException("缓存键不是函数参数: " + function.name() + "." + key);
+            }
+        }
+
+        FunctionDefinition definition = FunctionDefinition.builder()
+                .name(function.name())
+                .description(function.description())
+                .parameters(schema)
+                .returnType(returnTypeOf(method))
+                .conflictKey(function.conflictKey().isEmpty() ? null : function.conflictKey())
+                .readOnly(function.readOnly())
+                .resilience(resilience != null ? ResiliencePolicy.of(resilience) : null)
+                .cacheTtl(cacheable != null ? Duration.ofMillis(cacheable.ttlMillis()) : null)
+                .cacheKeys(cacheKeys)
+                .build();
+
+        MethodHandle invoker = invokerFor(bean, method);
+        FunctionHandler handler = arguments -> {
+            Map<String, Object> args = arguments != null ? arguments : Map.of();
+            Object[] values = new Object[resolvers.length];
+            for (int i = 0; i < resolvers.length; i++) {
+                values[i] = resolvers[i].resolve(args);
+            }
+            try {
+                return (Object) invoker.invokeExact(values);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+
+        if (!isAsync(method)) {
+            return new Binding(definition, handler, null);
+        }
+        // 返回 CompletionStage 的方法绑定为异步处理器，参数转换等同步错误也以失败的 future 返回
+        AsyncFunctionHandler asyncHandler = arguments -> {
+            try {
+                CompletionStage<?> stage = (CompletionStage<?>) handler.handle(arguments);
+                if (stage == null) {
+                    return CompletableFuture.failedFuture(
+                            new IllegalStateException("异步函数返回了 null: " + function.name()));
+                }
+                return stage.toCompletableFuture().thenApply(result -> (Object) result);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        };
+        return new Binding(definition, null, asyncHandler);
+    }
+
+    private static boolean isAsync(Method method) {
+        return CompletionStage.class.isAssignableFrom(method.getReturnType());
+    }
+
+    // 异步函数以 future 的元素类型作为返回类型
+    private static String returnTypeOf(Method method) {
+        if (isAsync(method) && method.getGenericReturnType() instanceof ParameterizedType futureType) {
+            Type elementType = futureType.getActualTypeArguments()[0];
+            if (elementType instanceof Class<?> elementClass) {
+                return elementClass.getSimpleName();
+            }
+            if (elementType instanceof ParameterizedType parameterized
+                    && parameterized.getRawType() instanceof Class<?> rawClass) {
+                return rawClass.getSimpleName();
+            }
+        }
+        return method.getReturnType().getSimpleName();
+    }
+
+    // bean 可能是 CGLIB 代理，绑定到代理实例上调用，事务等切面照常生效
+    private static MethodHandle invokerFor(Object bean, Method method) {
+        try {
+            ReflectionUtils.makeAccessible(method);
+            return LOOKUP.unreflect(method)
+                    .bindTo(bean)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法绑定函数方法: " + method, e);
+        }
+    }
+
+    private static ArgumentResolver resolverFor(Parameter parameter, Map<String, Object> properties,
+                                                List<String> required) {
+        Class<?> type = parameter.getType();
+        AiParam param = parameter.getAnnotation(AiParam.class);
+
+        if (isObjectType(type)) {
+            // DTO 参数：标注 @AiParam 的字段平铺为顶层参数
+            ObjectBinder binder = ObjectBinder.of(type);
+            binder.describe(properties, required);
+            return binder::build;
+        }
+
+        if (param == null) {
+            throw new IllegalStateException("函数参数缺少 @AiParam: " + parameter);
+        }
+        String name = !param.name().isEmpty() ? param.name() : parameter.getName();
+        if (param.name().isEmpty() && !parameter.isNamePresent()) {
+            throw new IllegalStateException("无法获取参数名，请在 @AiParam 中指定 name: " + parameter);
+        }
+        properties.put(name, propertySchema(type, parameter.getParameterizedType(), param));
+        if (param.required()) {
+            required.add(name);
+        }
+        ValueConverter converter = converterFor(type, parameter.getParameterizedType());
+        return arguments -> converter.convert(name, arguments.get(name));
+    }
+
+    private static Map<String, Object> propertySchema(Class<?> type, Type genericType, AiParam param) {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", jsonType(type));
+        if (param != null && !param.description().isEmpty()) {
+            schema.put("description", param.description());
+        }
+        if (param != null && param.allowableValues().length > 0) {
+            schema.put("enum", Arrays.asList(param.allowableValues()));
+        } else if (type.isEnum()) {
+            schema.put("enum", Arrays.stream(type.getEnumConstants()).map(c -> ((Enum<?>) c).name()).toList());
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            Class<?> itemType = elementType(genericType);
+            schema.put("items", propertySchema(itemType, itemType, null));
+        } else if (isObjectType(type)) {
+            Map<String, Object> nested = new LinkedHashMap<>();
+            List<String> nestedRequired = new ArrayList<>();
+            ObjectBinder.of(type).describe(nested, nestedRequired);
+            schema.put("properties", nested);
+            schema.put("required", nestedRequired);
+        }
+        return schema;
+    }
+
+    private static String jsonType(Class<?> type) {
+        if (type == String.class || type == Character.class || type == char.class || type.isEnum()) {
+            return "string";
+        }
+        if (INTEGER_TYPES.contains(type)) {
+            return "integer";
+        }
+        if (NUMBER_TYPES.contains(type)) {
+            return "number";
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return "boolean";
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return "array";
+        }
+        return "object";
+    }
+
+    private static boolean isObjectType(Class<?> type) {
+        return "object".equals(jsonType(type)) && !Map.class.isAssignableFrom(type) && type != Object.class;
+    }
+
+    private static Class<?> elementType(Type genericType) {
+        if (genericType instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> element) {
+            return element;
+        }
+        return Object.class;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ValueConverter converterFor(Class<?> type, Type genericType) {
+        if (type == String.class) {
+            return (name, raw) -> raw == null || raw instanceof String ? raw : raw.toString();
+        }
+        if (type == Long.class || type == long.class) {
+            return integral(type, Long.MIN_VALUE, Long.MAX_VALUE, value -> value);
+        }
+        if (type == Integer.class || type == int.class) {
+            return integral(type, Integer.MIN_VALUE, Integer.MAX_VALUE, value -> (int) value);
+        }
+        if (type == Short.class || type == short.class) {
+            return integral(type, Short.MIN_VALUE, Short.MAX_VALUE, value -> (short) value);
+        }
+        if (type == Byte.class || type == byte.class) {
+            return integral(type, Byte.MIN_VALUE, Byte.MAX_VALUE, value -> (byte) value);
+        }
+        if (type == Double.class || type == double.class) {
+            return numeric(type, Number::doubleValue, Double::parseDouble);
+        }
+        if (type == Float.class || type == float.class) {
+            return numeric(type, Number::floatValue, Float::parseFloat);
+        }
+        if (type == BigDecimal.class) {
+            return numeric(type, number -> new BigDecimal(number.toString()), BigDecimal::new);
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return (name, raw) -> {
+                if (raw == null) {
+                    return missing(name, type);
+                }
+                if (raw instanceof Boolean) {
+                    return raw;
+                }
+                if ("true".equalsIgnoreCase(raw.toString()) || "false".equalsIgnoreCase(raw.toString())) {
+                    return Boolean.parseBoolean(raw.toString());
+                }
+                throw mismatch(name, "boolean", raw);
+            };
+        }
+        if (type.isEnum()) {
+            return (name, raw) -> {
+                if (raw == null) {
+                    return null;
+                }
+                try {
+                    return Enum.valueOf((Class<? extends Enum>) type, raw.toString());
+                } catch (IllegalArgumentException e) {
+                    throw mismatch(name, type.getSimpleName(), raw);
+                }
+            };
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            ValueConverter item = converterFor(elementType(genericType), elementType(genericType));
+            return (name, raw) -> {
+                if (raw == null) {
+                    return null;
+                }
+                if (!(raw instanceof Collection<?> values)) {
+                    throw mismatch(name, "array", raw);
+                }
+                List<Object> converted = new ArrayList<>(values.size());
+                for (Object value : values) {
+                    converted.add(item.convert(name, value));
+                }
+                return converted;
+            };
+        }
+        if (isObjectType(type)) {
+            ObjectBinder binder = ObjectBinder.of(type);
+            return (name, raw) -> {
+                if (raw == null) {
+                    return null;
+                }
+                if (!(raw instanceof Map<?, ?> map)) {
+                    throw mismatch(name, "object", raw);
+                }
+                return binder.build((Map<String, Object>) map);
+            };
+        }
+        return (name, raw) -> raw;
+    }
+
+    /**
+     * 整数参数精确转换：带小数或超出目标类型范围的值按类型错误拒绝，不做截断
+     */
+    private static ValueConverter integral(Class<?> type, long min, long max, LongFunction<Object> narrow) {
+        return (name, raw) -> {
+            if (raw == null) {
+                return missing(name, type);
+            }
+            long value;
+            try {
+                value = raw instanceof Number number ? exactLong(number) : Long.parseLong(raw.toString().trim());
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw mismatch(name, type.getSimpleName(), raw);
+            }
+            if (value < min || value > max) {
+                throw mismatch(name, type.getSimpleName(), raw);
+            }
+            return narrow.apply(value);
+        };
+    }
+
+    private static long exactLong(Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return number.longValue();
+        }
+        if (number instanceof BigInteger big) {
+            return big.longValueExact();
+        }
+        return new BigDecimal(number.toString()).longValueExact();
+    }
+
+    private static ValueConverter numeric(Class<?> type, Function<Number, Object> fromNumber,
+                                          Function<String, Object> fromString) {
+        String expected = jsonType(type);
+        return (name, raw) -> {
+            if (raw == null) {
+                return missing(name, type);
+            }
+            if (raw instanceof Number number) {
+                return fromNumber.apply(number);
+            }
+            try {
+                return fromString.apply(raw.toString().trim());
+            } catch (NumberFormatException e) {
+                throw mismatch(name, expected, raw);
+            }
+        };
+    }
+
+    private static Object missing(String name, Class<?> type) {
+        if (type.isPrimitive()) {
+            throw new IllegalArgumentException("缺少参数: " + name);
+        }
+        return null;
+    }
+
+    private static IllegalArgumentException mismatch(String name, String expected, Object raw) {
+        return new IllegalArgumentException("参数 " + name + " 类型错误，期望 " + expected + "，实际: " + raw);
+    }
+
+    @FunctionalInterface
+    private interface ArgumentResolver {
+        Object resolve(Map<String, Object> arguments);
+    }
+
+    @FunctionalInterface
+    private interface ValueConverter {
+        Object convert(String name, Object raw);
+    }
+
+    /**
+     * DTO 绑定：无参构造器与各 @AiParam 字段的 setter 句柄
+     */
+    private static final class ObjectBinder {
+        private final MethodHandle constructor;
+        private final List<FieldBinding> fields;
+
+        private ObjectBinder(MethodHandle constructor, List<FieldBinding> fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+
+        static ObjectBinder of(Class<?> type) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+                MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+                List<FieldBinding> fields = new ArrayList<>();
+                for (Field field : type.getDeclaredFields()) {
+                    AiParam param = field.getAnnotation(AiParam.class);
+                    if (param == null || Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    String name = !param.name().isEmpty() ? param.name() : field.getName();
+                    MethodHandle setter = lookup.unreflectSetter(field)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                    fields.add(new FieldBinding(name, field, param, converterFor(field.getType(), field.getGenericType()), setter));
+                }
+                if (fields.isEmpty()) {
+                    throw new IllegalStateException("DTO 没有标注 @AiParam 的字段: " + type.getName());
+                }
+                return new ObjectBinder(constructor, fields);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("DTO 需要可访问的无参构造器: " + type.getName(), e);
+            }
+        }
+
+        void describe(Map<String, Object> properties, List<String> required) {
+            for (FieldBinding binding : fields) {
+                properties.put(binding.name,
+                        propertySchema(binding.field.getType(), binding.field.getGenericType(), binding.param));
+                if (binding.param.required()) {
+                    required.add(binding.name);
+                }
+            }
+        }
+
+        Object build(Map<String, Object> arguments) {
+            try {
+                Object instance = (Object) constructor.invokeExact();
+                for (FieldBinding binding : fields) {
+                    Object raw = arguments.get(binding.name);
+                    if (raw != null) {
+                        binding.setter.invokeExact(instance, binding.converter.convert(binding.name, raw));
+                    }
+                }
+                return instance;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("构造参数对象失败", t);
+            }
+        }
+    }
+
+    private static final class FieldBinding {
+        private final String name;
+        private final Field field;
+        private final AiParam param;
+        private final ValueConverter converter;
+        private final MethodHandle setter;
+
+        private FieldBinding(String name, Field field, AiParam param, ValueConverter converter, MethodHandle setter) {
+            this.name = name;
+            this.field = field;
+            this.param = param;
+            this.converter = converter;
+            this.setter = setter;
+        }
+    }
+
+    public static final class Binding {
+        private final FunctionDefinition definition;
+        private final FunctionHandler handler;
+        private final AsyncFunctionHandler asyncHandler;
+
+        private Binding(FunctionDefinition definition, FunctionHandler handler, AsyncFunctionHandler asyncHandler) {
+            this.definition = definition;
+            this.handler = handler;
+            this.asyncHandler = asyncHandler;
+        }
+
+        public FunctionDefinition getDefinition() {
+            return definition;
+        }
+
+        /**
+         * 同步函数的处理器，异步函数返回 null
+         */
+        public FunctionHandler getHandler() {
+            return handler;
+        }
+
+        /**
+         * 异步函数的处理器，同步函数返回 null
+         */
+        public AsyncFunctionHandler getAsyncHandler() {
+            return asyncHandler;
+        }
+
+        public boolean isAsync() {
+            return asyncHandler != null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.xiaofuge.functioncalling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 函数参数说明
+ * 标在简单类型的方法参数上时作为一个顶层参数；标在 DTO 字段上时，DTO 的字段平铺为顶层参数，
+ * 未标注的 DTO 字段不对模型暴露
+ */
+@Documented
+@Target({ElementType.PARAMETER, ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AiParam {
+    
+    /**
+     * 参数名，默认取字段名或方法参数名（需要 -parameters 编译选项）
+     */
+    String name() default "";
+    
+    String description() default "";
+    
+    boolean required() default false;
+    
+    /**
+     * 可选值，生成 schema 中的 enum
+     */
+    String[] allowableValues() default {};
+}
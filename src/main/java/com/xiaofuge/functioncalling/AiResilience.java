@@ -0,0 +1,63 @@
+package com.xiaofuge.functioncalling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 与 @AiFunction 一起声明函数的容错策略：超时、并发隔离与熔断
+ * 数值为 0 表示不启用对应的限制
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AiResilience {
+    
+    /**
+     * 单次调用超时，超时后中断执行线程并返回失败；必须同时设置 maxConcurrent
+     * 中断不会回滚已执行的操作，超时的调用仍可能在返回失败之后完成并生效
+     */
+    long timeoutMillis() default 0;
+    
+    /**
+     * 同时执行的最大调用数
+     */
+    int maxConcurrent() default 0;
+    
+    /**
+     * 并发已满时允许排队等待的调用数，超出直接拒绝
+     */
+    int maxQueue() default 0;
+    
+    /**
+     * 排队等待的最长时间
+     */
+    long maxWaitMillis() default 1000;
+    
+    /**
+     * 熔断的失败率阈值（百分比），0 表示不熔断
+     */
+    int failureRateThreshold() default 50;
+    
+    /**
+     * 计算失败率的最近调用数
+     */
+    int slidingWindowSize() default 20;
+    
+    /**
+     * 窗口内至少有这么多次调用才计算失败率
+     */
+    int minimumCalls() default 10;
+    
+    /**
+     * 熔断打开后多久进入半开状态
+     */
+    long openDurationMillis() default 30000;
+    
+    /**
+     * 半开状态放行的探测调用数，全部成功后关闭熔断
+     */
+    int halfOpenProbes() default 2;
+}
@@ -0,0 +1,13 @@
+package com.xiaofuge.functioncalling;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步函数处理器：立即返回 future，I/O 完成后再完成结果，执行期间不占用调用线程
+ * 实现应尽快返回，不要在 handleAsync 中阻塞；失败通过异常完成的 future 表达
+ */
+@FunctionalInterface
+public interface AsyncFunctionHandler {
+    CompletableFuture<Object> handleAsync(Map<String, Object> arguments);
+}
@@ -0,0 +1,139 @@
+package com.xiaofuge.functioncalling;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 基于最近 N 次调用失败率的熔断器
+ * CLOSED 统计失败率，超过阈值转 OPEN；OPEN 期间拒绝调用，到期后转 HALF_OPEN 放行少量探测调用，
+ * 探测全部成功转 CLOSED，任一失败重新 OPEN。状态变化频率很低，直接用对象锁保护。
+ */
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    @FunctionalInterface
+    public interface TransitionListener {
+        void onTransition(State from, State to);
+    }
+    
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+    private final TransitionListener listener;
+    
+    // 环形记录最近调用是否失败
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+    
+    public CircuitBreaker(ResiliencePolicy policy, LongSupplier nanoClock, TransitionListener listener) {
+        this.failureRateThreshold = policy.getFailureRateThreshold();
+        this.minimumCalls = Math.max(1, policy.getMinimumCalls());
+        this.openDurationNanos = policy.getOpenDuration().toNanos();
+        this.halfOpenProbes = Math.max(1, policy.getHalfOpenProbes());
+        this.nanoClock = nanoClock;
+        this.listener = listener;
+        this.outcomes = new boolean[Math.max(this.minimumCalls, policy.getSlidingWindowSize())];
+    }
+    
+    /**
+     * 申请一次调用；返回 true 后必须以 onSuccess、onFailure 或 onIgnored 之一结束
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesIssued >= halfOpenProbes) {
+                return false;
+            }
+            probesIssued++;
+        }
+        return true;
+    }
+    
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+    
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && failures * 100 >= failureRateThreshold * recorded) {
+            transitionTo(State.OPEN);
+        }
+    }
+    
+    /**
+     * 已申请但未实际执行（如被并发隔离拒绝），归还半开探测名额
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesIssued > 0) {
+            probesIssued--;
+        }
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    private void record(boolean failed) {
+        if (state == State.OPEN) {
+            // 打开前已放行的调用陆续返回，不再计入
+            return;
+        }
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+    
+    private void transitionTo(State target) {
+        State from = state;
+        state = target;
+        if (target == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        }
+        if (target == State.HALF_OPEN) {
+            probesIssued = 0;
+            probesSucceeded = 0;
+        }
+        if (target == State.CLOSED) {
+            recorded = 0;
+            failures = 0;
+            next = 0;
+        }
+        listener.onTransition(from, target);
+    }
+}
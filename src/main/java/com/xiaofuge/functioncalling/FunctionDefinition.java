@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -16,4 +18,14 @@ public class FunctionDefinition {
     private String description;
     private Map<String, Object> parameters;
     private String returnType;
+    // 标识被操作资源的参数名，同一资源上的写调用在 executeAll 中按顺序串行执行
+    private String conflictKey;
+    // 只读调用之间不互相阻塞，只等待其前面的写调用
+    private boolean readOnly;
+    // 超时、并发隔离与熔断策略，为 null 时直接在调用线程执行
+    private ResiliencePolicy resilience;
+    // 结果缓存有效期，为 null 时不缓存
+    private Duration cacheTtl;
+    // 组成缓存键的参数名，为空时使用全部参数
+    private List<String> cacheKeys;
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package com.xiaofuge.functioncalling;
+
+import com.xiaofuge.tracing.Tracer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按 ResiliencePolicy 包装单个函数的执行：熔断 -> 并发隔离 -> 超时
+ * 熔断打开或并发与排队都已满时抛出 RejectedExecutionException，超时抛出 TimeoutException，
+ * 调用方据此区分结果；并发名额在任务真正结束时才归还，忽略中断的处理器不会突破并发上限
+ * 异步处理器走 executeAsync：排队、超时都以 future 回调实现，不阻塞任何线程
+ *
+ * 超时只会中断执行线程，并不能撤销已经发生的副作用：忽略中断的处理器会继续运行，
+ * 其状态变更可能在调用方收到超时失败之后才提交。设置超时必须同时设置 maxConcurrent，
+ * 仍在运行的超时任务占用并发名额，共享的执行线程数因此受各函数并发上限之和约束
+ */
+@Slf4j
+public class FunctionGuard {
+    
+    private final String functionName;
+    private final ResiliencePolicy policy;
+    private final ExecutorService timeoutExecutor;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    // 等待并发名额的异步调用，名额归还时优先直接交给它们
+    private final Queue<CompletableFuture<Boolean>> asyncWaiters = new ConcurrentLinkedQueue<>();
+    
+    public FunctionGuard(String functionName, ResiliencePolicy policy, ExecutorService timeoutExecutor,
+                         CircuitBreaker.TransitionListener listener) {
+        if (policy.getTimeout() != null && policy.getMaxConcurrent() <= 0) {
+            throw new IllegalArgumentException("设置超时的函数必须同时设置 maxConcurrent: " + functionName);
+        }
+        this.functionName = functionName;
+        this.policy = policy;
+        this.timeoutExecutor = timeoutExecutor;
+        this.circuitBreaker = policy.getFailureRateThreshold() > 0
+                ? new CircuitBreaker(policy, System::nanoTime, listener)
+                : null;
+        this.permits = policy.getMaxConcurrent() > 0 ? new Semaphore(policy.getMaxConcurrent(), true) : null;
+    }
+    
+    public Object execute(FunctionHandler handler, Map<String, Object> arguments) throws Exception {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            throw new RejectedExecutionException("熔断中，暂停调用: " + functionName);
+        }
+        if (!enterBulkhead()) {
+            if (circuitBreaker != null) {
+                circuitBreaker.onIgnored();
+            }
+            throw new RejectedExecutionException("并发已满，拒绝调用: " + functionName);
+        }
+        
+        try {
+            Object result = policy.getTimeout() != null
+                    ? executeWithTimeout(handler, arguments, policy.getTimeout())
+                    : executeInline(handler, arguments);
+            if (circuitBreaker != null) {
+                circuitBreaker.onSuccess();
+            }
+            return result;
+        } catch (Exception e) {
+            if (circuitBreaker != null) {
+                circuitBreaker.onFailure();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * 异步版本：失败以异常完成的 future 返回，异常类型与 execute 相同
+     */
+    public CompletableFuture<Object> executeAsync(AsyncFunctionHandler handler, Map<String, Object> arguments) {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("熔断中，暂停调用: " + functionName));
+        }
+        // 排队时由归还名额的线程继续执行，恢复提交时的 span
+        return enterBulkheadAsync().thenCompose(Tracer.wrapFunction(acquired -> {
+            if (!acquired) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onIgnored();
+                }
+                return CompletableFuture.failedFuture(new RejectedExecutionException("并发已满，拒绝调用: " + functionName));
+            }
+            
+            CompletableFuture<Object> task = invokeAsync(handler, arguments);
+            // 异步任务无法感知取消后的真实结束，任务完成或被取消即归还名额
+            task.whenComplete((result, error) -> exitBulkhead());
+            CompletableFuture<Object> bounded = policy.getTimeout() != null
+                    ? withTimeout(task, policy.getTimeout())
+                    : task;
+            return bounded.whenComplete((result, error) -> {
+                if (circuitBreaker == null) {
+                    return;
+                }
+                if (error == null) {
+                    circuitBreaker.onSuccess();
+                } else {
+                    circuitBreaker.onFailure();
+                }
+            });
+        }));
+    }
+    
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker != null ? circuitBreaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+    
+    public int getAvailablePermits() {
+        return permits != null ? permits.availablePermits() : -1;
+    }
+    
+    private Object executeInline(FunctionHandler handler, Map<String, Object> arguments) throws Exception {
+        try {
+            return handler.handle(arguments);
+        } finally {
+            exitBulkhead();
+        }
+    }
+    
+    private Object executeWithTimeout(FunctionHandler handler, Map<String, Object> arguments, Duration timeout)
+            throws Exception {
+        // 任务开始执行与超时取消竞争同一标志，谁先拿到谁负责归还并发名额
+        AtomicBoolean started = new AtomicBoolean();
+        Future<Object> future;
+        try {
+            future = timeoutExecutor.submit(Tracer.wrapCallable(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return handler.handle(arguments);
+                } finally {
+                    exitBulkhead();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            exitBulkhead();
+            throw e;
+        }
+        
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancel(future, started);
+            log.warn("函数执行超时: {}, 超时时间: {}ms", functionName, timeout.toMillis());
+            throw new TimeoutException("函数执行超时: " + functionName + ", " + timeout.toMillis() + "ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        } catch (InterruptedException e) {
+            cancel(future, started);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+    
+    private static CompletableFuture<Object> invokeAsync(AsyncFunctionHandler handler, Map<String, Object> arguments) {
+        try {
+            CompletableFuture<Object> future = handler.handleAsync(arguments);
+            return future != null ? future : CompletableFuture.failedFuture(new IllegalStateException("异步函数返回了 null"));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private CompletableFuture<Object> withTimeout(CompletableFuture<Object> task, Duration timeout) {
+        CompletableFuture<Object> bounded = new CompletableFuture<>();
+        task.whenComplete((result, error) -> {
+            if (error != null) {
+                bounded.completeExceptionally(error);
+            } else {
+                bounded.complete(result);
+            }
+        });
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (bounded.completeExceptionally(
+                    new TimeoutException("函数执行超时: " + functionName + ", " + timeout.toMillis() + "ms"))) {
+                log.warn("函数执行超时: {}, 超时时间: {}ms", functionName, timeout.toMillis());
+                task.cancel(true);
+            }
+        });
+        return bounded;
+    }
+    
+    private void cancel(Future<?> future, AtomicBoolean started) {
+        future.cancel(true);
+        if (started.compareAndSet(false, true)) {
+            exitBulkhead();
+        }
+    }
+    
+    private boolean enterBulkhead() throws InterruptedException {
+        if (permits == null || permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > policy.getMaxQueue()) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(policy.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+    
+    private CompletableFuture<Boolean> enterBulkheadAsync() {
+        if (permits == null || permits.tryAcquire()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if (waiting.incrementAndGet() > policy.getMaxQueue()) {
+            waiting.decrementAndGet();
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletableFuture<Boolean> waiter = new CompletableFuture<>();
+        waiter.whenComplete((acquired, error) -> waiting.decrementAndGet());
+        asyncWaiters.add(waiter);
+        // 入队前名额可能刚好归还，再试一次避免错过唤醒；等待者已被完成时把多拿的名额还回去
+        if (permits.tryAcquire() && !waiter.complete(true)) {
+            exitBulkhead();
+        }
+        CompletableFuture.delayedExecutor(policy.getMaxWait().toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (waiter.complete(false)) {
+                asyncWaiters.remove(waiter);
+            }
+        });
+        return waiter;
+    }
+    
+    private void exitBulkhead() {
+        if (permits == null) {
+            return;
+        }
+        CompletableFuture<Boolean> waiter;
+        while ((waiter = asyncWaiters.poll()) != null) {
+            if (waiter.complete(true)) {
+                return;
+            }
+        }
+        permits.release();
+    }
+}
@@ -0,0 +1,189 @@
+package com.xiaofuge.functioncalling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 函数调用指标：按函数名和结果打标签的耗时直方图、执行中数量、参数大小分布
+ * 指标只为已注册的函数创建，模型编造的函数名只计入一个不带函数名的计数器，避免标签基数失控
+ */
+public class FunctionMetrics {
+    
+    public static final String CALLS = "ai.function.calls";
+    public static final String IN_FLIGHT = "ai.function.in.flight";
+    public static final String ARGUMENT_SIZE = "ai.function.arguments.size";
+    public static final String UNKNOWN = "ai.function.unknown";
+    public static final String CIRCUIT_STATE = "ai.function.circuit.state";
+    public static final String CIRCUIT_TRANSITIONS = "ai.function.circuit.transitions";
+    
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    
+    public enum Outcome {
+        SUCCESS, CACHED, ERROR, INVALID, TIMEOUT, REJECTED;
+        
+        private final String tag = name().toLowerCase();
+    }
+    
+    private final MeterRegistry registry;
+    private final Counter unknown;
+    private final Map<String, FunctionMeters> meters = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<CircuitBreaker.State>> circuits = new ConcurrentHashMap<>();
+    
+    public FunctionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.unknown = Counter.builder(UNKNOWN)
+                .description("调用了不存在的函数")
+                .register(registry);
+    }
+    
+    public Invocation start(String functionName, Map<String, Object> arguments) {
+        FunctionMeters functionMeters = meters.computeIfAbsent(functionName, FunctionMeters::new);
+        functionMeters.argumentSize.record(estimateSize(arguments));
+        functionMeters.inFlight.incrementAndGet();
+        return new Invocation(functionMeters, registry.config().clock().monotonicTime());
+    }
+    
+    public void recordUnknown() {
+        unknown.increment();
+    }
+    
+    /**
+     * 熔断状态以 gauge 导出：0 关闭、1 打开、2 半开
+     */
+    public void registerCircuit(String functionName, Supplier<CircuitBreaker.State> state) {
+        if (circuits.put(functionName, state) == null) {
+            Gauge.builder(CIRCUIT_STATE, () -> circuits.get(functionName).get().ordinal())
+                    .description("函数熔断状态")
+                    .tag("function", functionName)
+                    .register(registry);
+        }
+    }
+    
+    public void recordCircuitTransition(String functionName, CircuitBreaker.State from, CircuitBreaker.State to) {
+        Counter.builder(CIRCUIT_TRANSITIONS)
+                .description("函数熔断状态变化次数")
+                .tag("function", functionName)
+                .tag("from", from.name().toLowerCase())
+                .tag("to", to.name().toLowerCase())
+                .register(registry)
+                .increment();
+    }
+    
+    /**
+     * 各函数的调用次数与 p50/p95/p99 耗时（毫秒），按结果分组
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        meters.forEach((functionName, functionMeters) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("inFlight", functionMeters.inFlight.get());
+            Map<String, Object> outcomes = new LinkedHashMap<>();
+            functionMeters.timers.forEach((outcome, timer) -> outcomes.put(outcome.tag, timerStats(timer)));
+            stats.put("outcomes", outcomes);
+            stats.put("argumentSizeMean", functionMeters.argumentSize.mean());
+            stats.put("argumentSizeMax", functionMeters.argumentSize.max());
+            Supplier<CircuitBreaker.State> circuit = circuits.get(functionName);
+            if (circuit != null) {
+                stats.put("circuit", circuit.get().name());
+            }
+            snapshot.put(functionName, stats);
+        });
+        return snapshot;
+    }
+    
+    private static Map<String, Object> timerStats(Timer timer) {
+        HistogramSnapshot histogram = timer.takeSnapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", histogram.count());
+        stats.put("meanMs", histogram.mean(TimeUnit.MILLISECONDS));
+        stats.put("maxMs", histogram.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : histogram.percentileValues()) {
+            stats.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return stats;
+    }
+    
+    // 粗略估算参数序列化后的字节数，避免为计量再做一次 JSON 序列化
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof CharSequence text) {
+            return text.length() + 2L;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 2;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += String.valueOf(entry.getKey()).length() + 4 + estimateSize(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 2;
+            for (Object item : collection) {
+                size += estimateSize(item) + 1;
+            }
+            return size;
+        }
+        return String.valueOf(value).length();
+    }
+    
+    private final class FunctionMeters {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final DistributionSummary argumentSize;
+        private final Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+        
+        private FunctionMeters(String functionName) {
+            Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get)
+                    .description("正在执行的函数调用数")
+                    .tag("function", functionName)
+                    .register(registry);
+            argumentSize = DistributionSummary.builder(ARGUMENT_SIZE)
+                    .description("函数参数大小（估算）")
+                    .baseUnit("bytes")
+                    .tag("function", functionName)
+                    .publishPercentiles(PERCENTILES)
+                    .register(registry);
+            for (Outcome outcome : Outcome.values()) {
+                timers.put(outcome, Timer.builder(CALLS)
+                        .description("函数调用耗时")
+                        .tag("function", functionName)
+                        .tag("outcome", outcome.tag)
+                        .publishPercentiles(PERCENTILES)
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+        }
+    }
+    
+    public final class Invocation {
+        private final FunctionMeters functionMeters;
+        private final long startNanos;
+        
+        private Invocation(FunctionMeters functionMeters, long startNanos) {
+            this.functionMeters = functionMeters;
+            this.startNanos = startNanos;
+        }
+        
+        public void stop(Outcome outcome) {
+            long elapsed = registry.config().clock().monotonicTime() - startNanos;
+            functionMeters.timers.get(outcome).record(elapsed, TimeUnit.NANOSECONDS);
+            functionMeters.inFlight.decrementAndGet();
+        }
+    }
+}
@@ -1,24 +1,167 @@
 package com.xiaofuge.functioncalling;
 
+import com.xiaofuge.domain.event.ContentStatusChangedEvent;
+import com.xiaofuge.tracing.Scope;
+import com.xiaofuge.tracing.Span;
+import com.xiaofuge.tracing.Tracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.ClassUtils;
 
+import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.List;
 import java.util.ArrayList;
 
 @Component
 @Slf4j
-public class FunctionRegistry {
+public class FunctionRegistry implements ApplicationContextAware, SmartInitializingSingleton {
     
     private final Map<String, FunctionDefinition> functionDefinitions = new ConcurrentHashMap<>();
     private final Map<String, FunctionHandler> functionHandlers = new ConcurrentHashMap<>();
+    private final Map<String, AsyncFunctionHandler> asyncHandlers = new ConcurrentHashMap<>();
+    private final Map<String, SchemaValidator> functionValidators = new ConcurrentHashMap<>();
+    private final Map<String, FunctionGuard> functionGuards = new ConcurrentHashMap<>();
+    // 每次注册递增，供按版本缓存工具列表的调用方判断是否需要重建
+    private final AtomicLong version = new AtomicLong();
+    
+    private static final int DEFAULT_PARALLELISM = 32;
+    private static final long DEFAULT_RESULT_CACHE_SIZE = 10000;
+    
+    private final ExecutorService executor;
+    // 带超时的调用在此执行，调用线程只负责等待；FunctionGuard 要求超时函数设置并发上限，线程数由此约束
+    private final ExecutorService timeoutExecutor;
+    private final FunctionMetrics metrics;
+    private final FunctionResultCache resultCache;
+    
+    private ApplicationContext applicationContext;
+    
+    public FunctionRegistry() {
+        this(DEFAULT_PARALLELISM, DEFAULT_RESULT_CACHE_SIZE, new SimpleMeterRegistry());
+    }
+    
+    @Autowired
+    public FunctionRegistry(@Value("${function.execute-all.parallelism:32}") int parallelism,
+                            @Value("${function.result-cache.maximum-size:10000}") long resultCacheSize,
+                            MeterRegistry meterRegistry) {
+        this.metrics = new FunctionMetrics(meterRegistry);
+        this.resultCache = new FunctionResultCache(resultCacheSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, resultCache.getCache(), "function-result");
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("function-exec-"));
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+        this.timeoutExecutor = Executors.newCachedThreadPool(daemonThreads("function-call-"));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        timeoutExecutor.shutdown();
+    }
+    
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+    
+    /**
+     * 所有单例创建完成后扫描 @AiFunction 方法并注册
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : applicationContext.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> beanType = applicationContext.getType(beanName);
+            if (beanType != null && !findAiFunctions(beanType).isEmpty()) {
+                registerAnnotatedFunctions(applicationContext.getBean(beanName));
+            }
+        }
+        log.info("所有内容审核相关函数已注册完成，共 {} 个", functionDefinitions.size());
+    }
+    
+    /**
+     * 注册 bean 上所有 @AiFunction 方法，bean 可以是 Spring 代理
+     */
+    public void registerAnnotatedFunctions(Object bean) {
+        findAiFunctions(bean.getClass()).forEach((method, function) -> {
+            if (hasFunction(function.name())) {
+                throw new IllegalStateException("函数名重复: " + function.name());
+            }
+            AiFunctionBinder.Binding binding = AiFunctionBinder.bind(bean, method);
+            if (binding.isAsync()) {
+                registerAsyncFunction(function.name(), binding.getDefinition(), binding.getAsyncHandler());
+            } else {
+                registerFunction(function.name(), binding.getDefinition(), binding.getHandler());
+            }
+        });
+    }
     
     public void registerFunction(String name, FunctionDefinition definition, FunctionHandler handler) {
         log.info("注册函数: {}", name);
+        asyncHandlers.remove(name);
+        register(name, definition, handler);
+    }
+    
+    /**
+     * 注册异步函数；getFunctionHandler 对其返回阻塞等待结果的同步视图
+     */
+    public void registerAsyncFunction(String name, FunctionDefinition definition, AsyncFunctionHandler handler) {
+        log.info("注册异步函数: {}", name);
+        asyncHandlers.put(name, handler);
+        register(name, definition, arguments -> {
+            try {
+                return handler.handleAsync(arguments).get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        });
+    }
+    
+    private void register(String name, FunctionDefinition definition, FunctionHandler handler) {
+        functionValidators.put(name, SchemaValidator.compile(definition.getParameters()));
         functionDefinitions.put(name, definition);
         functionHandlers.put(name, handler);
+        if (definition.getResilience() != null) {
+            FunctionGuard guard = new FunctionGuard(name, definition.getResilience(), timeoutExecutor,
+                    (from, to) -> {
+                        log.warn("函数熔断状态变化: {}, {} -> {}", name, from, to);
+                        metrics.recordCircuitTransition(name, from, to);
+                    });
+            functionGuards.put(name, guard);
+            metrics.registerCircuit(name, guard::getCircuitState);
+        } else {
+            functionGuards.remove(name);
+        }
+        version.incrementAndGet();
     }
     
     public FunctionDefinition getFunctionDefinition(String name) {
@@ -33,25 +176,259 @@ public class FunctionRegistry {
         return new ArrayList<>(functionDefinitions.values());
     }
     
+    /**
+     * 函数集合的版本号，任何函数注册或替换后改变
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
     public boolean hasFunction(String name) {
         return functionDefinitions.containsKey(name);
     }
     
+    public boolean isAsyncFunction(String name) {
+        return asyncHandlers.containsKey(name);
+    }
+    
+    /**
+     * 同步函数在调用线程执行；异步函数等待其 future 完成
+     */
     public FunctionResult executeFunction(FunctionCall functionCall) {
+        return execute(functionCall, true).join();
+    }
+    
+    /**
+     * 返回的 future 总是正常完成，失败体现在 FunctionResult 中
+     * 异步函数的执行不占用线程；同步函数提交到函数执行线程池
+     */
+    public CompletableFuture<FunctionResult> executeFunctionAsync(FunctionCall functionCall) {
+        return execute(functionCall, false);
+    }
+    
+    // 每次调用一个 span；执行期间设为当前 span，同步处理器提交到线程池时随任务传递
+    private CompletableFuture<FunctionResult> execute(FunctionCall functionCall, boolean inline) {
+        Span span = Tracer.startSpan("execute_tool " + functionCall.getName())
+                .setAttribute("gen_ai.tool.name", functionCall.getName());
+        CompletableFuture<FunctionResult> future;
+        try (Scope ignored = span.makeCurrent()) {
+            future = doExecute(functionCall, inline);
+        }
+        return future.whenComplete((result, error) -> {
+            if (result != null && !result.isSuccess()) {
+                span.setAttribute("tool.validation_failed", result.hasValidationErrors())
+                        .setStatus(Span.Status.ERROR, result.getErrorMessage());
+            }
+            span.end();
+        });
+    }
+    
+    private CompletableFuture<FunctionResult> doExecute(FunctionCall functionCall, boolean inline) {
         String functionName = functionCall.getName();
         
         if (!hasFunction(functionName)) {
-            return FunctionResult.error(functionName, "函数不存在: " + functionName);
+            metrics.recordUnknown();
+            return CompletableFuture.completedFuture(FunctionResult.error(functionName, "函数不存在: " + functionName));
         }
         
-        try {
-            FunctionHandler handler = getFunctionHandler(functionName);
-            Object result = handler.handle(functionCall.getArguments());
+        FunctionMetrics.Invocation invocation = metrics.start(functionName, functionCall.getArguments());
+        
+        // 分发前按 schema 校验，参数有误时不进入业务逻辑
+        List<ValidationError> errors = functionValidators.get(functionName).validate(functionCall.getArguments());
+        if (!errors.isEmpty()) {
+            log.warn("函数参数校验失败: {}, {}", functionName, errors);
+            invocation.stop(FunctionMetrics.Outcome.INVALID);
+            return CompletableFuture.completedFuture(FunctionResult.invalid(functionName, errors));
+        }
+        
+        FunctionResultCache.Lookup lookup = resultCache.lookup(functionDefinitions.get(functionName),
+                functionCall.getArguments());
+        if (lookup != null) {
+            FunctionResult cached = resultCache.get(lookup);
+            if (cached != null) {
+                log.info("函数结果命中缓存: {}", functionName);
+                Tracer.current().setAttribute("tool.cache_hit", true);
+                invocation.stop(FunctionMetrics.Outcome.CACHED);
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        
+        Map<String, Object> arguments = functionCall.getArguments();
+        CompletableFuture<Object> outcome;
+        AsyncFunctionHandler asyncHandler = asyncHandlers.get(functionName);
+        if (asyncHandler != null) {
+            outcome = dispatchAsync(functionName, asyncHandler, arguments);
+        } else if (inline) {
+            outcome = dispatchInline(functionName, arguments);
+        } else {
+            outcome = CompletableFuture.supplyAsync(
+                            Tracer.wrapSupplier(() -> dispatchInline(functionName, arguments)), executor)
+                    .thenCompose(future -> future);
+        }
+        return outcome.handle((result, error) -> complete(functionName, invocation, lookup, result, error));
+    }
+    
+    private FunctionResult complete(String functionName, FunctionMetrics.Invocation invocation,
+                                    FunctionResultCache.Lookup lookup, Object result, Throwable error) {
+        if (error == null) {
             log.info("函数执行成功: {}", functionName);
-            return FunctionResult.success(functionName, result);
+            invocation.stop(FunctionMetrics.Outcome.SUCCESS);
+            FunctionResult functionResult = FunctionResult.success(functionName, result);
+            if (lookup != null) {
+                resultCache.put(lookup, functionResult);
+            }
+            return functionResult;
+        }
+        
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            invocation.stop(FunctionMetrics.Outcome.TIMEOUT);
+            return FunctionResult.error(functionName, cause.getMessage());
+        }
+        if (cause instanceof RejectedExecutionException) {
+            log.warn("函数调用被拒绝: {}", cause.getMessage());
+            invocation.stop(FunctionMetrics.Outcome.REJECTED);
+            return FunctionResult.error(functionName, cause.getMessage());
+        }
+        log.error("函数执行失败: {}", functionName, cause);
+        invocation.stop(FunctionMetrics.Outcome.ERROR);
+        return FunctionResult.error(functionName, "函数执行失败: " + cause.getMessage());
+    }
+    
+    public Map<String, Object> getStats() {
+        return metrics.snapshot();
+    }
+    
+    /**
+     * 使某个资源上的缓存结果失效，resource 形如 contentId=42
+     */
+    public void invalidateResults(String resource) {
+        resultCache.invalidate(resource);
+    }
+    
+    @EventListener
+    public void onStatusChanged(ContentStatusChangedEvent event) {
+        invalidateResults("contentId=" + event.getContentId());
+    }
+    
+    // 事务内的并发调用可能在提交前读到旧状态并写回缓存，提交后再失效一次
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChangeCommitted(ContentStatusChangedEvent event) {
+        invalidateResults("contentId=" + event.getContentId());
+    }
+    
+    private CompletableFuture<Object> dispatchInline(String functionName, Map<String, Object> arguments) {
+        FunctionHandler handler = getFunctionHandler(functionName);
+        FunctionGuard guard = functionGuards.get(functionName);
+        try {
+            return CompletableFuture.completedFuture(
+                    guard != null ? guard.execute(handler, arguments) : handler.handle(arguments));
         } catch (Exception e) {
-            log.error("函数执行失败: {}", functionName, e);
-            return FunctionResult.error(functionName, "函数执行失败: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private CompletableFuture<Object> dispatchAsync(String functionName, AsyncFunctionHandler handler,
+                                                    Map<String, Object> arguments) {
+        FunctionGuard guard = functionGuards.get(functionName);
+        if (guard != null) {
+            return guard.executeAsync(handler, arguments);
+        }
+        try {
+            CompletableFuture<Object> future = handler.handleAsync(arguments);
+            return future != null ? future
+                    : CompletableFuture.failedFuture(new IllegalStateException("异步函数返回了 null: " + functionName));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * 并发执行一组函数调用，结果按调用顺序返回
+     * 声明了 conflictKey 的函数按 参数名=参数值 识别资源：同一资源上的写调用等待其前面的所有调用，
+     * 只读调用只等待其前面的写调用；互不冲突的调用并行执行，总耗时接近其中最慢的一个
+     */
+    public List<FunctionResult> executeAll(List<FunctionCall> functionCalls) {
+        if (functionCalls.size() <= 1) {
+            List<FunctionResult> results = new ArrayList<>(1);
+            functionCalls.forEach(call -> results.add(executeFunction(call)));
+            return results;
+        }
+        return executeAllAsync(functionCalls).join();
+    }
+    
+    /**
+     * executeAll 的非阻塞版本，全部调用完成后按调用顺序给出结果
+     */
+    public CompletableFuture<List<FunctionResult>> executeAllAsync(List<FunctionCall> functionCalls) {
+        List<CompletableFuture<FunctionResult>> futures = new ArrayList<>(functionCalls.size());
+        Map<String, CompletableFuture<?>> lastWrites = new HashMap<>();
+        Map<String, List<CompletableFuture<?>>> readsSinceWrite = new HashMap<>();
+        
+        for (FunctionCall call : functionCalls) {
+            FunctionDefinition definition = functionDefinitions.get(call.getName());
+            String resource = resourceOf(definition, call);
+            
+            CompletableFuture<?> dependency = CompletableFuture.completedFuture(null);
+            if (resource != null) {
+                List<CompletableFuture<?>> predecessors = new ArrayList<>();
+                if (lastWrites.containsKey(resource)) {
+                    predecessors.add(lastWrites.get(resource));
+                }
+                if (!definition.isReadOnly()) {
+                    predecessors.addAll(readsSinceWrite.getOrDefault(resource, List.of()));
+                }
+                dependency = CompletableFuture.allOf(predecessors.toArray(new CompletableFuture[0]));
+            }
+            
+            // 同步函数在 executeFunctionAsync 中提交到线程池，异步函数不占线程
+            CompletableFuture<FunctionResult> future = dependency
+                    .handle((ignored, error) -> null)
+                    .thenCompose(Tracer.wrapFunction(ignored -> executeFunctionAsync(call)));
+            futures.add(future);
+            
+            if (resource != null) {
+                if (definition.isReadOnly()) {
+                    readsSinceWrite.computeIfAbsent(resource, k -> new ArrayList<>()).add(future);
+                } else {
+                    lastWrites.put(resource, future);
+                    readsSinceWrite.remove(resource);
+                }
+            }
         }
+        
+        List<CompletableFuture<FunctionResult>> guarded = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            String functionName = functionCalls.get(i).getName();
+            guarded.add(futures.get(i).exceptionally(e -> {
+                log.error("函数执行失败: {}", functionName, e);
+                return FunctionResult.error(functionName, "函数执行失败: " + e.getMessage());
+            }));
+        }
+        return CompletableFuture.allOf(guarded.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> guarded.stream().map(CompletableFuture::join).toList());
+    }
+    
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    private static String resourceOf(FunctionDefinition definition, FunctionCall call) {
+        if (definition == null || definition.getConflictKey() == null || call.getArguments() == null) {
+            return null;
+        }
+        Object value = call.getArguments().get(definition.getConflictKey());
+        return value != null ? definition.getConflictKey() + "=" + value : null;
+    }
+    
+    private static Map<Method, AiFunction> findAiFunctions(Class<?> beanType) {
+        return MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                (MethodIntrospector.MetadataLookup<AiFunction>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, AiFunction.class));
     }
 }
\ No newline at end of file
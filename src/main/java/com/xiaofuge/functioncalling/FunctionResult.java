@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,6 +16,8 @@ public class FunctionResult {
     private boolean success;
     private Object result;
     private String errorMessage;
+    // 参数校验失败时的明细，模型可据此修正参数后重试
+    private List<ValidationError> validationErrors;
     
     public static FunctionResult success(String functionName, Object result) {
         return FunctionResult.builder()
@@ -30,4 +34,21 @@ public class FunctionResult {
                 .errorMessage(errorMessage)
                 .build();
     }
+    
+    public static FunctionResult invalid(String functionName, List<ValidationError> validationErrors) {
+        StringBuilder message = new StringBuilder("参数校验失败:");
+        for (ValidationError error : validationErrors) {
+            message.append(' ').append(error.getPath()).append(' ').append(error.getMessage()).append(';');
+        }
+        return FunctionResult.builder()
+                .functionName(functionName)
+                .success(false)
+                .errorMessage(message.toString())
+                .validationErrors(validationErrors)
+                .build();
+    }
+    
+    public boolean hasValidationErrors() {
+        return validationErrors != null && !validationErrors.isEmpty();
+    }
 }
\ No newline at end of file
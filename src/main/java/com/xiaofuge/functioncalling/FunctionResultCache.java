@@ -0,0 +1,141 @@
+package com.xiaofuge.functioncalling;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 可缓存函数的结果缓存，容量有上限，条目按函数声明的有效期过期
+ * 失效不逐条查找删除：资源（参数名=参数值）哈希到分段纪元，写入时记下当时的纪元，
+ * 读取时纪元已变化即视为未命中。状态流转只需递增一个计数，哈希冲突只会造成多余的未命中
+ */
+public class FunctionResultCache {
+    
+    private static final int STRIPES = 4096;
+    private static final char SEPARATOR = '\u0000';
+    
+    private final Cache<String, Entry> cache;
+    private final AtomicLongArray epochs = new AtomicLongArray(STRIPES);
+    
+    public FunctionResultCache(long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * 生成本次调用的缓存键并记下资源当前的纪元；函数不可缓存时返回 null
+     * 必须在执行函数之前调用，执行期间发生的流转才能使结果失效
+     */
+    public Lookup lookup(FunctionDefinition definition, Map<String, Object> arguments) {
+        if (definition.getCacheTtl() == null) {
+            return null;
+        }
+        Map<String, Object> args = arguments != null ? arguments : Map.of();
+        List<String> keys = definition.getCacheKeys();
+        
+        StringBuilder key = new StringBuilder(definition.getName());
+        if (keys == null || keys.isEmpty()) {
+            new TreeMap<>(args).forEach((name, value) -> key.append(SEPARATOR).append(name).append('=').append(value));
+        } else {
+            for (String name : keys) {
+                key.append(SEPARATOR).append(args.get(name));
+            }
+        }
+        
+        int stripe = -1;
+        Object resource = definition.getConflictKey() != null ? args.get(definition.getConflictKey()) : null;
+        if (resource != null) {
+            stripe = stripeOf(definition.getConflictKey() + "=" + resource);
+        }
+        return new Lookup(key.toString(), stripe, stripe >= 0 ? epochs.get(stripe) : 0,
+                definition.getCacheTtl());
+    }
+    
+    public FunctionResult get(Lookup lookup) {
+        Entry entry = cache.getIfPresent(lookup.key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.stripe >= 0 && epochs.get(entry.stripe) != entry.epoch) {
+            // 只移除这一条过期结果，不误删并发写入的新结果
+            cache.asMap().remove(lookup.key, entry);
+            return null;
+        }
+        return entry.result;
+    }
+    
+    public void put(Lookup lookup, FunctionResult result) {
+        if (lookup.stripe >= 0 && epochs.get(lookup.stripe) != lookup.epoch) {
+            return;
+        }
+        cache.put(lookup.key, new Entry(result, lookup.stripe, lookup.epoch, lookup.ttl.toNanos()));
+    }
+    
+    /**
+     * 使某个资源上的全部缓存结果失效，resource 形如 contentId=42
+     */
+    public void invalidate(String resource) {
+        epochs.incrementAndGet(stripeOf(resource));
+    }
+    
+    public Cache<?, ?> getCache() {
+        return cache;
+    }
+    
+    private static int stripeOf(String resource) {
+        int hash = resource.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+    
+    public static final class Lookup {
+        private final String key;
+        private final int stripe;
+        private final long epoch;
+        private final Duration ttl;
+        
+        private Lookup(String key, int stripe, long epoch, Duration ttl) {
+            this.key = key;
+            this.stripe = stripe;
+            this.epoch = epoch;
+            this.ttl = ttl;
+        }
+    }
+    
+    private static final class Entry {
+        private final FunctionResult result;
+        private final int stripe;
+        private final long epoch;
+        private final long ttlNanos;
+        
+        private Entry(FunctionResult result, int stripe, long epoch, long ttlNanos) {
+            this.result = result;
+            this.stripe = stripe;
+            this.epoch = epoch;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.xiaofuge.functioncalling;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * 函数容错策略，随 FunctionDefinition 一起注册；字段为 null 或 0 时不启用对应限制
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResiliencePolicy {
+    private Duration timeout;
+    private int maxConcurrent;
+    private int maxQueue;
+    private Duration maxWait;
+    private int failureRateThreshold;
+    private int slidingWindowSize;
+    private int minimumCalls;
+    private Duration openDuration;
+    private int halfOpenProbes;
+    
+    public static ResiliencePolicy of(AiResilience annotation) {
+        return ResiliencePolicy.builder()
+                .timeout(annotation.timeoutMillis() > 0 ? Duration.ofMillis(annotation.timeoutMillis()) : null)
+                .maxConcurrent(annotation.maxConcurrent())
+                .maxQueue(annotation.maxQueue())
+                .maxWait(Duration.ofMillis(annotation.maxWaitMillis()))
+                .failureRateThreshold(annotation.failureRateThreshold())
+                .slidingWindowSize(annotation.slidingWindowSize())
+                .minimumCalls(annotation.minimumCalls())
+                .openDuration(Duration.ofMillis(annotation.openDurationMillis()))
+                .halfOpenProbes(annotation.halfOpenProbes())
+                .build();
+    }
+}
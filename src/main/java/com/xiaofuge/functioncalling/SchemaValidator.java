@@ -0,0 +1,250 @@
+package com.xiaofuge.functioncalling;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 由函数参数 schema 编译出的校验器
+ * 注册时把 schema Map 解析成校验节点树，调用时只做类型判断和集合查找，不再解释 schema
+ * 与参数转换保持一致：数字、布尔值允许以字符串形式传入，标量允许作为字符串参数
+ */
+public final class SchemaValidator {
+    
+    private static final SchemaValidator ACCEPT_ALL = new SchemaValidator((path, value, errors) -> { });
+    
+    private final Node root;
+    
+    private SchemaValidator(Node root) {
+        this.root = root;
+    }
+    
+    public static SchemaValidator compile(Map<String, Object> schema) {
+        if (schema == null || schema.isEmpty()) {
+            return ACCEPT_ALL;
+        }
+        return new SchemaValidator(compileNode(schema));
+    }
+    
+    public List<ValidationError> validate(Map<String, Object> arguments) {
+        List<ValidationError> errors = new ArrayList<>(0);
+        root.validate("", arguments != null ? arguments : Collections.emptyMap(), errors);
+        return errors;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Node compileNode(Map<String, Object> schema) {
+        Object type = schema.get("type");
+        Node typeNode;
+        if ("object".equals(type) || (type == null && schema.containsKey("properties"))) {
+            typeNode = compileObject(schema);
+        } else if ("array".equals(type)) {
+            Object items = schema.get("items");
+            Node itemNode = items instanceof Map ? compileNode((Map<String, Object>) items) : null;
+            typeNode = arrayNode(itemNode);
+        } else if ("string".equals(type)) {
+            typeNode = SchemaValidator::checkString;
+        } else if ("integer".equals(type)) {
+            typeNode = SchemaValidator::checkInteger;
+        } else if ("number".equals(type)) {
+            typeNode = SchemaValidator::checkNumber;
+        } else if ("boolean".equals(type)) {
+            typeNode = SchemaValidator::checkBoolean;
+        } else {
+            typeNode = (path, value, errors) -> { };
+        }
+        
+        Set<String> allowed = toStringSet(schema.get("enum"));
+        if (allowed.isEmpty()) {
+            return typeNode;
+        }
+        return (path, value, errors) -> {
+            int before = errors.size();
+            typeNode.validate(path, value, errors);
+            if (errors.size() == before && !allowed.contains(value.toString())) {
+                errors.add(error(path, "取值不在允许范围内: " + allowed + "，实际: " + value));
+            }
+        };
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Node compileObject(Map<String, Object> schema) {
+        Map<String, Node> properties = new LinkedHashMap<>();
+        Object declared = schema.get("properties");
+        if (declared instanceof Map) {
+            ((Map<String, Object>) declared).forEach((name, property) -> {
+                if (property instanceof Map) {
+                    properties.put(name, compileNode((Map<String, Object>) property));
+                }
+            });
+        }
+        String[] required = toStringSet(schema.get("required")).toArray(new String[0]);
+        
+        return (path, value, errors) -> {
+            if (!(value instanceof Map)) {
+                errors.add(error(path, "类型错误，期望 object，实际: " + describe(value)));
+                return;
+            }
+            Map<String, Object> object = (Map<String, Object>) value;
+            for (String name : required) {
+                if (object.get(name) == null) {
+                    errors.add(error(join(path, name), "缺少必填参数"));
+                }
+            }
+            for (Map.Entry<String, Node> property : properties.entrySet()) {
+                Object propertyValue = object.get(property.getKey());
+                if (propertyValue != null) {
+                    property.getValue().validate(join(path, property.getKey()), propertyValue, errors);
+                }
+            }
+        };
+    }
+    
+    private static Node arrayNode(Node itemNode) {
+        return (path, value, errors) -> {
+            if (!(value instanceof Collection)) {
+                errors.add(error(path, "类型错误，期望 array，实际: " + describe(value)));
+                return;
+            }
+            if (itemNode == null) {
+                return;
+            }
+            int index = 0;
+            for (Object item : (Collection<?>) value) {
+                String itemPath = path + "[" + index++ + "]";
+                if (item == null) {
+                    errors.add(error(itemPath, "数组元素不能为空"));
+                } else {
+                    itemNode.validate(itemPath, item, errors);
+                }
+            }
+        };
+    }
+    
+    private static void checkString(String path, Object value, List<ValidationError> errors) {
+        if (value instanceof Map || value instanceof Collection) {
+            errors.add(error(path, "类型错误，期望 string，实际: " + describe(value)));
+        }
+    }
+    
+    /**
+     * integer 只接受 long 范围内的整数值，超出范围的值转换成 Long/Integer 参数时会被截断
+     */
+    private static void checkInteger(String path, Object value, List<ValidationError> errors) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return;
+        }
+        if (value instanceof BigInteger big) {
+            if (big.bitLength() < Long.SIZE) {
+                return;
+            }
+        } else if (value instanceof BigDecimal decimal) {
+            if (isLong(decimal)) {
+                return;
+            }
+        } else if (value instanceof Number number) {
+            double d = number.doubleValue();
+            // [-2^63, 2^63) 内的整数 double 都能精确转换为 long
+            if (d == Math.rint(d) && d >= -0x1p63 && d < 0x1p63) {
+                return;
+            }
+        } else if (value instanceof String text && isInteger(text.trim())) {
+            return;
+        }
+        errors.add(error(path, "类型错误，期望 long 范围内的 integer，实际: " + describe(value)));
+    }
+    
+    private static void checkNumber(String path, Object value, List<ValidationError> errors) {
+        if (value instanceof Number) {
+            return;
+        }
+        if (value instanceof String text) {
+            try {
+                new BigDecimal(text.trim());
+                return;
+            } catch (NumberFormatException ignored) {
+                // 落到下方统一报错
+            }
+        }
+        errors.add(error(path, "类型错误，期望 number，实际: " + describe(value)));
+    }
+    
+    private static void checkBoolean(String path, Object value, List<ValidationError> errors) {
+        if (value instanceof Boolean
+                || "true".equalsIgnoreCase(value.toString()) || "false".equalsIgnoreCase(value.toString())) {
+            return;
+        }
+        errors.add(error(path, "类型错误，期望 boolean，实际: " + describe(value)));
+    }
+    
+    private static boolean isInteger(String text) {
+        int start = text.startsWith("-") || text.startsWith("+") ? 1 : 0;
+        if (text.length() == start || text.length() - start > 19) {
+            return false;
+        }
+        for (int i = start; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        // 19 位数字仍可能超出 long
+        if (text.length() - start == 19) {
+            try {
+                Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isLong(BigDecimal decimal) {
+        try {
+            decimal.longValueExact();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+    
+    private static Set<String> toStringSet(Object values) {
+        Set<String> result = new LinkedHashSet<>();
+        if (values instanceof Collection<?> collection) {
+            collection.forEach(v -> result.add(String.valueOf(v)));
+        } else if (values instanceof Object[] array) {
+            Arrays.stream(array).forEach(v -> result.add(String.valueOf(v)));
+        }
+        return result;
+    }
+    
+    private static String join(String path, String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+    
+    private static String describe(Object value) {
+        if (value instanceof Map) {
+            return "object";
+        }
+        if (value instanceof Collection) {
+            return "array";
+        }
+        return String.valueOf(value);
+    }
+    
+    private static ValidationError error(String path, String message) {
+        return ValidationError.builder().path(path).message(message).build();
+    }
+    
+    @FunctionalInterface
+    private interface Node {
+        void validate(String path, Object value, List<ValidationError> errors);
+    }
+}
@@ -0,0 +1,19 @@
+package com.xiaofuge.functioncalling;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 参数校验错误，回传给模型用于修正下一轮调用
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidationError {
+    // 参数路径，如 contentId、ids[0]、author.name
+    private String path;
+    private String message;
+}
@@ -0,0 +1,290 @@
+package com.xiaofuge.journal;
+
+import com.xiaofuge.domain.Content;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 基于内存映射分段文件的只追加审核事件日志
+ *
+ * 记录格式: [int 载荷长度][long 时间戳][long contentId][byte from][byte to][byte stage][short reason长度][reason UTF-8]
+ * 段文件预分配并以 0 填充，长度字段为 0 即为已写数据末尾；长度字段最后写入，读到的记录总是完整的。
+ * 写入只允许单线程；读取（时间范围查询、回放）可以与写入并发。
+ */
+@Slf4j
+public class MappedReviewJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "review-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int FIXED_PAYLOAD_BYTES = Long.BYTES * 2 + 3 + Short.BYTES;
+    private static final int MAX_REASON_BYTES = 4096;
+    private static final byte NONE = -1;
+
+    private static final Content.ReviewStatus[] STATUSES = Content.ReviewStatus.values();
+    private static final Content.ReviewStage[] STAGES = Content.ReviewStage.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int indexInterval;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    // 稀疏索引：时间戳 -> 该时间戳第一条被索引记录的位置（同一毫秒内它之前可能还有记录）
+    private final ConcurrentSkipListMap<Long, Position> sparseIndex = new ConcurrentSkipListMap<>();
+
+    // 以下字段只由写线程访问
+    private Segment active;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private int sinceLastIndex;
+
+    public MappedReviewJournal(Path directory, int segmentSize, int indexInterval) throws IOException {
+        if (segmentSize <= LENGTH_BYTES + FIXED_PAYLOAD_BYTES + MAX_REASON_BYTES) {
+            throw new IllegalArgumentException("段文件过小: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.indexInterval = Math.max(1, indexInterval);
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * 追加一条记录，时间戳早于上一条时按上一条对齐以保证单调
+     */
+    public void append(ReviewEvent event) throws IOException {
+        byte[] reason = encodeReason(event.getReason());
+        int payloadLength = FIXED_PAYLOAD_BYTES + reason.length;
+        int recordLength = LENGTH_BYTES + payloadLength;
+
+        if (active.committed + recordLength > active.capacity()) {
+            roll();
+        }
+
+        long timestamp = Math.max(lastTimestamp, event.getTimestamp());
+        int position = active.committed;
+        MappedByteBuffer buffer = active.buffer;
+        int p = position + LENGTH_BYTES;
+        buffer.putLong(p, timestamp);
+        buffer.putLong(p + 8, event.getContentId());
+        buffer.put(p + 16, ordinal(event.getFromStatus()));
+        buffer.put(p + 17, ordinal(event.getToStatus()));
+        buffer.put(p + 18, ordinal(event.getStage()));
+        buffer.putShort(p + 19, (short) reason.length);
+        buffer.put(p + 21, reason);
+        buffer.putInt(position, payloadLength);
+
+        if (position == 0 || sinceLastIndex >= indexInterval) {
+            sparseIndex.putIfAbsent(timestamp, new Position(active.index, position));
+            sinceLastIndex = 0;
+        }
+        sinceLastIndex++;
+        lastTimestamp = timestamp;
+        // volatile 写，对读线程发布本条记录
+        active.committed = position + recordLength;
+    }
+
+    /**
+     * 将当前段已写入的数据刷到磁盘，写线程每批调用一次
+     */
+    public void flush() {
+        active.buffer.force();
+    }
+
+    /**
+     * 按时间范围读取 [fromMillis, toMillis]，借助稀疏索引定位起点
+     *
+     * 起点取严格小于 fromMillis 的索引项：等于 fromMillis 的索引项不一定是该毫秒的第一条记录
+     */
+    public void scan(long fromMillis, long toMillis, Consumer<ReviewEvent> consumer) {
+        Map.Entry<Long, Position> start = sparseIndex.lowerEntry(fromMillis);
+        int startSegment = start != null ? start.getValue().segment : 0;
+        int startOffset = start != null ? start.getValue().offset : 0;
+
+        for (int i = startSegment; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            ByteBuffer view = segment.buffer.duplicate();
+            int limit = segment.committed;
+            int position = i == startSegment ? startOffset : 0;
+            while (position < limit) {
+                int payloadLength = view.getInt(position);
+                ReviewEvent event = decode(view, position + LENGTH_BYTES);
+                if (event.getTimestamp() > toMillis) {
+                    return;
+                }
+                if (event.getTimestamp() >= fromMillis) {
+                    consumer.accept(event);
+                }
+                position += LENGTH_BYTES + payloadLength;
+            }
+        }
+    }
+
+    /**
+     * 从头回放全部记录，用于重建派生视图
+     */
+    public void replay(Consumer<ReviewEvent> consumer) {
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, consumer);
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        if (active != null) {
+            active.buffer.force();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (Path file : files) {
+            Segment segment = map(file, segments.size(), (int) Math.max(Files.size(file), segmentSize));
+            int position = 0;
+            int recordsInSegment = 0;
+            while (position + LENGTH_BYTES <= segment.capacity()) {
+                int payloadLength = segment.buffer.getInt(position);
+                if (payloadLength <= 0 || position + LENGTH_BYTES + payloadLength > segment.capacity()) {
+                    break;
+                }
+                long timestamp = segment.buffer.getLong(position + LENGTH_BYTES);
+                if (recordsInSegment % indexInterval == 0) {
+                    sparseIndex.putIfAbsent(timestamp, new Position(segment.index, position));
+                }
+                lastTimestamp = Math.max(lastTimestamp, timestamp);
+                recordsInSegment++;
+                position += LENGTH_BYTES + payloadLength;
+            }
+            segment.committed = position;
+            segments.add(segment);
+            sinceLastIndex = recordsInSegment % indexInterval;
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(map(segmentPath(0), 0, segmentSize));
+        }
+        active = segments.get(segments.size() - 1);
+        log.info("审核事件日志已加载，目录: {}, 段数: {}", directory, segments.size());
+    }
+
+    private void roll() throws IOException {
+        active.buffer.force();
+        Segment next = map(segmentPath(segments.size()), segments.size(), segmentSize);
+        segments.add(next);
+        active = next;
+        sinceLastIndex = 0;
+        log.info("审核事件日志滚动到新段: {}", next.path.getFileName());
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static Segment map(Path path, int index, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 映射在通道关闭后依然有效
+            return new Segment(index, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private static ReviewEvent decode(ByteBuffer view, int p) {
+        int reasonLength = view.getShort(p + 19);
+        String reason = null;
+        if (reasonLength > 0) {
+            byte[] bytes = new byte[reasonLength];
+            view.get(p + 21, bytes);
+            reason = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return ReviewEvent.builder()
+                .timestamp(view.getLong(p))
+                .contentId(view.getLong(p + 8))
+                .fromStatus(status(view.get(p + 16)))
+                .toStatus(status(view.get(p + 17)))
+                .stage(stage(view.get(p + 18)))
+                .reason(reason)
+                .build();
+    }
+
+    private static byte[] encodeReason(String reason) {
+        if (reason == null || reason.isEmpty()) {
+            return new byte[0];
+        }
+        byte[] bytes = reason.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_REASON_BYTES) {
+            return bytes;
+        }
+        // 截断点落在多字节字符中间时退回到该字符的起始字节，回放时不会出现替换字符
+        int length = MAX_REASON_BYTES;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? NONE : (byte) value.ordinal();
+    }
+
+    private static Content.ReviewStatus status(byte ordinal) {
+        return ordinal == NONE ? null : STATUSES[ordinal];
+    }
+
+    private static Content.ReviewStage stage(byte ordinal) {
+        return ordinal == NONE ? null : STAGES[ordinal];
+    }
+
+    private static final class Segment {
+        private final int index;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private volatile int committed;
+
+        private Segment(int index, Path path, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private int capacity() {
+            return buffer.capacity();
+        }
+    }
+
+    private static final class Position {
+        private final int segment;
+        private final int offset;
+
+        private Position(int segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.xiaofuge.journal;
+
+import com.xiaofuge.domain.Content;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 审核事件日志中的一条记录
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewEvent {
+    private long contentId;
+    // 流转前状态未知时为 null
+    private Content.ReviewStatus fromStatus;
+    private Content.ReviewStatus toStatus;
+    private String reason;
+    private Content.ReviewStage stage;
+    // 毫秒时间戳，日志内单调不减
+    private long timestamp;
+}
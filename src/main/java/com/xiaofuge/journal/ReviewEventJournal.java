@@ -0,0 +1,160 @@
+package com.xiaofuge.journal;
+
+import com.xiaofuge.domain.event.ContentStatusChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 审核事件日志：记录每一次成功的状态流转
+ * 事务提交后入队，由单独的写线程按批顺序写入内存映射段文件，不占用请求线程
+ */
+@Component
+@Slf4j
+public class ReviewEventJournal {
+
+    @Value("${content.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${content.journal.dir:./data/journal}")
+    private String directory;
+
+    @Value("${content.journal.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${content.journal.batch-size:256}")
+    private int batchSize;
+
+    @Value("${content.journal.index-interval:64}")
+    private int indexInterval;
+
+    @Value("${content.journal.queue-capacity:65536}")
+    private int queueCapacity;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private MappedReviewJournal journal;
+    private BlockingQueue<ReviewEvent> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            log.info("审核事件日志未启用");
+            return;
+        }
+        journal = new MappedReviewJournal(Paths.get(directory), (int) segmentSize.toBytes(), indexInterval);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::runWriter, "review-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        journal.close();
+        log.info("审核事件日志已关闭，累计写入: {}, 丢弃: {}", written.sum(), dropped.sum());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(ContentStatusChangedEvent event) {
+        if (queue == null) {
+            return;
+        }
+        ReviewEvent reviewEvent = ReviewEvent.builder()
+                .contentId(event.getContentId())
+                .fromStatus(event.getFromStatus())
+                .toStatus(event.getToStatus())
+                .reason(event.getReason())
+                .stage(event.getStage())
+                .timestamp(event.getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .build();
+        if (!queue.offer(reviewEvent)) {
+            dropped.increment();
+            log.warn("审核事件日志队列已满，丢弃事件，内容ID: {}", event.getContentId());
+        }
+    }
+
+    public List<ReviewEvent> findBetween(Instant from, Instant to) {
+        List<ReviewEvent> events = new ArrayList<>();
+        if (journal != null) {
+            journal.scan(from.toEpochMilli(), to.toEpochMilli(), events::add);
+        }
+        return events;
+    }
+
+    /**
+     * 回放全部事件，用于重建统计等派生视图
+     */
+    public void replay(Consumer<ReviewEvent> consumer) {
+        if (journal != null) {
+            journal.replay(consumer);
+        }
+    }
+
+    public void replay(Instant from, Consumer<ReviewEvent> consumer) {
+        if (journal != null) {
+            journal.scan(from.toEpochMilli(), Long.MAX_VALUE, consumer);
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void runWriter() {
+        List<ReviewEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ReviewEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (ReviewEvent event : batch) {
+                    journal.append(event);
+                }
+                // 每批只刷一次盘
+                journal.flush();
+                written.add(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("写入审核事件日志失败，本批 {} 条", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
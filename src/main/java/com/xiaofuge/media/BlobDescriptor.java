@@ -0,0 +1,20 @@
+package com.xiaofuge.media;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlobDescriptor {
+    // SHA-256 十六进制摘要，同时作为 blob ID
+    private String blobId;
+    private String ref;
+    private long size;
+    private String contentType;
+    // 相同内容已存在，本次上传未新增文件
+    private boolean deduplicated;
+}
@@ -0,0 +1,167 @@
+package com.xiaofuge.media;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 按内容哈希寻址的本地媒体存储
+ * 上传经 FileChannel 流式落盘并同时计算 SHA-256，相同内容只保留一份文件
+ * 文件布局: {dir}/{前两位}/{sha256}，内容类型存放在同名 .type 文件
+ */
+@Component
+@Slf4j
+public class BlobStore {
+
+    public static final String REF_PREFIX = "blob://";
+
+    private static final Pattern BLOB_ID = Pattern.compile("^[0-9a-f]{64}$");
+    private static final String TYPE_SUFFIX = ".type";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    @Value("${content.media.dir:./data/media}")
+    private String directory;
+
+    @Value("${content.media.buffer-size:65536}")
+    private int bufferSize;
+
+    private Path root;
+    private Path tmp;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(directory).toAbsolutePath();
+        tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+        log.info("媒体存储目录: {}", root);
+    }
+
+    public static boolean isBlobRef(String url) {
+        return url != null && url.startsWith(REF_PREFIX);
+    }
+
+    public static String toRef(String blobId) {
+        return REF_PREFIX + blobId;
+    }
+
+    public static String blobIdOf(String ref) {
+        return ref.substring(REF_PREFIX.length());
+    }
+
+    public BlobDescriptor store(InputStream input, String contentType) throws IOException {
+        MessageDigest digest = newDigest();
+        Path tempFile = Files.createTempFile(tmp, "upload-", ".part");
+        long size = 0;
+
+        try (ReadableByteChannel source = Channels.newChannel(input);
+             FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                // digest.update 会推进 position，用副本计算摘要，原缓冲区用于写盘
+                ByteBuffer forDigest = buffer.duplicate();
+                digest.update(forDigest);
+                while (buffer.hasRemaining()) {
+                    size += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            target.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        String blobId = HexFormat.of().formatHex(digest.digest());
+        Path blobPath = pathOf(blobId);
+        boolean deduplicated = Files.exists(blobPath);
+
+        if (deduplicated) {
+            Files.deleteIfExists(tempFile);
+            log.info("媒体内容已存在，复用: {}", blobId);
+        } else {
+            Files.createDirectories(blobPath.getParent());
+            // 先写类型再落 blob，blob 可见时类型一定已经存在
+            Files.writeString(typePathOf(blobId), contentType != null ? contentType : DEFAULT_CONTENT_TYPE,
+                    StandardCharsets.UTF_8);
+            // 同时上传相同内容时 rename 覆盖同样的字节，结果一致
+            Files.move(tempFile, blobPath, StandardCopyOption.ATOMIC_MOVE);
+            log.info("媒体内容已保存: {}, 大小: {} 字节", blobId, size);
+        }
+
+        return BlobDescriptor.builder()
+                .blobId(blobId)
+                .ref(toRef(blobId))
+                .size(size)
+                .contentType(contentType(blobId))
+                .deduplicated(deduplicated)
+                .build();
+    }
+
+    public boolean exists(String blobId) {
+        return locate(blobId).isPresent();
+    }
+
+    public Optional<Path> locate(String blobId) {
+        if (blobId == null || !BLOB_ID.matcher(blobId).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(blobId);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public String contentType(String blobId) {
+        try {
+            Path typePath = typePathOf(blobId);
+            return Files.exists(typePath) ? Files.readString(typePath, StandardCharsets.UTF_8) : DEFAULT_CONTENT_TYPE;
+        } catch (IOException e) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+    }
+
+    /**
+     * 以只读方式映射整个 blob，供识别等本地处理直接读取字节，不经过堆内拷贝
+     */
+    public MappedByteBuffer map(String blobId) throws IOException {
+        Path path = locate(blobId).orElseThrow(() -> new IOException("媒体内容不存在: " + blobId));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private Path pathOf(String blobId) {
+        return root.resolve(blobId.substring(0, 2)).resolve(blobId);
+    }
+
+    private Path typePathOf(String blobId) {
+        return root.resolve(blobId.substring(0, 2)).resolve(blobId + TYPE_SUFFIX);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.xiaofuge.ratelimit;
+
+import com.xiaofuge.exception.ContentReviewException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按作者的上传限流
+ * 每个档位一份固定大小的滑动窗口草图，作者数量再多内存也不增长；超额上传在入库和调用模型之前被拒绝
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorRateLimiter {
+
+    private static final String ANONYMOUS = "";
+
+    private final RateLimitProperties properties;
+
+    private final Map<String, SlidingWindowSketch> sketches = new LinkedHashMap<>();
+    // 启动时从配置复制的档位，不修改也不对外暴露配置 bean 本身
+    private Map<String, RateLimitProperties.Tier> tiers;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        Map<String, RateLimitProperties.Tier> configured = new LinkedHashMap<>();
+        properties.getTiers().forEach((name, tier) -> configured.put(name, copy(tier)));
+        if (configured.isEmpty()) {
+            configured.put(properties.getDefaultTier(), new RateLimitProperties.Tier());
+        }
+        if (!configured.containsKey(properties.getDefaultTier())) {
+            throw new IllegalStateException("默认限流档位未配置: " + properties.getDefaultTier());
+        }
+        tiers = Collections.unmodifiableMap(configured);
+        tiers.forEach((name, tier) -> sketches.put(name, new SlidingWindowSketch(
+                tier.getWindow().toMillis(), properties.getDepth(), properties.getWidth())));
+        long memory = sketches.values().stream().mapToLong(SlidingWindowSketch::memoryBytes).sum();
+        log.info("作者上传限流已初始化，启用: {}, 档位: {}, 内存占用: {} 字节",
+                properties.isEnabled(), tiers.keySet(), memory);
+    }
+
+    /**
+     * 为作者申请一次上传额度，超出所在档位的限额时抛出 RATE_LIMITED 异常
+     * 未提供作者ID的上传共用一个匿名额度
+     */
+    public void acquire(String authorId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String key = authorId != null ? authorId : ANONYMOUS;
+        String tierName = tierOf(key);
+        RateLimitProperties.Tier tier = tiers.get(tierName);
+        if (sketches.get(tierName).tryAcquire(key, tier.getLimit(), System.currentTimeMillis())) {
+            allowed.increment();
+            return;
+        }
+        rejected.increment();
+        log.warn("作者上传超出限额，作者ID: {}, 档位: {}", authorId, tierName);
+        throw ContentReviewException.rateLimited(authorId, tier.getLimit(), tier.getWindow());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", properties.isEnabled());
+        snapshot.put("allowed", allowed.sum());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("tiers", tiers);
+        snapshot.put("memoryBytes", sketches.values().stream().mapToLong(SlidingWindowSketch::memoryBytes).sum());
+        return snapshot;
+    }
+
+    private static RateLimitProperties.Tier copy(RateLimitProperties.Tier tier) {
+        RateLimitProperties.Tier copy = new RateLimitProperties.Tier();
+        copy.setLimit(tier.getLimit());
+        copy.setWindow(tier.getWindow());
+        return copy;
+    }
+
+    private String tierOf(String authorId) {
+        String tier = properties.getAuthors().get(authorId);
+        return tier != null && sketches.containsKey(tier) ? tier : properties.getDefaultTier();
+    }
+}
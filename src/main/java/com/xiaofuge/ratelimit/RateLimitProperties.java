@@ -0,0 +1,51 @@
+package com.xiaofuge.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 作者上传限流配置，对应 content.rate-limit
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "content.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 每个档位草图的行数，行数越多误判越少
+     */
+    private int depth = 4;
+
+    /**
+     * 每行计数单元数，向上取整到 2 的幂；内存占用 = 档位数 × depth × width × 8 字节
+     */
+    private int width = 65536;
+
+    /**
+     * 未单独配置的作者使用的档位
+     */
+    private String defaultTier = "standard";
+
+    /**
+     * 档位名 -> 窗口与窗口内允许的上传次数
+     */
+    private Map<String, Tier> tiers = new LinkedHashMap<>();
+
+    /**
+     * 作者ID -> 档位名
+     */
+    private Map<String, String> authors = new LinkedHashMap<>();
+
+    @Data
+    public static class Tier {
+        private long limit = 20;
+        private Duration window = Duration.ofMinutes(1);
+    }
+}
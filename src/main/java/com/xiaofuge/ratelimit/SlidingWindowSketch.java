@@ -0,0 +1,138 @@
+package com.xiaofuge.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定内存的滑动窗口计数草图（Count-Min Sketch 变体）
+ * depth 行 × width 列的计数单元，每个键在每行散列到一个单元，估计值取各行最小值，只会高估不会低估。
+ * 每个单元把 窗口编号(高 20 位)、上一窗口计数(22 位)、当前窗口计数(低 22 位) 打包进一个 long，
+ * 窗口滚动与累加在一次 CAS 内完成；不同键分散在不同单元上，天然分段，无锁竞争点。
+ * 滑动窗口按 上一窗口计数 × 未过去的比例 + 当前窗口计数 近似。
+ */
+public class SlidingWindowSketch {
+
+    private static final int COUNT_BITS = 22;
+    private static final int WINDOW_BITS = 64 - COUNT_BITS * 2;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+    private static final long MAX_CELLS = 1 << 28;
+    private static final long ROW_SEED = 0x9E3779B97F4A7C15L;
+
+    private final long windowMillis;
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray cells;
+
+    public SlidingWindowSketch(long windowMillis, int depth, int width) {
+        if (windowMillis <= 0 || depth <= 0 || width <= 0 || (long) depth * width > MAX_CELLS) {
+            throw new IllegalArgumentException("草图参数非法，窗口: " + windowMillis + "ms, 行数: " + depth + ", 列数: " + width);
+        }
+        this.windowMillis = windowMillis;
+        this.depth = depth;
+        // 列数取 2 的幂，散列值直接按位取模
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.cells = new AtomicLongArray(depth * this.width);
+    }
+
+    /**
+     * 估计 key 在截至 nowMillis 的滑动窗口内的计数
+     */
+    public double estimate(String key, long nowMillis) {
+        long window = windowOf(nowMillis);
+        double elapsed = elapsedFraction(nowMillis);
+        long hash = hash(key);
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, weighted(roll(cells.get(index(hash, row)), window), elapsed));
+        }
+        return min;
+    }
+
+    /**
+     * 估计值加上本次不超过 limit 时计数并返回 true，否则不计数并返回 false
+     * 检查与累加不是原子的，高并发下可能略微超出 limit，限流场景可以接受
+     */
+    public boolean tryAcquire(String key, long limit, long nowMillis) {
+        long window = windowOf(nowMillis);
+        double elapsed = elapsedFraction(nowMillis);
+        long hash = hash(key);
+
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, weighted(roll(cells.get(index(hash, row)), window), elapsed));
+        }
+        if (min + 1 > limit) {
+            return false;
+        }
+
+        for (int row = 0; row < depth; row++) {
+            int i = index(hash, row);
+            while (true) {
+                long current = cells.get(i);
+                long rolled = roll(current, window);
+                long next = (rolled & ~COUNT_MASK) | Math.min(COUNT_MASK, (rolled & COUNT_MASK) + 1);
+                if (cells.compareAndSet(i, current, next)) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public long memoryBytes() {
+        return (long) cells.length() * Long.BYTES;
+    }
+
+    private long windowOf(long nowMillis) {
+        return (nowMillis / windowMillis) & WINDOW_MASK;
+    }
+
+    private double elapsedFraction(long nowMillis) {
+        return (double) (nowMillis % windowMillis) / windowMillis;
+    }
+
+    // 单元的窗口落后一个时当前计数转为上一窗口计数，落后更多时清零
+    private static long roll(long cell, long window) {
+        long cellWindow = cell >>> (COUNT_BITS * 2);
+        if (cellWindow == window) {
+            return cell;
+        }
+        long previous = cellWindow == ((window - 1) & WINDOW_MASK) ? cell & COUNT_MASK : 0;
+        return (window << (COUNT_BITS * 2)) | (previous << COUNT_BITS);
+    }
+
+    private static double weighted(long cell, double elapsed) {
+        long previous = (cell >>> COUNT_BITS) & COUNT_MASK;
+        long current = cell & COUNT_MASK;
+        return previous * (1 - elapsed) + current;
+    }
+
+    private int index(long hash, int row) {
+        long h = mix(hash + row * ROW_SEED);
+        return row * width + (int) (h & (width - 1));
+    }
+
+    // FNV-1a 64 位
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53b7e20L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,16 @@
+package com.xiaofuge.repository;
+
+import com.xiaofuge.domain.ContentBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ContentBodyRepository extends JpaRepository<ContentBody, Long> {
+    
+    @Query("SELECT b.textContent FROM ContentBody b WHERE b.contentId = :contentId")
+    Optional<String> findTextContentByContentId(@Param("contentId") Long contentId);
+}
@@ -2,8 +2,13 @@ package com.xiaofuge.repository;
 
 import com.xiaofuge.domain.Content;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +19,36 @@ public interface ContentRepository extends JpaRepository<Content, Long> {
     List<Content> findByAuthorId(String authorId);
     
     List<Content> findByType(Content.ContentType type);
-}
\ No newline at end of file
+    
+    // 以下分组计数仅在启动时用于校准内存统计
+    @Query("SELECT c.status, COUNT(c) FROM Content c GROUP BY c.status")
+    List<Object[]> countGroupByStatus();
+    
+    @Query("SELECT c.type, COUNT(c) FROM Content c GROUP BY c.type")
+    List<Object[]> countGroupByType();
+    
+    @Query("SELECT c.authorId, COUNT(c) FROM Content c GROUP BY c.authorId")
+    List<Object[]> countGroupByAuthor();
+    
+    /**
+     * 条件状态流转：仅当当前状态属于 sources 时才更新，返回受影响行数（0 表示流转失败）
+     * reviewResult / rejectReason / publishTime 为 null 时保留原值；流转到 REJECTED 时把 stage 记为 rejectStage
+     * 不用 COALESCE(:param, c.field)：Hibernate 6 在 SET 子句中无法推断 null 参数的类型
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Content c SET c.status = :target, " +
+           "c.reviewResult = CASE WHEN :reviewResult IS NULL THEN c.reviewResult ELSE :reviewResult END, " +
+           "c.rejectReason = CASE WHEN :rejectReason IS NULL THEN c.rejectReason ELSE :rejectReason END, " +
+           "c.rejectStage = CASE WHEN :target = com.xiaofuge.domain.Content$ReviewStatus.REJECTED THEN :stage ELSE c.rejectStage END, " +
+           "c.publishTime = CASE WHEN :publishTime IS NULL THEN c.publishTime ELSE :publishTime END, " +
+           "c.updateTime = :now, c.version = c.version + 1 " +
+           "WHERE c.id = :id AND c.status IN :sources")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("sources") Collection<Content.ReviewStatus> sources,
+                         @Param("target") Content.ReviewStatus target,
+                         @Param("reviewResult") String reviewResult,
+                         @Param("rejectReason") String rejectReason,
+                         @Param("stage") Content.ReviewStage stage,
+                         @Param("publishTime") LocalDateTime publishTime,
+                         @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,167 @@
+package com.xiaofuge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.xiaofuge.domain.Content;
+import com.xiaofuge.domain.event.ContentStatusChangedEvent;
+import com.xiaofuge.repository.ContentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content 读穿透/写穿透缓存，供一次审核流程中的各个步骤共享
+ * 缓存中保存的是脱离持久化上下文的快照，读取时再复制一份返回，调用方之间不共享实例；
+ * 状态变更一律通过 ContentStateMachine
+ * 事务内读到或写入的数据要等事务提交后才放入缓存，回滚的数据不会进入缓存；
+ * 读取时记下该 id 的失效戳，若提交前该 id 被失效过（戳已变化或被淘汰），放弃这次写入，
+ * 写入时也不会用旧 version 覆盖缓存中更新的 version，避免把已被其他事务改掉的状态放回缓存
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContentCache {
+    
+    private final ContentRepository contentRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${content.cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${content.cache.expire-after-write:5m}")
+    private Duration expireAfterWrite;
+    
+    private Cache<Long, Content> cache;
+    
+    // 每个 id 最近一次失效时分配的戳，取值全局递增、不会重复
+    private Cache<Long, Long> stamps;
+    private final AtomicLong stampSequence = new AtomicLong();
+    
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        stamps = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "content");
+        log.info("Content缓存已初始化，容量: {}, 过期时间: {}", maximumSize, expireAfterWrite);
+    }
+    
+    public Optional<Content> findById(Long contentId) {
+        if (!inTransaction()) {
+            // 数据库中不存在时映射函数返回 null，不会缓存
+            Content cached = cache.get(contentId, id -> contentRepository.findById(id).map(ContentCache::snapshot).orElse(null));
+            return Optional.ofNullable(cached).map(ContentCache::snapshot);
+        }
+        
+        Content cached = cache.getIfPresent(contentId);
+        if (cached != null) {
+            return Optional.of(snapshot(cached));
+        }
+        long stamp = stamp(contentId);
+        Optional<Content> loaded = contentRepository.findById(contentId).map(ContentCache::snapshot);
+        loaded.ifPresent(snapshot -> putAfterCommit(snapshot, stamp));
+        return loaded.map(ContentCache::snapshot);
+    }
+    
+    /**
+     * 保存并返回受管实体；缓存在事务提交后才更新
+     */
+    public Content save(Content content) {
+        Content saved = contentRepository.save(content);
+        putAfterCommit(snapshot(saved), stamp(saved.getId()));
+        return saved;
+    }
+    
+    /**
+     * 失效缓存并更新失效戳，使此前读取、尚未提交的事务放弃写入缓存
+     */
+    public void invalidate(Long contentId) {
+        stamps.asMap().compute(contentId, (id, stamp) -> {
+            cache.invalidate(id);
+            return stampSequence.incrementAndGet();
+        });
+    }
+    
+    public CacheStats stats() {
+        return cache.stats();
+    }
+    
+    public long size() {
+        return cache.estimatedSize();
+    }
+    
+    private void putAfterCommit(Content snapshot, long stamp) {
+        if (!inTransaction()) {
+            putIfUnchanged(snapshot, stamp);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                putIfUnchanged(snapshot, stamp);
+            }
+        });
+    }
+    
+    // 没有戳时分配一个，保证之后的失效或淘汰都能被发现
+    private long stamp(Long contentId) {
+        return stamps.get(contentId, id -> stampSequence.incrementAndGet());
+    }
+    
+    // 与 invalidate 在同一个 id 上互斥：戳未变化才写入，且不覆盖 version 更新的缓存项
+    private void putIfUnchanged(Content snapshot, long stamp) {
+        stamps.asMap().compute(snapshot.getId(), (id, current) -> {
+            if (current != null && current == stamp) {
+                cache.asMap().merge(id, snapshot, ContentCache::newer);
+            }
+            return current;
+        });
+    }
+    
+    private static Content newer(Content cached, Content snapshot) {
+        if (cached.getVersion() != null && snapshot.getVersion() != null
+                && cached.getVersion() > snapshot.getVersion()) {
+            return cached;
+        }
+        return snapshot;
+    }
+    
+    private static boolean inTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+    
+    private static Content snapshot(Content content) {
+        return content.toBuilder().build();
+    }
+    
+    @EventListener
+    public void onStatusChanged(ContentStatusChangedEvent event) {
+        invalidate(event.getContentId());
+    }
+    
+    // 事务内的并发读取可能在提交前把旧状态重新放回缓存，提交后再失效一次
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChangeCommitted(ContentStatusChangedEvent event) {
+        invalidate(event.getContentId());
+    }
+}
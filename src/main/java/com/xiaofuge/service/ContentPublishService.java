@@ -1,9 +1,10 @@
 package com.xiaofuge.service;
 
 import com.xiaofuge.domain.Content;
-import com.xiaofuge.repository.ContentRepository;
 import com.xiaofuge.service.dto.ContentPublishRequest;
 import com.xiaofuge.service.dto.ContentPublishResponse;
+import com.xiaofuge.functioncalling.AiFunction;
+import com.xiaofuge.functioncalling.AiResilience;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,67 +12,58 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ContentPublishService {
     
-    private final ContentRepository contentRepository;
+    private final ContentCache contentCache;
+    private final ContentStateMachine contentStateMachine;
     
+    /**
+     * 状态流转在事务内同步完成并提交；向各平台分发是 I/O，返回的 future 在分发完成后完成，期间不占用线程
+     */
+    @AiFunction(name = "publish_content", description = "发布审核通过的内容", conflictKey = "contentId")
+    @AiResilience(timeoutMillis = 5000, maxConcurrent = 8, maxQueue = 16)
     @Transactional
-    public ContentPublishResponse publishContent(ContentPublishRequest request) {
+    public CompletableFuture<ContentPublishResponse> publishContent(ContentPublishRequest request) {
         log.info("开始发布内容，内容ID: {}", request.getContentId());
         
-        Optional<Content> contentOpt = contentRepository.findById(request.getContentId());
-        if (contentOpt.isEmpty()) {
-            return ContentPublishResponse.builder()
+        LocalDateTime publishTime = LocalDateTime.now();
+        
+        // 执行发布操作：仅 APPROVED 状态可流转为 PUBLISHED
+        if (!contentStateMachine.publish(request.getContentId(), publishTime)) {
+            Optional<Content.ReviewStatus> status = contentCache.findById(request.getContentId()).map(Content::getStatus);
+            return CompletableFuture.completedFuture(ContentPublishResponse.builder()
                     .contentId(request.getContentId())
                     .published(false)
-                    .reason("内容不存在")
-                    .build();
+                    .reason(status.map(s -> "内容未通过审核，当前状态: " + s).orElse("内容不存在"))
+                    .build());
         }
         
-        Content content = contentOpt.get();
-        
-        if (content.getStatus() != Content.ReviewStatus.APPROVED) {
+        // 模拟发布到各个平台
+        return publishToPlatforms(request.getContentId()).thenApply(ignored -> {
+            log.info("内容发布成功，内容ID: {}", request.getContentId());
             return ContentPublishResponse.builder()
                     .contentId(request.getContentId())
-                    .published(false)
-                    .reason("内容未通过审核，当前状态: " + content.getStatus())
+                    .published(true)
+                    .reason("内容发布成功")
+                    .publishTime(publishTime)
+                    .publishUrl("https://platform.com/content/" + request.getContentId())
                     .build();
-        }
-        
-        // 执行发布操作
-        content.setStatus(Content.ReviewStatus.PUBLISHED);
-        content.setPublishTime(LocalDateTime.now());
-        contentRepository.save(content);
-        
-        // 模拟发布到各个平台
-        simulatePublishToPlatforms(content);
-        
-        log.info("内容发布成功，内容ID: {}", request.getContentId());
-        
-        return ContentPublishResponse.builder()
-                .contentId(request.getContentId())
-                .published(true)
-                .reason("内容发布成功")
-                .publishTime(content.getPublishTime())
-                .publishUrl("https://platform.com/content/" + content.getId())
-                .build();
+        });
     }
     
-    private void simulatePublishToPlatforms(Content content) {
+    private CompletableFuture<Void> publishToPlatforms(Long contentId) {
         // 模拟发布到不同平台
         log.info("正在发布内容到各平台: 微博、微信公众号、抖音...");
         
-        // 这里可以集成真实的平台API
-        try {
-            Thread.sleep(1000); // 模拟网络请求延迟
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        log.info("内容已成功发布到所有平台");
+        // 这里可以集成真实的平台API，异步客户端直接返回其 future
+        // 用延迟执行模拟网络请求延迟，等待期间不占用线程
+        return CompletableFuture.runAsync(() -> log.info("内容已成功发布到所有平台，内容ID: {}", contentId),
+                CompletableFuture.delayedExecutor(1, TimeUnit.SECONDS));
     }
 }
\ No newline at end of file
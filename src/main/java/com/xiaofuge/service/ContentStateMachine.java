@@ -0,0 +1,127 @@
+package com.xiaofuge.service;
+
+import com.xiaofuge.domain.Content.ReviewStage;
+import com.xiaofuge.domain.Content.ReviewStatus;
+import com.xiaofuge.domain.event.ContentStatusChangedEvent;
+import com.xiaofuge.repository.ContentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 内容状态机
+ * 每次流转都是一条条件 UPDATE（WHERE id=? AND status IN (...)），同时递增版本号，
+ * 返回值表示本次流转是否生效；非法流转在本地直接拒绝，不访问数据库
+ * 流转成功后发布 ContentStatusChangedEvent，缓存失效等逻辑挂在该事件上
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContentStateMachine {
+
+    // 目标状态 -> 允许的来源状态
+    private static final Map<ReviewStatus, Set<ReviewStatus>> ALLOWED_SOURCES = new EnumMap<>(ReviewStatus.class);
+
+    static {
+        ALLOWED_SOURCES.put(ReviewStatus.TEXT_REVIEWING, EnumSet.of(
+                ReviewStatus.PENDING, ReviewStatus.TEXT_REVIEWING, ReviewStatus.IMAGE_REVIEWING));
+        ALLOWED_SOURCES.put(ReviewStatus.IMAGE_REVIEWING, EnumSet.of(
+                ReviewStatus.PENDING, ReviewStatus.TEXT_REVIEWING, ReviewStatus.IMAGE_REVIEWING));
+        // 图像违规被拒后允许转入人工复审
+        ALLOWED_SOURCES.put(ReviewStatus.MANUAL_REVIEWING, EnumSet.of(
+                ReviewStatus.PENDING, ReviewStatus.TEXT_REVIEWING, ReviewStatus.IMAGE_REVIEWING,
+                ReviewStatus.MANUAL_REVIEWING, ReviewStatus.REJECTED));
+        ALLOWED_SOURCES.put(ReviewStatus.APPROVED, EnumSet.of(ReviewStatus.MANUAL_REVIEWING));
+        ALLOWED_SOURCES.put(ReviewStatus.REJECTED, EnumSet.of(
+                ReviewStatus.PENDING, ReviewStatus.TEXT_REVIEWING, ReviewStatus.IMAGE_REVIEWING,
+                ReviewStatus.MANUAL_REVIEWING));
+        ALLOWED_SOURCES.put(ReviewStatus.PUBLISHED, EnumSet.of(ReviewStatus.APPROVED));
+    }
+
+    private final ContentRepository contentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public static boolean canTransition(ReviewStatus from, ReviewStatus to) {
+        return ALLOWED_SOURCES.getOrDefault(to, Collections.emptySet()).contains(from);
+    }
+
+    public static Set<ReviewStatus> allowedSources(ReviewStatus to) {
+        return Collections.unmodifiableSet(ALLOWED_SOURCES.getOrDefault(to, Collections.emptySet()));
+    }
+
+    /**
+     * 从任意合法来源状态流转到目标状态
+     */
+    @Transactional
+    public boolean transition(Long contentId, ReviewStage stage, ReviewStatus target, String reason) {
+        return transition(contentId, stage, null, target, reason);
+    }
+
+    /**
+     * 从期望状态流转到目标状态；expected 为 null 时接受任意合法来源状态
+     * reason 在 APPROVED 时写入 reviewResult，在 REJECTED 时写入 rejectReason，同时把 stage 记为 rejectStage
+     */
+    @Transactional
+    public boolean transition(Long contentId, ReviewStage stage, ReviewStatus expected,
+                              ReviewStatus target, String reason) {
+        return apply(contentId, stage, expected, target, reason, null);
+    }
+
+    @Transactional
+    public boolean publish(Long contentId, LocalDateTime publishTime) {
+        return apply(contentId, ReviewStage.PUBLISH, ReviewStatus.APPROVED, ReviewStatus.PUBLISHED, null, publishTime);
+    }
+
+    private boolean apply(Long contentId, ReviewStage stage, ReviewStatus expected, ReviewStatus target,
+                          String reason, LocalDateTime publishTime) {
+        Set<ReviewStatus> sources = ALLOWED_SOURCES.getOrDefault(target, Collections.emptySet());
+        if (expected != null) {
+            if (!sources.contains(expected)) {
+                log.warn("非法状态流转: {} -> {}，内容ID: {}", expected, target, contentId);
+                return false;
+            }
+            sources = EnumSet.of(expected);
+        }
+        if (sources.isEmpty()) {
+            log.warn("目标状态不可达: {}，内容ID: {}", target, contentId);
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = contentRepository.transitionStatus(
+                contentId,
+                sources,
+                target,
+                target == ReviewStatus.APPROVED ? reason : null,
+                target == ReviewStatus.REJECTED ? reason : null,
+                stage,
+                publishTime,
+                now);
+
+        if (updated == 0) {
+            log.info("状态流转未生效: {} -> {}，内容ID: {}", sources, target, contentId);
+            return false;
+        }
+        log.debug("状态流转成功: {} -> {}，内容ID: {}", sources, target, contentId);
+        // 来源状态唯一时即可确定流转前状态
+        ReviewStatus from = sources.size() == 1 ? sources.iterator().next() : null;
+        eventPublisher.publishEvent(ContentStatusChangedEvent.builder()
+                .contentId(contentId)
+                .fromStatus(from)
+                .toStatus(target)
+                .reason(reason)
+                .stage(stage)
+                .occurredAt(now)
+                .build());
+        return true;
+    }
+}
@@ -1,39 +1,75 @@
 package com.xiaofuge.service;
 
 import com.xiaofuge.domain.Content;
-import com.xiaofuge.repository.ContentRepository;
+import com.xiaofuge.domain.ContentBody;
+import com.xiaofuge.domain.event.ContentUploadedEvent;
+import com.xiaofuge.exception.ContentReviewException;
+import com.xiaofuge.media.BlobStore;
+import com.xiaofuge.ratelimit.AuthorRateLimiter;
+import com.xiaofuge.repository.ContentBodyRepository;
 import com.xiaofuge.service.dto.ContentUploadRequest;
 import com.xiaofuge.service.dto.ContentUploadResponse;
+import com.xiaofuge.functioncalling.AiFunction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import cn.hutool.core.util.StrUtil;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ContentUploadService {
     
-    private final ContentRepository contentRepository;
+    private final ContentCache contentCache;
+    private final ContentBodyRepository contentBodyRepository;
+    private final BlobStore blobStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuthorRateLimiter authorRateLimiter;
+    private final TransactionTemplate transactionTemplate;
     
-    @Transactional
+    @AiFunction(name = "upload_content", description = "上传内容到系统")
     public ContentUploadResponse uploadContent(ContentUploadRequest request) {
         log.info("开始上传内容: {}", request.getTitle());
         
-        Content.ContentType contentType = determineContentType(request);
+        // 限流在事务之外，超额请求不占用数据库连接
+        authorRateLimiter.acquire(request.getAuthorId());
+        return transactionTemplate.execute(status -> saveContent(request));
+    }
+    
+    private ContentUploadResponse saveContent(ContentUploadRequest request) {
+        String imageUrl = resolveMedia(request.getImageBlobId(), request.getImageUrl());
+        String videoUrl = resolveMedia(request.getVideoBlobId(), request.getVideoUrl());
+        Content.ContentType contentType = determineContentType(request.getTextContent(), imageUrl, videoUrl);
         
         Content content = Content.builder()
                 .title(request.getTitle())
-                .textContent(request.getTextContent())
-                .imageUrl(request.getImageUrl())
-                .videoUrl(request.getVideoUrl())
+                .imageUrl(imageUrl)
+                .videoUrl(videoUrl)
                 .type(contentType)
                 .authorId(request.getAuthorId())
                 .status(Content.ReviewStatus.PENDING)
                 .build();
         
-        Content savedContent = contentRepository.save(content);
+        Content savedContent = contentCache.save(content);
+        
+        // 正文单独存入 content_body，状态类查询不再读取大字段
+        if (StrUtil.isNotBlank(request.getTextContent())) {
+            contentBodyRepository.save(ContentBody.builder()
+                    .contentId(savedContent.getId())
+                    .textContent(request.getTextContent())
+                    .build());
+        }
+        
+        eventPublisher.publishEvent(ContentUploadedEvent.builder()
+                .contentId(savedContent.getId())
+                .type(savedContent.getType())
+                .authorId(savedContent.getAuthorId())
+                .occurredAt(LocalDateTime.now())
+                .build());
         log.info("内容上传成功，ID: {}", savedContent.getId());
         
         return ContentUploadResponse.builder()
@@ -43,19 +79,19 @@ public class ContentUploadService {
                 .build();
     }
     
-    private Content.ContentType determineContentType(ContentUploadRequest request) {
-        boolean hasText = StrUtil.isNotBlank(request.getTextContent());
-        boolean hasImage = StrUtil.isNotBlank(request.getImageUrl());
-        boolean hasVideo = StrUtil.isNotBlank(request.getVideoUrl());
-        
-        if (hasText && (hasImage || hasVideo)) {
-            return Content.ContentType.MIXED;
-        } else if (hasVideo) {
-            return Content.ContentType.VIDEO;
-        } else if (hasImage) {
-            return Content.ContentType.IMAGE;
-        } else {
-            return Content.ContentType.TEXT;
+    // 本地 blob 优先，以 blob:// 引用存入 URL 字段
+    private String resolveMedia(String blobId, String url) {
+        if (StrUtil.isBlank(blobId)) {
+            return url;
+        }
+        if (!blobStore.exists(blobId)) {
+            throw ContentReviewException.blobNotFound(blobId);
         }
+        return BlobStore.toRef(blobId);
+    }
+    
+    private Content.ContentType determineContentType(String textContent, String imageUrl, String videoUrl) {
+        return Content.ContentType.of(StrUtil.isNotBlank(textContent), StrUtil.isNotBlank(imageUrl),
+                StrUtil.isNotBlank(videoUrl));
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.xiaofuge.service;
 
 import com.xiaofuge.domain.Content;
-import com.xiaofuge.repository.ContentRepository;
+import com.xiaofuge.media.BlobStore;
 import com.xiaofuge.service.dto.ImageRecognitionRequest;
 import com.xiaofuge.service.dto.ImageRecognitionResponse;
+import com.xiaofuge.functioncalling.AiFunction;
+import com.xiaofuge.functioncalling.AiResilience;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,6 +13,8 @@ import org.springframework.transaction.annotation.Transactional;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.RandomUtil;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -20,18 +24,22 @@ import java.util.Optional;
 @Slf4j
 public class ImageRecognitionService {
     
-    private final ContentRepository contentRepository;
+    private final ContentCache contentCache;
+    private final ContentStateMachine contentStateMachine;
+    private final BlobStore blobStore;
     
     // 模拟违规图片类型
     private static final List<String> FORBIDDEN_TYPES = Arrays.asList(
             "violence", "porn", "politics", "terrorism"
     );
     
+    @AiFunction(name = "recognize_image", description = "识别图片内容是否违规", conflictKey = "contentId")
+    @AiResilience(timeoutMillis = 3000, maxConcurrent = 16, maxQueue = 32)
     @Transactional
     public ImageRecognitionResponse recognizeImage(ImageRecognitionRequest request) {
         log.info("开始图像识别，内容ID: {}", request.getContentId());
         
-        Optional<Content> contentOpt = contentRepository.findById(request.getContentId());
+        Optional<Content> contentOpt = contentCache.findById(request.getContentId());
         if (contentOpt.isEmpty()) {
             return ImageRecognitionResponse.builder()
                     .contentId(request.getContentId())
@@ -41,11 +49,13 @@ public class ImageRecognitionService {
         }
         
         Content content = contentOpt.get();
-        content.setStatus(Content.ReviewStatus.IMAGE_REVIEWING);
-        contentRepository.save(content);
         
         // 检查是否有图片需要识别
         if (StrUtil.isBlank(content.getImageUrl()) && StrUtil.isBlank(content.getVideoUrl())) {
+            if (!contentStateMachine.transition(request.getContentId(), Content.ReviewStage.IMAGE, content.getStatus(),
+                    Content.ReviewStatus.IMAGE_REVIEWING, null)) {
+                return transitionRejected(request.getContentId(), content.getStatus());
+            }
             log.info("无图片/视频内容，跳过图像识别，内容ID: {}", request.getContentId());
             return ImageRecognitionResponse.builder()
                     .contentId(request.getContentId())
@@ -55,14 +65,15 @@ public class ImageRecognitionService {
         }
         
         // 模拟AI图像识别API调用
-        String recognitionResult = simulateImageRecognition(content);
+        String recognitionResult = simulateImageRecognition(content, loadLocalMedia(content));
         
         if (FORBIDDEN_TYPES.contains(recognitionResult)) {
             log.warn("图像识别发现违规内容: {} 在内容ID: {}", recognitionResult, request.getContentId());
             
-            content.setStatus(Content.ReviewStatus.REJECTED);
-            content.setRejectReason("图像包含违规内容: " + recognitionResult);
-            contentRepository.save(content);
+            if (!contentStateMachine.transition(request.getContentId(), Content.ReviewStage.IMAGE, content.getStatus(),
+                    Content.ReviewStatus.REJECTED, "图像包含违规内容: " + recognitionResult)) {
+                return transitionRejected(request.getContentId(), content.getStatus());
+            }
             
             return ImageRecognitionResponse.builder()
                     .contentId(request.getContentId())
@@ -72,6 +83,11 @@ public class ImageRecognitionService {
                     .build();
         }
         
+        if (!contentStateMachine.transition(request.getContentId(), Content.ReviewStage.IMAGE, content.getStatus(),
+                Content.ReviewStatus.IMAGE_REVIEWING, null)) {
+            return transitionRejected(request.getContentId(), content.getStatus());
+        }
+        
         log.info("图像识别通过，内容ID: {}, 识别结果: {}", request.getContentId(), recognitionResult);
         return ImageRecognitionResponse.builder()
                 .contentId(request.getContentId())
@@ -81,9 +97,37 @@ public class ImageRecognitionService {
                 .build();
     }
     
-    private String simulateImageRecognition(Content content) {
+    private ImageRecognitionResponse transitionRejected(Long contentId, Content.ReviewStatus status) {
+        return ImageRecognitionResponse.builder()
+                .contentId(contentId)
+                .passed(false)
+                .reason("内容状态已变更或不允许图像审核，读取时状态: " + status)
+                .build();
+    }
+    
+    /**
+     * 本地 blob 直接映射文件字节交给识别，外部 URL 返回 null，由识别服务自行拉取
+     */
+    private ByteBuffer loadLocalMedia(Content content) {
+        String ref = BlobStore.isBlobRef(content.getImageUrl()) ? content.getImageUrl()
+                : BlobStore.isBlobRef(content.getVideoUrl()) ? content.getVideoUrl() : null;
+        if (ref == null) {
+            return null;
+        }
+        try {
+            return blobStore.map(BlobStore.blobIdOf(ref));
+        } catch (IOException e) {
+            log.warn("读取本地媒体失败: {}", ref, e);
+            return null;
+        }
+    }
+    
+    private String simulateImageRecognition(Content content, ByteBuffer localMedia) {
         // 模拟调用第三方AI图像识别API
         // 这里用随机结果模拟，实际项目中会调用真实的AI服务
+        if (localMedia != null) {
+            log.debug("使用本地媒体字节进行识别，内容ID: {}, 大小: {} 字节", content.getId(), localMedia.remaining());
+        }
         List<String> normalTypes = Arrays.asList(
                 "landscape", "portrait", "food", "animal", "object", "text"
         );
@@ -1,9 +1,10 @@
 package com.xiaofuge.service;
 
 import com.xiaofuge.domain.Content;
-import com.xiaofuge.repository.ContentRepository;
 import com.xiaofuge.service.dto.ManualReviewRequest;
 import com.xiaofuge.service.dto.ManualReviewResponse;
+import com.xiaofuge.functioncalling.AiFunction;
+import com.xiaofuge.functioncalling.AiParam;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,14 +18,16 @@ import java.util.Optional;
 @Slf4j
 public class ManualReviewService {
     
-    private final ContentRepository contentRepository;
+    private final ContentCache contentCache;
+    private final ContentStateMachine contentStateMachine;
     
+    @AiFunction(name = "submit_manual_review", description = "提交内容进行人工审核", conflictKey = "contentId")
     @Transactional
     public ManualReviewResponse submitForManualReview(ManualReviewRequest request) {
         log.info("提交人工审核，内容ID: {}", request.getContentId());
         
-        Optional<Content> contentOpt = contentRepository.findById(request.getContentId());
-        if (contentOpt.isEmpty()) {
+        Optional<Content.ReviewStatus> status = contentCache.findById(request.getContentId()).map(Content::getStatus);
+        if (status.isEmpty()) {
             return ManualReviewResponse.builder()
                     .contentId(request.getContentId())
                     .submitted(false)
@@ -32,9 +35,14 @@ public class ManualReviewService {
                     .build();
         }
         
-        Content content = contentOpt.get();
-        content.setStatus(Content.ReviewStatus.MANUAL_REVIEWING);
-        contentRepository.save(content);
+        if (!contentStateMachine.transition(request.getContentId(), Content.ReviewStage.MANUAL, status.get(),
+                Content.ReviewStatus.MANUAL_REVIEWING, null)) {
+            return ManualReviewResponse.builder()
+                    .contentId(request.getContentId())
+                    .submitted(false)
+                    .reason("当前状态不允许提交人工审核: " + status.get())
+                    .build();
+        }
         
         log.info("内容已提交人工审核队列，内容ID: {}", request.getContentId());
         
@@ -46,12 +54,42 @@ public class ManualReviewService {
                 .build();
     }
     
+    @AiFunction(name = "check_manual_review", description = "检查人工审核结果", conflictKey = "contentId")
     @Transactional
-    public ManualReviewResponse checkManualReviewResult(Long contentId) {
+    public ManualReviewResponse checkManualReviewResult(
+            @AiParam(name = "contentId", description = "内容ID", required = true) Long contentId) {
         log.info("检查人工审核结果，内容ID: {}", contentId);
         
-        Optional<Content> contentOpt = contentRepository.findById(contentId);
-        if (contentOpt.isEmpty()) {
+        // 模拟人工审核结果（80%通过率）
+        boolean passed = RandomUtil.randomInt(100) < 80;
+        
+        boolean transitioned = passed
+                ? contentStateMachine.transition(contentId, Content.ReviewStage.MANUAL, Content.ReviewStatus.MANUAL_REVIEWING,
+                        Content.ReviewStatus.APPROVED, "人工审核通过")
+                : contentStateMachine.transition(contentId, Content.ReviewStage.MANUAL, Content.ReviewStatus.MANUAL_REVIEWING,
+                        Content.ReviewStatus.REJECTED, "人工审核未通过：内容质量不达标");
+        
+        if (!transitioned) {
+            return decidedResult(contentId);
+        }
+        
+        log.info("人工审核{}，内容ID: {}", passed ? "通过" : "未通过", contentId);
+        
+        return ManualReviewResponse.builder()
+                .contentId(contentId)
+                .submitted(true)
+                .passed(passed)
+                .reason(passed ? "人工审核通过" : "人工审核未通过：内容质量不达标")
+                .build();
+    }
+    
+    /**
+     * 人工审核已有结论时重复查询返回同样的结论，不再重新抽样
+     * 文本、图像环节的拒绝不算人工审核结论
+     */
+    private ManualReviewResponse decidedResult(Long contentId) {
+        Optional<Content> content = contentCache.findById(contentId);
+        if (content.isEmpty()) {
             return ManualReviewResponse.builder()
                     .contentId(contentId)
                     .submitted(false)
@@ -59,36 +97,27 @@ public class ManualReviewService {
                     .build();
         }
         
-        Content content = contentOpt.get();
-        
-        if (content.getStatus() != Content.ReviewStatus.MANUAL_REVIEWING) {
+        Content.ReviewStatus status = content.get().getStatus();
+        if (status == Content.ReviewStatus.APPROVED || status == Content.ReviewStatus.PUBLISHED) {
             return ManualReviewResponse.builder()
                     .contentId(contentId)
-                    .submitted(false)
-                    .reason("内容未在人工审核中")
+                    .submitted(true)
+                    .passed(true)
+                    .reason(content.get().getReviewResult())
                     .build();
         }
-        
-        // 模拟人工审核结果（80%通过率）
-        boolean passed = RandomUtil.randomInt(100) < 80;
-        
-        if (passed) {
-            content.setStatus(Content.ReviewStatus.APPROVED);
-            content.setReviewResult("人工审核通过");
-            log.info("人工审核通过，内容ID: {}", contentId);
-        } else {
-            content.setStatus(Content.ReviewStatus.REJECTED);
-            content.setRejectReason("人工审核未通过：内容质量不达标");
-            log.info("人工审核未通过，内容ID: {}", contentId);
+        if (status == Content.ReviewStatus.REJECTED && content.get().getRejectStage() == Content.ReviewStage.MANUAL) {
+            return ManualReviewResponse.builder()
+                    .contentId(contentId)
+                    .submitted(true)
+                    .passed(false)
+                    .reason(content.get().getRejectReason())
+                    .build();
         }
-        
-        contentRepository.save(content);
-        
         return ManualReviewResponse.builder()
                 .contentId(contentId)
-                .submitted(true)
-                .passed(passed)
-                .reason(passed ? "人工审核通过" : "人工审核未通过：内容质量不达标")
+                .submitted(false)
+                .reason("内容未在人工审核中")
                 .build();
     }
-}
\ No newline at end of file
+}
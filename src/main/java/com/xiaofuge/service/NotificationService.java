@@ -2,68 +2,84 @@ package com.xiaofuge.service;
 
 import com.xiaofuge.service.dto.NotificationRequest;
 import com.xiaofuge.service.dto.NotificationResponse;
+import com.xiaofuge.functioncalling.AiFunction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
     
-    public NotificationResponse sendNotification(NotificationRequest request) {
+    /**
+     * 各渠道发送是 I/O，返回的 future 在渠道确认后完成，调用方无需为此占用线程
+     */
+    @AiFunction(name = "send_notification", description = "发送通知给用户",
+            conflictKey = "contentId", readOnly = true)
+    public CompletableFuture<NotificationResponse> sendNotification(NotificationRequest request) {
         log.info("发送通知，内容ID: {}, 类型: {}", request.getContentId(), request.getType());
         
         // 模拟发送不同类型的通知
+        CompletableFuture<Void> sending;
         switch (request.getType()) {
             case "EMAIL":
-                sendEmail(request);
+                sending = sendEmail(request);
                 break;
             case "SMS":
-                sendSms(request);
+                sending = sendSms(request);
                 break;
             case "PUSH":
-                sendPushNotification(request);
+                sending = sendPushNotification(request);
                 break;
             case "WECHAT":
-                sendWeChatMessage(request);
+                sending = sendWeChatMessage(request);
                 break;
             default:
                 log.warn("未知的通知类型: {}", request.getType());
-                return NotificationResponse.builder()
+                return CompletableFuture.completedFuture(NotificationResponse.builder()
                         .contentId(request.getContentId())
                         .sent(false)
                         .reason("未知的通知类型")
-                        .build();
+                        .build());
         }
         
-        log.info("通知发送成功，内容ID: {}", request.getContentId());
-        
-        return NotificationResponse.builder()
-                .contentId(request.getContentId())
-                .sent(true)
-                .reason("通知发送成功")
-                .notificationType(request.getType())
-                .build();
+        return sending.thenApply(ignored -> {
+            log.info("通知发送成功，内容ID: {}", request.getContentId());
+            return NotificationResponse.builder()
+                    .contentId(request.getContentId())
+                    .sent(true)
+                    .reason("通知发送成功")
+                    .notificationType(request.getType())
+                    .build();
+        });
     }
     
-    private void sendEmail(NotificationRequest request) {
+    // 以下渠道集成异步客户端后直接返回其 future
+    
+    private CompletableFuture<Void> sendEmail(NotificationRequest request) {
         log.info("发送邮件通知: {}", request.getMessage());
         // 集成邮件服务
+        return CompletableFuture.completedFuture(null);
     }
     
-    private void sendSms(NotificationRequest request) {
+    private CompletableFuture<Void> sendSms(NotificationRequest request) {
         log.info("发送短信通知: {}", request.getMessage());
         // 集成短信服务
+        return CompletableFuture.completedFuture(null);
     }
     
-    private void sendPushNotification(NotificationRequest request) {
+    private CompletableFuture<Void> sendPushNotification(NotificationRequest request) {
         log.info("发送推送通知: {}", request.getMessage());
         // 集成推送服务
+        return CompletableFuture.completedFuture(null);
     }
     
-    private void sendWeChatMessage(NotificationRequest request) {
+    private CompletableFuture<Void> sendWeChatMessage(NotificationRequest request) {
         log.info("发送微信通知: {}", request.getMessage());
         // 集成微信服务
+        return CompletableFuture.completedFuture(null);
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.xiaofuge.service;
 
 import com.xiaofuge.domain.Content;
-import com.xiaofuge.repository.ContentRepository;
+import com.xiaofuge.repository.ContentBodyRepository;
 import com.xiaofuge.service.dto.SensitiveWordCheckRequest;
 import com.xiaofuge.service.dto.SensitiveWordCheckResponse;
+import com.xiaofuge.functioncalling.AiFunction;
+import com.xiaofuge.functioncalling.AiResilience;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,7 +22,9 @@ import java.util.Optional;
 @Slf4j
 public class SensitiveWordService {
     
-    private final ContentRepository contentRepository;
+    private final ContentCache contentCache;
+    private final ContentBodyRepository contentBodyRepository;
+    private final ContentStateMachine contentStateMachine;
     
     @Value("${content.review.sensitive-words:违法,暴力,色情}")
     private String sensitiveWordsStr;
@@ -29,11 +33,13 @@ public class SensitiveWordService {
         return Arrays.asList(sensitiveWordsStr.split(","));
     }
     
+    @AiFunction(name = "check_sensitive_words", description = "检查内容中的敏感词", conflictKey = "contentId")
+    @AiResilience(timeoutMillis = 2000, maxConcurrent = 16, maxQueue = 32)
     @Transactional
     public SensitiveWordCheckResponse checkSensitiveWords(SensitiveWordCheckRequest request) {
         log.info("开始敏感词检测，内容ID: {}", request.getContentId());
         
-        Optional<Content> contentOpt = contentRepository.findById(request.getContentId());
+        Optional<Content> contentOpt = contentCache.findById(request.getContentId());
         if (contentOpt.isEmpty()) {
             return SensitiveWordCheckResponse.builder()
                     .contentId(request.getContentId())
@@ -43,9 +49,6 @@ public class SensitiveWordService {
         }
         
         Content content = contentOpt.get();
-        content.setStatus(Content.ReviewStatus.TEXT_REVIEWING);
-        contentRepository.save(content);
-        
         String textToCheck = buildTextToCheck(content);
         
         // 模拟敏感词检测逻辑
@@ -53,9 +56,10 @@ public class SensitiveWordService {
             if (textToCheck.contains(sensitiveWord)) {
                 log.warn("发现敏感词: {} 在内容ID: {}", sensitiveWord, request.getContentId());
                 
-                content.setStatus(Content.ReviewStatus.REJECTED);
-                content.setRejectReason("包含敏感词: " + sensitiveWord);
-                contentRepository.save(content);
+                if (!contentStateMachine.transition(request.getContentId(), Content.ReviewStage.TEXT, content.getStatus(),
+                        Content.ReviewStatus.REJECTED, "包含敏感词: " + sensitiveWord)) {
+                    return transitionRejected(request.getContentId(), content.getStatus());
+                }
                 
                 return SensitiveWordCheckResponse.builder()
                         .contentId(request.getContentId())
@@ -65,6 +69,11 @@ public class SensitiveWordService {
             }
         }
         
+        if (!contentStateMachine.transition(request.getContentId(), Content.ReviewStage.TEXT, content.getStatus(),
+                Content.ReviewStatus.TEXT_REVIEWING, null)) {
+            return transitionRejected(request.getContentId(), content.getStatus());
+        }
+        
         log.info("敏感词检测通过，内容ID: {}", request.getContentId());
         return SensitiveWordCheckResponse.builder()
                 .contentId(request.getContentId())
@@ -73,14 +82,23 @@ public class SensitiveWordService {
                 .build();
     }
     
+    private SensitiveWordCheckResponse transitionRejected(Long contentId, Content.ReviewStatus status) {
+        return SensitiveWordCheckResponse.builder()
+                .contentId(contentId)
+                .passed(false)
+                .reason("内容状态已变更或不允许文本审核，读取时状态: " + status)
+                .build();
+    }
+    
     private String buildTextToCheck(Content content) {
         StringBuilder sb = new StringBuilder();
         if (StrUtil.isNotBlank(content.getTitle())) {
             sb.append(content.getTitle()).append(" ");
         }
-        if (StrUtil.isNotBlank(content.getTextContent())) {
-            sb.append(content.getTextContent());
-        }
+        // 仅文本检测需要正文，按需从 content_body 读取
+        contentBodyRepository.findTextContentByContentId(content.getId())
+                .filter(StrUtil::isNotBlank)
+                .ifPresent(sb::append);
         return sb.toString();
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.xiaofuge.service.dto;
 
+import com.xiaofuge.functioncalling.AiParam;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -10,5 +11,6 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ContentPublishRequest {
+    @AiParam(description = "内容ID", required = true)
     private Long contentId;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.xiaofuge.service.dto;
 
+import com.xiaofuge.functioncalling.AiParam;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -10,9 +11,19 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ContentUploadRequest {
+    @AiParam(description = "内容标题", required = true)
     private String title;
+    @AiParam(description = "文本内容")
     private String textContent;
+    @AiParam(description = "图片URL")
     private String imageUrl;
+    @AiParam(description = "视频URL")
     private String videoUrl;
+    // 通过 /api/media 上传得到的本地 blob ID，优先于对应的 URL
+    @AiParam(description = "已上传图片的本地blob ID")
+    private String imageBlobId;
+    @AiParam(description = "已上传视频的本地blob ID")
+    private String videoBlobId;
+    @AiParam(description = "作者ID", required = true)
     private String authorId;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.xiaofuge.service.dto;
 
+import com.xiaofuge.functioncalling.AiParam;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -10,6 +11,8 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ManualReviewRequest {
+    @AiParam(description = "内容ID", required = true)
     private Long contentId;
+    @AiParam(description = "审核原因")
     private String reviewReason;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.xiaofuge.service.dto;
 
+import com.xiaofuge.functioncalling.AiParam;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -10,8 +11,12 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class NotificationRequest {
+    @AiParam(description = "内容ID", required = true)
     private Long contentId;
-    private String type; // EMAIL, SMS, PUSH, WECHAT
+    @AiParam(description = "通知类型", required = true, allowableValues = {"EMAIL", "SMS", "PUSH", "WECHAT"})
+    private String type;
+    @AiParam(description = "接收者", required = true)
     private String recipient;
+    @AiParam(description = "通知消息", required = true)
     private String message;
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.xiaofuge.stats;
+
+import com.xiaofuge.domain.Content.ContentType;
+import com.xiaofuge.domain.Content.ReviewStage;
+import com.xiaofuge.domain.Content.ReviewStatus;
+import com.xiaofuge.domain.event.ContentStatusChangedEvent;
+import com.xiaofuge.domain.event.ContentUploadedEvent;
+import com.xiaofuge.repository.ContentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 增量维护的审核统计，取代对 content 表的 COUNT(*) 查询
+ * 计数随上传/状态流转事件更新，启动时与数据库校准一次
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewStatistics {
+
+    private static final long BUCKET_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final int BUCKET_COUNT = 300;
+    private static final long[] RATE_WINDOWS = {TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(5)};
+    private static final int TOP_AUTHORS = 20;
+
+    // 流转到这些状态视为本阶段通过
+    private static final Set<ReviewStatus> PASS_STATUSES = EnumSet.of(
+            ReviewStatus.TEXT_REVIEWING, ReviewStatus.IMAGE_REVIEWING, ReviewStatus.APPROVED, ReviewStatus.PUBLISHED);
+
+    private final ContentRepository contentRepository;
+
+    private final Map<ReviewStatus, LongAdder> byStatus = newCounters(ReviewStatus.class);
+    private final Map<ContentType, LongAdder> byType = newCounters(ContentType.class);
+    private final Map<String, LongAdder> byAuthor = new ConcurrentHashMap<>();
+    private final Map<ReviewStage, LongAdder> passedByStage = newCounters(ReviewStage.class);
+    private final Map<ReviewStage, LongAdder> rejectedByStage = newCounters(ReviewStage.class);
+    private final Map<ReviewStage, RollingWindowCounter> passedWindow = newWindows();
+    private final Map<ReviewStage, RollingWindowCounter> rejectedWindow = newWindows();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUploaded(ContentUploadedEvent event) {
+        byStatus.get(ReviewStatus.PENDING).increment();
+        if (event.getType() != null) {
+            byType.get(event.getType()).increment();
+        }
+        if (event.getAuthorId() != null) {
+            byAuthor.computeIfAbsent(event.getAuthorId(), k -> new LongAdder()).increment();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(ContentStatusChangedEvent event) {
+        if (event.getFromStatus() != null) {
+            byStatus.get(event.getFromStatus()).decrement();
+        } else {
+            log.debug("流转来源状态未知，状态计数将在下次校准时修正，内容ID: {}", event.getContentId());
+        }
+        byStatus.get(event.getToStatus()).increment();
+
+        ReviewStage stage = event.getStage();
+        if (stage == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (event.getToStatus() == ReviewStatus.REJECTED) {
+            rejectedByStage.get(stage).increment();
+            rejectedWindow.get(stage).increment(now);
+        } else if (PASS_STATUSES.contains(event.getToStatus())) {
+            passedByStage.get(stage).increment();
+            passedWindow.get(stage).increment(now);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        Map<ReviewStatus, Long> statusCounts = toCounts(contentRepository.countGroupByStatus());
+        Map<ContentType, Long> typeCounts = toCounts(contentRepository.countGroupByType());
+        Map<String, Long> authorCounts = toCounts(contentRepository.countGroupByAuthor());
+
+        byStatus.forEach((status, adder) -> reset(adder, statusCounts.getOrDefault(status, 0L)));
+        byType.forEach((type, adder) -> reset(adder, typeCounts.getOrDefault(type, 0L)));
+        byAuthor.clear();
+        authorCounts.forEach((author, count) -> {
+            LongAdder adder = new LongAdder();
+            adder.add(count);
+            byAuthor.put(author, adder);
+        });
+        log.info("审核统计已与数据库校准，作者数: {}, 耗时: {}ms", authorCounts.size(), System.currentTimeMillis() - start);
+    }
+
+    public long countByStatus(ReviewStatus status) {
+        return byStatus.get(status).sum();
+    }
+
+    public long countByType(ContentType type) {
+        return byType.get(type).sum();
+    }
+
+    public long countByAuthor(String authorId) {
+        LongAdder adder = byAuthor.get(authorId);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    public Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (ReviewStage stage : ReviewStage.values()) {
+            Map<String, Object> stageStats = new LinkedHashMap<>();
+            long passed = passedByStage.get(stage).sum();
+            long rejected = rejectedByStage.get(stage).sum();
+            stageStats.put("passed", passed);
+            stageStats.put("rejected", rejected);
+            stageStats.put("passRate", rate(passed, rejected));
+            for (long window : RATE_WINDOWS) {
+                long windowPassed = passedWindow.get(stage).sum(now, window);
+                long windowRejected = rejectedWindow.get(stage).sum(now, window);
+                stageStats.put("passRate" + TimeUnit.MILLISECONDS.toMinutes(window) + "m",
+                        rate(windowPassed, windowRejected));
+                stageStats.put("throughput" + TimeUnit.MILLISECONDS.toMinutes(window) + "m",
+                        windowPassed + windowRejected);
+            }
+            stages.put(stage.name(), stageStats);
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("byStatus", sums(byStatus));
+        snapshot.put("byType", sums(byType));
+        snapshot.put("authorCount", byAuthor.size());
+        snapshot.put("topAuthors", topAuthors());
+        snapshot.put("stages", stages);
+        return snapshot;
+    }
+
+    private Map<String, Long> topAuthors() {
+        return byAuthor.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_AUTHORS)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static double rate(long passed, long rejected) {
+        long total = passed + rejected;
+        return total == 0 ? 0.0 : (double) passed / total;
+    }
+
+    private static <K extends Enum<K>> Map<String, Long> sums(Map<K, LongAdder> counters) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counters.forEach((key, adder) -> result.put(key.name(), adder.sum()));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, Long> toCounts(List<Object[]> rows) {
+        Map<K, Long> counts = new ConcurrentHashMap<>();
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.put((K) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        return counts;
+    }
+
+    private static void reset(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+
+    // 枚举维度的计数器在构造时全部创建，之后只读，无需并发容器
+    private static <K extends Enum<K>> Map<K, LongAdder> newCounters(Class<K> type) {
+        Map<K, LongAdder> counters = new EnumMap<>(type);
+        for (K key : type.getEnumConstants()) {
+            counters.put(key, new LongAdder());
+        }
+        return Collections.unmodifiableMap(counters);
+    }
+
+    private static Map<ReviewStage, RollingWindowCounter> newWindows() {
+        Map<ReviewStage, RollingWindowCounter> windows = new EnumMap<>(ReviewStage.class);
+        for (ReviewStage stage : ReviewStage.values()) {
+            windows.put(stage, new RollingWindowCounter(BUCKET_MILLIS, BUCKET_COUNT));
+        }
+        return Collections.unmodifiableMap(windows);
+    }
+}
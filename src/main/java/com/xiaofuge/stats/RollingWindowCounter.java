@@ -0,0 +1,59 @@
+package com.xiaofuge.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 基于环形数组的滑动时间窗口计数器
+ * 每个槽位把 桶编号(高 40 位) 与 计数(低 24 位) 打包进一个 long，单次 CAS 完成过期重置与累加
+ */
+public class RollingWindowCounter {
+    
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final AtomicLongArray slots;
+    
+    public RollingWindowCounter(long bucketMillis, int bucketCount) {
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.slots = new AtomicLongArray(bucketCount);
+    }
+    
+    public void increment(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        int index = (int) (bucket % bucketCount);
+        while (true) {
+            long current = slots.get(index);
+            long next = (current >>> COUNT_BITS) == bucket
+                    ? Math.min(current + 1, (bucket << COUNT_BITS) | COUNT_MASK)
+                    : (bucket << COUNT_BITS) | 1;
+            if (slots.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 统计最近 windowMillis 内（含当前桶）的计数，窗口不超过环形数组覆盖的范围
+     */
+    public long sum(long nowMillis, long windowMillis) {
+        long latest = nowMillis / bucketMillis;
+        long buckets = Math.min(bucketCount, Math.max(1, windowMillis / bucketMillis));
+        long oldest = latest - buckets + 1;
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long value = slots.get(i);
+            long bucket = value >>> COUNT_BITS;
+            if (bucket >= oldest && bucket <= latest) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+    
+    public long getWindowMillis() {
+        return bucketMillis * bucketCount;
+    }
+}
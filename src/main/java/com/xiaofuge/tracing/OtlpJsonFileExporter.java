@@ -0,0 +1,177 @@
+package com.xiaofuge.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 把完成的 trace 以 OTLP/JSON 写入本地文件，每行一个 ExportTraceServiceRequest，
+ * 与 OpenTelemetry Collector 的 file exporter/receiver 格式一致，可直接导入 Jaeger 等后端
+ * 由单独的写线程按批写入，队列满时丢弃，不阻塞请求线程
+ */
+@Component
+@Slf4j
+public class OtlpJsonFileExporter {
+    
+    private static final String SCOPE_NAME = "com.xiaofuge.tracing";
+    
+    @Value("${tracing.otlp.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${tracing.otlp.dir:./data/traces}")
+    private String directory;
+    
+    @Value("${tracing.service-name:content-review}")
+    private String serviceName;
+    
+    @Value("${tracing.otlp.queue-capacity:1024}")
+    private int queueCapacity;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    
+    private Path root;
+    private BlockingQueue<List<Span>> queue;
+    private Thread writer;
+    private volatile boolean running;
+    
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            log.info("OTLP 文件导出未启用");
+            return;
+        }
+        root = Paths.get(directory).toAbsolutePath();
+        Files.createDirectories(root);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::runWriter, "trace-file-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("OTLP 文件导出目录: {}", root);
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        log.info("OTLP 文件导出已关闭，累计写入: {}, 丢弃: {}", written.sum(), dropped.sum());
+    }
+    
+    public void submit(List<Span> trace) {
+        if (queue != null && !queue.offer(trace)) {
+            dropped.increment();
+        }
+    }
+    
+    public long getWrittenCount() {
+        return written.sum();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    private void runWriter() {
+        List<List<Span>> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                List<Span> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                Path file = root.resolve("traces-" + LocalDate.now() + ".jsonl");
+                try (OutputStream output = Files.newOutputStream(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (List<Span> trace : batch) {
+                        output.write(objectMapper.writeValueAsBytes(toOtlp(trace)));
+                        output.write('\n');
+                    }
+                }
+                written.add(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("写入 trace 文件失败，本批 {} 条", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    Map<String, Object> toOtlp(List<Span> trace) {
+        List<Map<String, Object>> spans = new ArrayList<>(trace.size());
+        for (Span span : trace) {
+            Map<String, Object> otlpSpan = new LinkedHashMap<>();
+            otlpSpan.put("traceId", span.getTraceId());
+            otlpSpan.put("spanId", span.getSpanId());
+            if (span.getParentSpanId() != null) {
+                otlpSpan.put("parentSpanId", span.getParentSpanId());
+            }
+            otlpSpan.put("name", span.getName());
+            otlpSpan.put("kind", span.getKind().getOtlpCode());
+            // OTLP/JSON 中 64 位整数按字符串编码
+            otlpSpan.put("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+            otlpSpan.put("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+            otlpSpan.put("attributes", attributes(span.getAttributes()));
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("code", span.getStatus().ordinal());
+            if (span.getStatusMessage() != null) {
+                status.put("message", span.getStatusMessage());
+            }
+            otlpSpan.put("status", status);
+            spans.add(otlpSpan);
+        }
+        
+        return Map.of("resourceSpans", List.of(Map.of(
+                "resource", Map.of("attributes", attributes(Map.of("service.name", serviceName))),
+                "scopeSpans", List.of(Map.of(
+                        "scope", Map.of("name", SCOPE_NAME),
+                        "spans", spans)))));
+    }
+    
+    private static List<Map<String, Object>> attributes(Map<String, Object> values) {
+        List<Map<String, Object>> attributes = new ArrayList<>(values.size());
+        values.forEach((key, value) -> attributes.add(Map.of("key", key, "value", anyValue(value))));
+        return attributes;
+    }
+    
+    private static Map<String, Object> anyValue(Object value) {
+        if (value instanceof Boolean) {
+            return Map.of("boolValue", value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return Map.of("intValue", value.toString());
+        }
+        if (value instanceof Number number) {
+            return Map.of("doubleValue", number.doubleValue());
+        }
+        return Map.of("stringValue", String.valueOf(value));
+    }
+}
@@ -0,0 +1,10 @@
+package com.xiaofuge.tracing;
+
+/**
+ * 当前 span 的作用域，关闭时恢复之前的 span；必须在打开它的线程上关闭
+ */
+public interface Scope extends AutoCloseable {
+    
+    @Override
+    void close();
+}
@@ -0,0 +1,136 @@
+package com.xiaofuge.tracing;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一段计时的操作，属于某条 trace；由 Tracer 创建，end 之后不再修改
+ */
+public final class Span {
+    
+    public enum Status {
+        UNSET, OK, ERROR
+    }
+    
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final SpanKind kind;
+    private final long startEpochNanos;
+    private final long startNanoTime;
+    private final Map<String, Object> attributes = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicBoolean ended = new AtomicBoolean();
+    
+    private volatile long endEpochNanos;
+    private volatile Status status = Status.UNSET;
+    private volatile String statusMessage;
+    
+    Span(String traceId, String spanId, String parentSpanId, String name, SpanKind kind) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        Instant now = Instant.now();
+        this.startEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.startNanoTime = System.nanoTime();
+    }
+    
+    /**
+     * 值为 null 时忽略
+     */
+    public Span setAttribute(String key, Object value) {
+        if (value != null && !ended.get()) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+    
+    public Span setStatus(Status status, String message) {
+        this.status = status;
+        this.statusMessage = message;
+        return this;
+    }
+    
+    public Span recordException(Throwable error) {
+        setAttribute("exception.type", error.getClass().getName());
+        setAttribute("exception.message", error.getMessage());
+        return setStatus(Status.ERROR, error.getMessage());
+    }
+    
+    /**
+     * 结束计时并交给导出器，只有第一次调用生效
+     */
+    public void end() {
+        if (!ended.compareAndSet(false, true)) {
+            return;
+        }
+        endEpochNanos = startEpochNanos + (System.nanoTime() - startNanoTime);
+        Tracer.finish(this);
+    }
+    
+    /**
+     * 设为当前线程的当前 span，之后创建的 span 以它为父
+     */
+    public Scope makeCurrent() {
+        return Tracer.activate(this);
+    }
+    
+    public boolean isRoot() {
+        return parentSpanId == null;
+    }
+    
+    public boolean isEnded() {
+        return ended.get();
+    }
+    
+    public String getTraceId() {
+        return traceId;
+    }
+    
+    public String getSpanId() {
+        return spanId;
+    }
+    
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public SpanKind getKind() {
+        return kind;
+    }
+    
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+    
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+    
+    public long getDurationNanos() {
+        return endEpochNanos - startEpochNanos;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public String getStatusMessage() {
+        return statusMessage;
+    }
+    
+    public Map<String, Object> getAttributes() {
+        synchronized (attributes) {
+            return new LinkedHashMap<>(attributes);
+        }
+    }
+}
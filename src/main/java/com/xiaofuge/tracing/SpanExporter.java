@@ -0,0 +1,9 @@
+package com.xiaofuge.tracing;
+
+/**
+ * 接收已结束的 span，在结束 span 的线程上同步调用，实现不得阻塞
+ */
+@FunctionalInterface
+public interface SpanExporter {
+    void export(Span span);
+}
@@ -0,0 +1,20 @@
+package com.xiaofuge.tracing;
+
+/**
+ * 与 OTLP 的 SpanKind 编号一致
+ */
+public enum SpanKind {
+    INTERNAL(1),
+    SERVER(2),
+    CLIENT(3);
+    
+    private final int otlpCode;
+    
+    SpanKind(int otlpCode) {
+        this.otlpCode = otlpCode;
+    }
+    
+    public int getOtlpCode() {
+        return otlpCode;
+    }
+}
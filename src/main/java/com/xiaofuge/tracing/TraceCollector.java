@@ -0,0 +1,116 @@
+package com.xiaofuge.tracing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 traceId 归集 span，根 span 结束时整条 trace 完成：放入最近 trace 环形缓冲区并交给文件导出
+ * 根 span 结束后才结束的 span（如超时后仍在运行的任务）不再归入该 trace，只计数
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TraceCollector implements SpanExporter {
+    
+    private final OtlpJsonFileExporter fileExporter;
+    
+    @Value("${tracing.recent.capacity:200}")
+    private int capacity;
+    
+    @Value("${tracing.pending-timeout:5m}")
+    private Duration pendingTimeout;
+    
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder orphaned = new LongAdder();
+    private AtomicReferenceArray<List<Span>> recent;
+    // 根 span 尚未结束的 trace，超时未完成的直接丢弃，避免泄漏
+    private Cache<String, List<Span>> pending;
+    // 最近完成的 traceId，用于识别迟到的 span
+    private Cache<String, Boolean> completed;
+    
+    @PostConstruct
+    void start() {
+        recent = new AtomicReferenceArray<>(capacity);
+        pending = Caffeine.newBuilder()
+                .expireAfterWrite(pendingTimeout)
+                .maximumSize(capacity * 10L)
+                .build();
+        completed = Caffeine.newBuilder()
+                .expireAfterWrite(pendingTimeout)
+                .maximumSize(capacity * 10L)
+                .build();
+        Tracer.addExporter(this);
+    }
+    
+    @PreDestroy
+    void stop() {
+        Tracer.removeExporter(this);
+    }
+    
+    @Override
+    public void export(Span span) {
+        if (!span.isRoot()) {
+            if (completed.getIfPresent(span.getTraceId()) != null) {
+                orphaned.increment();
+                return;
+            }
+            List<Span> spans = pending.asMap().computeIfAbsent(span.getTraceId(), k -> new ArrayList<>());
+            synchronized (spans) {
+                spans.add(span);
+            }
+            return;
+        }
+        
+        completed.put(span.getTraceId(), Boolean.TRUE);
+        List<Span> spans = pending.asMap().remove(span.getTraceId());
+        List<Span> trace = new ArrayList<>();
+        if (spans != null) {
+            synchronized (spans) {
+                trace.addAll(spans);
+            }
+        }
+        trace.add(span);
+        trace.sort(Comparator.comparingLong(Span::getStartEpochNanos));
+        
+        List<Span> completedTrace = List.copyOf(trace);
+        recent.set((int) (sequence.getAndIncrement() % capacity), completedTrace);
+        fileExporter.submit(completedTrace);
+    }
+    
+    /**
+     * 最近完成的 trace，最新的在前；每条 trace 内按开始时间排序
+     */
+    public List<List<Span>> recent(int limit) {
+        long end = sequence.get();
+        int count = (int) Math.min(Math.min(limit, capacity), end);
+        List<List<Span>> traces = new ArrayList<>(count);
+        for (long i = end - 1; i >= end - count; i--) {
+            List<Span> trace = recent.get((int) (i % capacity));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+    
+    /**
+     * 根 span 结束后才到达、无法归入 trace 的 span 数
+     */
+    public long getOrphanedCount() {
+        return orphaned.sum();
+    }
+}
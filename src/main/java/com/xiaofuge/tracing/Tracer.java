@@ -0,0 +1,155 @@
+package com.xiaofuge.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 轻量级链路追踪入口
+ * 当前 span 存放在线程本地变量中；跨线程时用 wrap 系列方法包装任务或执行器，在执行线程上恢复提交时的 span。
+ * 结束的 span 同步交给已注册的导出器，没有导出器时只有创建对象的开销
+ */
+@Slf4j
+public final class Tracer {
+    
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+    private static final List<SpanExporter> EXPORTERS = new CopyOnWriteArrayList<>();
+    private static final Scope NOOP_SCOPE = () -> { };
+    
+    private Tracer() {
+    }
+    
+    public static Span startSpan(String name) {
+        return startSpan(name, SpanKind.INTERNAL);
+    }
+    
+    /**
+     * 以当前 span 为父创建 span；没有当前 span 时开始一条新 trace
+     */
+    public static Span startSpan(String name, SpanKind kind) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return new Span(randomHex(2), randomHex(1), null, name, kind);
+        }
+        return new Span(parent.getTraceId(), randomHex(1), parent.getSpanId(), name, kind);
+    }
+    
+    public static Span current() {
+        return CURRENT.get();
+    }
+    
+    public static String currentTraceId() {
+        Span span = CURRENT.get();
+        return span != null ? span.getTraceId() : null;
+    }
+    
+    static Scope activate(Span span) {
+        Span previous = CURRENT.get();
+        if (previous == span) {
+            return NOOP_SCOPE;
+        }
+        CURRENT.set(span);
+        return () -> restore(previous);
+    }
+    
+    public static void addExporter(SpanExporter exporter) {
+        EXPORTERS.add(exporter);
+    }
+    
+    public static void removeExporter(SpanExporter exporter) {
+        EXPORTERS.remove(exporter);
+    }
+    
+    static void finish(Span span) {
+        for (SpanExporter exporter : EXPORTERS) {
+            try {
+                exporter.export(span);
+            } catch (RuntimeException e) {
+                log.warn("导出 span 失败: {}", span.getName(), e);
+            }
+        }
+    }
+    
+    public static Runnable wrap(Runnable task) {
+        Span span = CURRENT.get();
+        if (span == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = activate(span)) {
+                task.run();
+            }
+        };
+    }
+    
+    public static <T> Callable<T> wrapCallable(Callable<T> task) {
+        Span span = CURRENT.get();
+        if (span == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = activate(span)) {
+                return task.call();
+            }
+        };
+    }
+    
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> task) {
+        Span span = CURRENT.get();
+        if (span == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = activate(span)) {
+                return task.get();
+            }
+        };
+    }
+    
+    public static <T, R> Function<T, R> wrapFunction(Function<T, R> task) {
+        Span span = CURRENT.get();
+        if (span == null) {
+            return task;
+        }
+        return value -> {
+            try (Scope ignored = activate(span)) {
+                return task.apply(value);
+            }
+        };
+    }
+    
+    /**
+     * 包装执行器：任务在提交时捕获当前 span，在执行线程上恢复
+     */
+    public static Executor wrapExecutor(Executor executor) {
+        return command -> executor.execute(wrap(command));
+    }
+    
+    private static void restore(Span previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+    
+    private static String randomHex(int longs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder hex = new StringBuilder(longs * 16);
+        for (int i = 0; i < longs; i++) {
+            long value;
+            do {
+                value = random.nextLong();
+            } while (value == 0);
+            String part = Long.toHexString(value);
+            hex.append("0".repeat(16 - part.length())).append(part);
+        }
+        return hex.toString();
+    }
+}
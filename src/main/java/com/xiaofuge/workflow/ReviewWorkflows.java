@@ -0,0 +1,109 @@
+package com.xiaofuge.workflow;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标准审核发布流程：上传 → 敏感词检测 → 图像识别 → 人工审核 → 发布 → 通知
+ * 工作流输入即 upload_content 的参数
+ */
+public final class ReviewWorkflows {
+    
+    public static final String UPLOAD = "upload";
+    public static final String TEXT_CHECK = "text_check";
+    public static final String IMAGE_CHECK = "image_check";
+    public static final String MANUAL_SUBMIT = "manual_submit";
+    public static final String MANUAL_CHECK = "manual_check";
+    public static final String PUBLISH = "publish";
+    public static final String NOTIFY = "notify";
+    
+    private static final String NOTIFICATION_TYPE = "PUSH";
+    
+    /**
+     * 文本、图像与复杂内容共用一张图：无媒体时跳过图像识别；
+     * 图像违规不终止流程而是转入人工复审；状态机只允许从人工审核通过进入 APPROVED，因此发布前总要经过人工审核
+     */
+    public static final WorkflowDefinition STANDARD_REVIEW = WorkflowDefinition.of("standard_review", List.of(
+            WorkflowStep.builder()
+                    .id(UPLOAD)
+                    .function("upload_content")
+                    .arguments(WorkflowContext::getInput)
+                    .build(),
+            WorkflowStep.builder()
+                    .id(TEXT_CHECK)
+                    .function("check_sensitive_words")
+                    .arguments(ReviewWorkflows::contentIdOf)
+                    .dependsOn(List.of(UPLOAD))
+                    .passedField("passed")
+                    .build(),
+            WorkflowStep.builder()
+                    .id(IMAGE_CHECK)
+                    .function("recognize_image")
+                    .arguments(ReviewWorkflows::contentIdOf)
+                    .dependsOn(List.of(TEXT_CHECK))
+                    .when(ctx -> hasMedia(ctx.getInput()))
+                    .passedField("passed")
+                    .continueOnFailure(true)
+                    .build(),
+            WorkflowStep.builder()
+                    .id(MANUAL_SUBMIT)
+                    .function("submit_manual_review")
+                    .arguments(ReviewWorkflows::manualReviewArguments)
+                    .dependsOn(List.of(IMAGE_CHECK))
+                    .passedField("submitted")
+                    .build(),
+            WorkflowStep.builder()
+                    .id(MANUAL_CHECK)
+                    .function("check_manual_review")
+                    .arguments(ReviewWorkflows::contentIdOf)
+                    .dependsOn(List.of(MANUAL_SUBMIT))
+                    .passedField("passed")
+                    .build(),
+            WorkflowStep.builder()
+                    .id(PUBLISH)
+                    .function("publish_content")
+                    .arguments(ReviewWorkflows::contentIdOf)
+                    .dependsOn(List.of(MANUAL_CHECK))
+                    .passedField("published")
+                    .build(),
+            WorkflowStep.builder()
+                    .id(NOTIFY)
+                    .function("send_notification")
+                    .arguments(ctx -> Map.of(
+                            "contentId", ctx.value(UPLOAD, "contentId"),
+                            "type", NOTIFICATION_TYPE,
+                            "recipient", ctx.input("authorId"),
+                            "message", "您的内容《" + ctx.input("title") + "》已发布: " + ctx.value(PUBLISH, "publishUrl")))
+                    .dependsOn(List.of(PUBLISH))
+                    .passedField("sent")
+                    .build()
+    ));
+    
+    private ReviewWorkflows() {
+    }
+    
+    private static Map<String, Object> contentIdOf(WorkflowContext ctx) {
+        return Map.of("contentId", ctx.value(UPLOAD, "contentId"));
+    }
+    
+    // 图像违规转入复审时带上识别结论，供审核员参考
+    private static Map<String, Object> manualReviewArguments(WorkflowContext ctx) {
+        StepResult image = ctx.result(IMAGE_CHECK);
+        if (image.getStatus() != StepResult.Status.FAILED) {
+            return contentIdOf(ctx);
+        }
+        return Map.of("contentId", ctx.value(UPLOAD, "contentId"),
+                "reviewReason", "图像识别未通过，转人工复审: " + image.getReason());
+    }
+    
+    private static boolean hasMedia(Map<String, Object> input) {
+        return isPresent(input.get("imageUrl")) || isPresent(input.get("videoUrl"))
+                || isPresent(input.get("imageBlobId")) || isPresent(input.get("videoBlobId"));
+    }
+    
+    private static boolean isPresent(Object value) {
+        return value != null && StrUtil.isNotBlank(value.toString());
+    }
+}
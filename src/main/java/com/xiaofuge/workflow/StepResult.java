@@ -0,0 +1,40 @@
+package com.xiaofuge.workflow;
+
+import com.xiaofuge.functioncalling.FunctionResult;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StepResult {
+    
+    public enum Status {
+        PASSED,
+        FAILED,
+        // 分支条件不满足，未执行
+        SKIPPED,
+        // 前序节点未通过，未执行
+        ABORTED
+    }
+    
+    private String stepId;
+    private String function;
+    private Status status;
+    private FunctionResult functionResult;
+    private String reason;
+    private long elapsedMillis;
+    // 未通过但节点允许继续时为 true，不阻塞后续节点
+    private boolean tolerated;
+    
+    public boolean isPassed() {
+        return status == Status.PASSED;
+    }
+    
+    public boolean blocksDependents() {
+        return status == Status.ABORTED || (status == Status.FAILED && !tolerated);
+    }
+}
@@ -0,0 +1,64 @@
+package com.xiaofuge.workflow;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一次工作流执行的输入与各节点结果，供参数构造和分支条件读取
+ */
+public class WorkflowContext {
+    
+    private final Map<String, Object> input;
+    private final Map<String, StepResult> results = new ConcurrentHashMap<>();
+    
+    WorkflowContext(Map<String, Object> input) {
+        this.input = Collections.unmodifiableMap(input);
+    }
+    
+    public Map<String, Object> getInput() {
+        return input;
+    }
+    
+    public Object input(String name) {
+        return input.get(name);
+    }
+    
+    public StepResult result(String stepId) {
+        return results.get(stepId);
+    }
+    
+    public boolean passed(String stepId) {
+        StepResult result = results.get(stepId);
+        return result != null && result.isPassed();
+    }
+    
+    /**
+     * 读取节点函数返回值中的字段，节点未执行或字段不存在时返回 null
+     */
+    public Object value(String stepId, String field) {
+        StepResult result = results.get(stepId);
+        if (result == null || result.getFunctionResult() == null) {
+            return null;
+        }
+        return fieldOf(result.getFunctionResult().getResult(), field);
+    }
+    
+    void record(StepResult result) {
+        results.put(result.getStepId(), result);
+    }
+    
+    static Object fieldOf(Object target, String field) {
+        if (target == null) {
+            return null;
+        }
+        if (target instanceof Map<?, ?> map) {
+            return map.get(field);
+        }
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(target);
+        return wrapper.isReadableProperty(field) ? wrapper.getPropertyValue(field) : null;
+    }
+}
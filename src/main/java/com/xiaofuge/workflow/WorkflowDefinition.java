@@ -0,0 +1,41 @@
+package com.xiaofuge.workflow;
+
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 声明式工作流：节点只能依赖排在其前面的节点，定义本身即为拓扑序，不会出现环
+ */
+@Getter
+public class WorkflowDefinition {
+    
+    private final String name;
+    private final List<WorkflowStep> steps;
+    
+    private WorkflowDefinition(String name, List<WorkflowStep> steps) {
+        this.name = name;
+        this.steps = steps;
+    }
+    
+    public static WorkflowDefinition of(String name, List<WorkflowStep> steps) {
+        Set<String> declared = new HashSet<>();
+        for (WorkflowStep step : steps) {
+            if (step.getId() == null || step.getFunction() == null || step.getArguments() == null) {
+                throw new IllegalArgumentException("工作流节点缺少 id/function/arguments: " + name);
+            }
+            for (String dependency : step.getDependsOn()) {
+                if (!declared.contains(dependency)) {
+                    throw new IllegalArgumentException("工作流 " + name + " 的节点 " + step.getId()
+                            + " 依赖未声明或排在其后的节点: " + dependency);
+                }
+            }
+            if (!declared.add(step.getId())) {
+                throw new IllegalArgumentException("工作流 " + name + " 节点 ID 重复: " + step.getId());
+            }
+        }
+        return new WorkflowDefinition(name, List.copyOf(steps));
+    }
+}
@@ -0,0 +1,170 @@
+package com.xiaofuge.workflow;
+
+import com.xiaofuge.functioncalling.FunctionCall;
+import com.xiaofuge.functioncalling.FunctionRegistry;
+import com.xiaofuge.functioncalling.FunctionResult;
+import com.xiaofuge.tracing.Scope;
+import com.xiaofuge.tracing.Span;
+import com.xiaofuge.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按声明式 DAG 直接调用 FunctionRegistry 执行固定流程，不需要模型逐步选择下一个工具
+ * 依赖都已完成的节点立即异步执行，互不依赖的节点并行；节点未通过时其后续节点终止
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WorkflowEngine {
+    
+    private final FunctionRegistry functionRegistry;
+    
+    public WorkflowResult run(WorkflowDefinition definition, Map<String, Object> input) {
+        return execute(definition, input).join();
+    }
+    
+    /**
+     * 返回的 future 总是正常完成，各节点的失败体现在 WorkflowResult 中
+     */
+    public CompletableFuture<WorkflowResult> execute(WorkflowDefinition definition, Map<String, Object> input) {
+        long start = System.nanoTime();
+        WorkflowContext context = new WorkflowContext(input);
+        Map<String, WorkflowStep> stepsById = new LinkedHashMap<>();
+        Map<String, CompletableFuture<StepResult>> futures = new LinkedHashMap<>();
+        
+        Span span = Tracer.startSpan("workflow " + definition.getName())
+                .setAttribute("workflow.name", definition.getName());
+        try (Scope ignored = span.makeCurrent()) {
+            for (WorkflowStep step : definition.getSteps()) {
+                CompletableFuture<?>[] dependencies = step.getDependsOn().stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+                stepsById.put(step.getId(), step);
+                futures.put(step.getId(), CompletableFuture.allOf(dependencies)
+                        .thenCompose(Tracer.wrapFunction(done -> runStep(step, stepsById, context))));
+            }
+        }
+        
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .handle((done, error) -> {
+                    List<StepResult> steps = new ArrayList<>(futures.size());
+                    futures.forEach((id, future) -> steps.add(future.isCompletedExceptionally()
+                            ? failed(stepsById.get(id), "节点执行异常", 0) : future.join()));
+                    
+                    StepResult failure = steps.stream().filter(StepResult::blocksDependents).findFirst().orElse(null);
+                    WorkflowResult result = WorkflowResult.builder()
+                            .workflow(definition.getName())
+                            .completed(failure == null)
+                            .steps(steps)
+                            .failedStep(failure != null ? failure.getStepId() : null)
+                            .reason(failure != null ? failure.getReason() : null)
+                            .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                            .build();
+                    
+                    span.setAttribute("workflow.completed", result.isCompleted());
+                    if (failure != null) {
+                        span.setAttribute("workflow.failed_step", failure.getStepId());
+                    }
+                    span.end();
+                    log.info("工作流执行结束: {}, 完成: {}, 终止节点: {}, 耗时: {}ms", definition.getName(),
+                            result.isCompleted(), result.getFailedStep(), result.getElapsedMillis());
+                    return result;
+                });
+    }
+    
+    private CompletableFuture<StepResult> runStep(WorkflowStep step, Map<String, WorkflowStep> stepsById,
+                                                  WorkflowContext context) {
+        StepResult outcome = precheck(step, context);
+        if (outcome != null) {
+            context.record(outcome);
+            return CompletableFuture.completedFuture(outcome);
+        }
+        
+        long start = System.nanoTime();
+        Map<String, Object> arguments;
+        try {
+            arguments = step.getArguments().apply(context);
+        } catch (RuntimeException e) {
+            log.warn("工作流节点参数构造失败: {}", step.getId(), e);
+            StepResult failed = failed(step, "参数构造失败: " + e.getMessage(), 0);
+            context.record(failed);
+            return CompletableFuture.completedFuture(failed);
+        }
+        
+        FunctionCall call = FunctionCall.builder()
+                .name(step.getFunction())
+                .arguments(arguments)
+                .build();
+        return functionRegistry.executeFunctionAsync(call).thenApply(functionResult -> {
+            StepResult result = evaluate(step, functionResult,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            context.record(result);
+            return result;
+        });
+    }
+    
+    // 依赖未通过时终止，分支条件不满足时跳过，否则返回 null 继续执行
+    private StepResult precheck(WorkflowStep step, WorkflowContext context) {
+        for (String dependency : step.getDependsOn()) {
+            StepResult result = context.result(dependency);
+            if (result == null || result.blocksDependents()) {
+                return StepResult.builder()
+                        .stepId(step.getId())
+                        .function(step.getFunction())
+                        .status(StepResult.Status.ABORTED)
+                        .reason("前序节点未通过: " + dependency)
+                        .build();
+            }
+        }
+        if (step.getWhen() != null && !step.getWhen().test(context)) {
+            return StepResult.builder()
+                    .stepId(step.getId())
+                    .function(step.getFunction())
+                    .status(StepResult.Status.SKIPPED)
+                    .build();
+        }
+        return null;
+    }
+    
+    private StepResult evaluate(WorkflowStep step, FunctionResult functionResult, long elapsedMillis) {
+        if (!functionResult.isSuccess()) {
+            StepResult failed = failed(step, functionResult.getErrorMessage(), elapsedMillis);
+            failed.setFunctionResult(functionResult);
+            return failed;
+        }
+        if (step.getPassedField() != null
+                && !Boolean.TRUE.equals(WorkflowContext.fieldOf(functionResult.getResult(), step.getPassedField()))) {
+            Object reason = WorkflowContext.fieldOf(functionResult.getResult(), "reason");
+            StepResult failed = failed(step, reason != null ? reason.toString() : step.getId() + " 未通过", elapsedMillis);
+            failed.setFunctionResult(functionResult);
+            return failed;
+        }
+        return StepResult.builder()
+                .stepId(step.getId())
+                .function(step.getFunction())
+                .status(StepResult.Status.PASSED)
+                .functionResult(functionResult)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+    
+    private static StepResult failed(WorkflowStep step, String reason, long elapsedMillis) {
+        return StepResult.builder()
+                .stepId(step.getId())
+                .function(step.getFunction())
+                .status(StepResult.Status.FAILED)
+                .reason(reason)
+                .elapsedMillis(elapsedMillis)
+                .tolerated(step.isContinueOnFailure())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.xiaofuge.workflow;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowResult {
+    private String workflow;
+    private boolean completed;
+    // 按定义顺序排列
+    private List<StepResult> steps;
+    // 终止流程的节点，流程完成时为 null
+    private String failedStep;
+    private String reason;
+    private long elapsedMillis;
+    
+    public StepResult step(String stepId) {
+        return steps.stream().filter(s -> s.getStepId().equals(stepId)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.xiaofuge.workflow;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 工作流中的一个节点，对应 FunctionRegistry 中的一次函数调用
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowStep {
+    private String id;
+    private String function;
+    // 由工作流输入和前序节点结果构造函数参数
+    private Function<WorkflowContext, Map<String, Object>> arguments;
+    // 依赖的节点 ID，只能引用定义中排在前面的节点
+    @Builder.Default
+    private List<String> dependsOn = List.of();
+    // 分支条件，为 null 时总是执行；不满足时节点跳过，视为通过
+    private Predicate<WorkflowContext> when;
+    // 结果中表示业务是否通过的布尔字段，为 null 时函数执行成功即通过
+    private String passedField;
+    // 为 true 时本节点未通过不终止流程，后续节点照常执行
+    private boolean continueOnFailure;
+}
@@ -0,0 +1,41 @@
+package com.xiaofuge.ai;
+
+import com.xiaofuge.ai.claude.ClaudeRequest;
+import com.xiaofuge.functioncalling.FunctionDefinition;
+import com.xiaofuge.functioncalling.FunctionRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolSchemaCacheTest {
+    
+    @Test
+    void testOnlyLastClaudeToolCarriesCacheBreakpoint() {
+        FunctionRegistry functionRegistry = new FunctionRegistry();
+        for (String name : List.of("upload_content", "check_sensitive_words", "publish_content")) {
+            functionRegistry.registerFunction(name, FunctionDefinition.builder()
+                    .name(name)
+                    .description(name)
+                    .parameters(Map.of("type", "object"))
+                    .build(), arguments -> null);
+        }
+        ToolSchemaCache toolSchemaCache = new ToolSchemaCache(functionRegistry);
+        
+        List<Map<String, Object>> claudeTools = toolSchemaCache.get(ToolSchemaCache.Provider.CLAUDE).getTools();
+        assertEquals(List.of("check_sensitive_words", "publish_content", "upload_content"),
+                claudeTools.stream().map(tool -> tool.get("name")).toList());
+        assertFalse(claudeTools.get(0).containsKey("cache_control"));
+        assertFalse(claudeTools.get(1).containsKey("cache_control"));
+        assertEquals(ClaudeRequest.CACHE_CONTROL, claudeTools.get(2).get("cache_control"));
+        
+        // 缓存前缀按字节匹配，函数集合不变时每次得到同一份 JSON
+        assertSame(toolSchemaCache.get(ToolSchemaCache.Provider.CLAUDE).getJson(),
+                toolSchemaCache.get(ToolSchemaCache.Provider.CLAUDE).getJson());
+        
+        assertTrue(toolSchemaCache.get(ToolSchemaCache.Provider.OPENAI).getTools().stream()
+                .noneMatch(tool -> tool.containsKey("cache_control")));
+    }
+}
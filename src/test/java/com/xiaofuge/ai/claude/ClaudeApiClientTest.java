@@ -0,0 +1,161 @@
+package com.xiaofuge.ai.claude;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClaudeApiClientTest {
+    
+    private static final String RESPONSE = """
+            {
+              "id": "msg_1",
+              "type": "message",
+              "role": "assistant",
+              "model": "claude-3-haiku-20240307",
+              "content": [{"type": "text", "text": "通过"}],
+              "stop_reason": "end_turn",
+              "usage": {"input_tokens": 12, "output_tokens": 3}
+            }
+            """;
+    
+    private final AtomicInteger requests = new AtomicInteger();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private OkHttpClient httpClient;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        
+        ClaudeHttpProperties properties = new ClaudeHttpProperties();
+        properties.setHttp2(false);
+        properties.setMaxRequests(8);
+        properties.setMaxRequestsPerHost(4);
+        httpClient = new ClaudeHttpConfig().claudeHttpClient(properties, meterRegistry);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        httpClient.dispatcher().executorService().shutdownNow();
+        httpClient.connectionPool().evictAll();
+    }
+    
+    @Test
+    void testHttpClientUsesConfiguredLimits() {
+        assertEquals(8, httpClient.dispatcher().getMaxRequests());
+        assertEquals(4, httpClient.dispatcher().getMaxRequestsPerHost());
+        assertEquals(List.of(Protocol.HTTP_1_1), httpClient.protocols());
+        assertNotNull(meterRegistry.find(ClaudeHttpConfig.CALLS).tag("state", "queued").gauge());
+    }
+    
+    @Test
+    void testCreateMessageAsyncParsesResponse() throws Exception {
+        server.createContext("/v1/messages", exchange -> reply(exchange, 200, RESPONSE));
+        
+        ClaudeResponse response = client().createMessageAsync(request()).get(5, TimeUnit.SECONDS);
+        
+        assertEquals("msg_1", response.getId());
+        assertEquals("通过", response.getContent());
+        assertEquals(1, requests.get());
+    }
+    
+    @Test
+    void testCreateMessageAsyncRetriesOverloadedResponse() throws Exception {
+        server.createContext("/v1/messages", exchange -> {
+            if (requests.get() == 0) {
+                reply(exchange, 529, "{\"type\":\"error\",\"error\":{\"type\":\"overloaded_error\",\"message\":\"忙\"}}");
+            } else {
+                reply(exchange, 200, RESPONSE);
+            }
+        });
+        
+        ClaudeResponse response = client().createMessageAsync(request()).get(5, TimeUnit.SECONDS);
+        
+        assertEquals("msg_1", response.getId());
+        assertEquals(2, requests.get());
+    }
+    
+    @Test
+    void testCancellingFutureCancelsCall() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/v1/messages", exchange -> {
+            received.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reply(exchange, 200, RESPONSE);
+        });
+        
+        CompletableFuture<ClaudeResponse> future = client().createMessageAsync(request());
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(1, httpClient.dispatcher().runningCallsCount());
+        
+        future.cancel(true);
+        release.countDown();
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (httpClient.dispatcher().runningCallsCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, httpClient.dispatcher().runningCallsCount());
+        assertTrue(future.isCancelled());
+    }
+    
+    private ClaudeApiClient client() {
+        ClaudeRetryPolicy retryPolicy = new ClaudeRetryPolicy(3, Duration.ofMillis(10), Duration.ofMillis(50));
+        ClaudeRateLimiter rateLimiter = new ClaudeRateLimiter(false, 50, 50_000, 10_000, Duration.ofSeconds(1), 3,
+                meterRegistry);
+        ClaudeApiClient client = new ClaudeApiClient(httpClient, retryPolicy, rateLimiter, meterRegistry);
+        ReflectionTestUtils.setField(client, "apiKey", "test-key");
+        ReflectionTestUtils.setField(client, "model", "claude-3-haiku-20240307");
+        ReflectionTestUtils.setField(client, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.invokeMethod(client, "init");
+        return client;
+    }
+    
+    private ClaudeRequest request() {
+        return ClaudeRequest.builder()
+                .messages(List.of(Map.of("role", "user", "content", "审核这段文本")))
+                .maxTokens(64)
+                .build();
+    }
+    
+    private void reply(HttpExchange exchange, int status, String body) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.xiaofuge.ai.claude;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClaudeRateLimiterTest {
+    
+    private final long[] now = {0};
+    
+    @Test
+    void testRequestsBeyondQuotaWaitForRefill() throws IOException {
+        ClaudeRateLimiter limiter = limiter(2, 100_000, 100_000, Duration.ofMinutes(1));
+        
+        assertEquals(Duration.ZERO, limiter.reserve(100, 100).getDelay());
+        assertEquals(Duration.ZERO, limiter.reserve(100, 100).getDelay());
+        // 每分钟 2 次，第三次需要等一个请求的补充时间；预留会透支，第四次排在它后面
+        assertEquals(Duration.ofSeconds(30), limiter.reserve(100, 100).getDelay());
+        assertEquals(Duration.ofSeconds(60), limiter.reserve(100, 100).getDelay());
+        
+        now[0] = TimeUnit.SECONDS.toNanos(60);
+        assertEquals(Duration.ofSeconds(30), limiter.reserve(100, 100).getDelay());
+    }
+    
+    @Test
+    void testWaitBeyondMaxWaitFailsWithoutReserving() throws IOException {
+        ClaudeRateLimiter limiter = limiter(1, 100_000, 100_000, Duration.ofSeconds(10));
+        
+        limiter.reserve(100, 100);
+        assertThrows(IOException.class, () -> limiter.reserve(100, 100));
+        
+        now[0] = TimeUnit.SECONDS.toNanos(60);
+        assertEquals(Duration.ZERO, limiter.reserve(100, 100).getDelay());
+    }
+    
+    @Test
+    void testReconcileReturnsOverestimatedTokens() throws IOException {
+        ClaudeRateLimiter limiter = limiter(100, 1_000, 1_000, Duration.ofMinutes(1));
+        
+        ClaudeRateLimiter.Permit permit = limiter.reserve(900, 900);
+        assertEquals(900, permit.getInputTokens());
+        // 实际只用了 100/50，退还的额度让下一次请求无需等待
+        limiter.reconcile(permit, ClaudeUsage.builder().inputTokens(100).outputTokens(50).build());
+        assertEquals(Duration.ZERO, limiter.reserve(900, 900).getDelay());
+        
+        // 余额已用尽，再预留 900 个 token 需要补充 54 秒
+        assertEquals(Duration.ofSeconds(54), limiter.reserve(900, 0).getDelay());
+    }
+    
+    private ClaudeRateLimiter limiter(long requests, long inputTokens, long outputTokens, Duration maxWait) {
+        return new ClaudeRateLimiter(true, requests, inputTokens, outputTokens, maxWait, 1,
+                new SimpleMeterRegistry(), () -> now[0]);
+    }
+}
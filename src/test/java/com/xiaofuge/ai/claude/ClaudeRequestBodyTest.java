@@ -0,0 +1,71 @@
+package com.xiaofuge.ai.claude;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClaudeRequestBodyTest {
+    
+    private static final SerializedString MODEL = new SerializedString("claude-3-haiku-20240307");
+    
+    @Test
+    void testPreEncodedFragmentsWrittenAsJson() throws IOException {
+        SerializedString cachedBlock = new SerializedString(ClaudeJson.MAPPER.writeValueAsString(Map.of(
+                "type", "text", "text", "你是内容审核助手", "cache_control", ClaudeRequest.CACHE_CONTROL)));
+        ClaudeRequest request = ClaudeRequest.builder()
+                .cachedSystemPrompt("你是内容审核助手")
+                .systemPrompt("当前意图：发布内容")
+                .messages(List.of(Map.of("role", "user", "content", "发布一篇文章，标题：春天")))
+                .tools(new RawValue(new SerializedString("[{\"name\":\"upload_content\",\"input_schema\":{}}]")))
+                .maxTokens(1024)
+                .build();
+        
+        JsonNode json = ClaudeJson.MAPPER.readTree(write(new ClaudeRequestBody(MODEL, request, cachedBlock, true)));
+        
+        assertEquals("claude-3-haiku-20240307", json.path("model").asText());
+        assertEquals(1024, json.path("max_tokens").asInt());
+        assertTrue(json.path("temperature").isMissingNode());
+        assertTrue(json.path("stream").asBoolean());
+        assertEquals("ephemeral", json.path("system").get(0).path("cache_control").path("type").asText());
+        assertEquals("当前意图：发布内容", json.path("system").get(1).path("text").asText());
+        assertEquals("upload_content", json.path("tools").get(0).path("name").asText());
+        assertEquals("发布一篇文章，标题：春天", json.path("messages").get(0).path("content").asText());
+    }
+    
+    @Test
+    void testPlainSystemPromptAndEstimatedSize() throws IOException {
+        ClaudeRequest request = ClaudeRequest.builder()
+                .systemPrompt("你是分类器")
+                .messages(List.of(Map.of("role", "user", "content", "审核内容 42")))
+                .maxTokens(64)
+                .temperature(0.0)
+                .build();
+        ClaudeRequestBody body = new ClaudeRequestBody(MODEL, request, null, false);
+        
+        byte[] bytes = write(body);
+        JsonNode json = ClaudeJson.MAPPER.readTree(bytes);
+        
+        assertEquals("你是分类器", json.path("system").asText());
+        assertFalse(json.has("stream"));
+        assertEquals(0.0, json.path("temperature").asDouble());
+        // 估算只用于限流，不要求精确，但不应低于实际大小的一半
+        assertTrue(body.getEstimatedBytes() >= bytes.length / 2, body.getEstimatedBytes() + " / " + bytes.length);
+    }
+    
+    private static byte[] write(ClaudeRequestBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = ClaudeJson.MAPPER.createGenerator(out)) {
+            body.writeJson(generator);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package com.xiaofuge.ai.claude;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClaudeResponseDecoderTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    void testTextBeforeToolUseKeepsEveryToolCall() throws IOException {
+        ClaudeResponse response = decode("""
+                {
+                  "id": "msg_1",
+                  "type": "message",
+                  "role": "assistant",
+                  "model": "claude-3-haiku-20240307",
+                  "content": [
+                    {"type": "text", "text": "先检查敏感词，"},
+                    {"type": "tool_use", "id": "toolu_1", "name": "check_sensitive_words", "input": {"contentId": 7}},
+                    {"type": "text", "text": "同时识别图片"},
+                    {"input": {"contentId": 7, "options": {"strict": true}}, "name": "recognize_image", "id": "toolu_2", "type": "tool_use"}
+                  ],
+                  "stop_reason": "tool_use",
+                  "stop_sequence": null,
+                  "usage": {"input_tokens": 320, "cache_creation_input_tokens": 0, "cache_read_input_tokens": 2048, "output_tokens": 75, "server_tool_use": {"web_search_requests": 0}}
+                }
+                """);
+        
+        assertEquals("msg_1", response.getId());
+        assertEquals("assistant", response.getRole());
+        assertEquals("tool_use", response.getStopReason());
+        assertEquals("先检查敏感词，同时识别图片", response.getContent());
+        assertEquals(4, response.getContentBlocks().size());
+        assertEquals(List.of("check_sensitive_words", "recognize_image"),
+                response.getToolUses().stream().map(ClaudeToolUse::getName).toList());
+        assertSame(response.getToolUses().get(0), response.getToolUse());
+        assertEquals(7, response.getToolUses().get(1).getInput().path("contentId").asInt());
+        assertTrue(response.getToolUses().get(1).getInput().path("options").path("strict").asBoolean());
+        assertEquals(new ClaudeUsage(320, 75, 0, 2048), response.getUsage());
+    }
+    
+    @Test
+    void testTextOnlyAndUnknownBlocks() throws IOException {
+        ClaudeResponse response = decode("""
+                {"id": "msg_2", "content": [{"type": "thinking", "thinking": "..."}, {"type": "text", "text": "已完成"}],
+                 "stop_reason": "end_turn"}
+                """);
+        
+        assertEquals("已完成", response.getContent());
+        assertNull(response.getToolUse());
+        assertTrue(response.getToolUses().isEmpty());
+        assertEquals("thinking", response.getContentBlocks().get(0).getType());
+        assertNull(response.getUsage());
+    }
+    
+    private ClaudeResponse decode(String json) throws IOException {
+        return ClaudeResponseDecoder.decode(objectMapper,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
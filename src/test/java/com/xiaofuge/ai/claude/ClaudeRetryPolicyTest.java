@@ -0,0 +1,57 @@
+package com.xiaofuge.ai.claude;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClaudeRetryPolicyTest {
+    
+    private final ClaudeRetryPolicy policy = new ClaudeRetryPolicy(4, Duration.ofSeconds(1), Duration.ofSeconds(30));
+    
+    @Test
+    void testOnlyTransientFailuresAreRetried() {
+        assertNull(policy.backoff(1, new ClaudeApiException(400, "invalid_request_error", null)));
+        assertNull(policy.backoff(1, new ClaudeApiException(401, "authentication_error", null)));
+        assertNotNull(policy.backoff(1, new ClaudeApiException(529, "overloaded_error", null)));
+        assertNotNull(policy.backoff(1, new IOException("connection reset")));
+        assertNull(policy.backoff(4, new ClaudeApiException(429, "rate_limit_error", null)));
+    }
+    
+    @Test
+    void testExponentialBackoffWithJitter() {
+        for (int i = 0; i < 100; i++) {
+            Duration third = policy.backoff(3, new IOException("timeout"));
+            assertTrue(third.compareTo(Duration.ofSeconds(2)) >= 0 && third.compareTo(Duration.ofSeconds(4)) <= 0,
+                    third.toString());
+        }
+        ClaudeRetryPolicy capped = new ClaudeRetryPolicy(20, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        assertTrue(capped.backoff(15, new IOException("timeout")).compareTo(Duration.ofSeconds(30)) <= 0);
+    }
+    
+    @Test
+    void testRetryAfterHonored() {
+        Duration backoff = policy.backoff(1, new ClaudeApiException(429, "rate_limit_error", Duration.ofSeconds(5)));
+        assertTrue(backoff.compareTo(Duration.ofSeconds(5)) >= 0 && backoff.compareTo(Duration.ofSeconds(6)) <= 0,
+                backoff.toString());
+        // 服务端要求等待的时间超过最大退避时不再重试
+        assertNull(policy.backoff(1, new ClaudeApiException(429, "rate_limit_error", Duration.ofSeconds(60))));
+    }
+    
+    @Test
+    void testParseRetryAfter() {
+        assertEquals(Duration.ofMillis(1500), ClaudeRetryPolicy.parseRetryAfter("1.5"));
+        assertEquals(Duration.ofSeconds(20), ClaudeRetryPolicy.parseRetryAfter(" 20 "));
+        assertNull(ClaudeRetryPolicy.parseRetryAfter(null));
+        assertNull(ClaudeRetryPolicy.parseRetryAfter("soon"));
+        
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(30));
+        Duration delay = ClaudeRetryPolicy.parseRetryAfter(date);
+        assertTrue(delay.compareTo(Duration.ofSeconds(28)) >= 0 && delay.compareTo(Duration.ofSeconds(30)) <= 0,
+                delay.toString());
+    }
+}
@@ -0,0 +1,120 @@
+package com.xiaofuge.ai.claude;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClaudeStreamParserTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    void testTextDeltasAndToolInputAssembled() throws IOException {
+        List<String> deltas = new ArrayList<>();
+        List<ClaudeToolUse> toolUses = new ArrayList<>();
+        ClaudeStreamParser parser = new ClaudeStreamParser(objectMapper, new ClaudeStreamListener() {
+            @Override
+            public void onText(String delta) {
+                deltas.add(delta);
+            }
+            
+            @Override
+            public void onToolUse(ClaudeToolUse toolUse) {
+                toolUses.add(toolUse);
+            }
+        });
+        
+        feed(parser,
+                "event: message_start",
+                "data: {\"type\":\"message_start\",\"message\":{\"id\":\"msg_1\",\"model\":\"claude-3-haiku-20240307\",\"role\":\"assistant\",\"content\":[],\"usage\":{\"input_tokens\":120,\"cache_read_input_tokens\":1800,\"output_tokens\":1}}}",
+                "",
+                "event: content_block_start",
+                "data: {\"type\":\"content_block_start\",\"index\":0,\"content_block\":{\"type\":\"text\",\"text\":\"\"}}",
+                "",
+                "event: ping",
+                "data: {\"type\":\"ping\"}",
+                "",
+                "event: content_block_delta",
+                "data: {\"type\":\"content_block_delta\",\"index\":0,\"delta\":{\"type\":\"text_delta\",\"text\":\"先上传\"}}",
+                "",
+                "event: content_block_delta",
+                "data: {\"type\":\"content_block_delta\",\"index\":0,\"delta\":{\"type\":\"text_delta\",\"text\":\"内容\"}}",
+                "",
+                "event: content_block_stop",
+                "data: {\"type\":\"content_block_stop\",\"index\":0}",
+                "",
+                "event: content_block_start",
+                "data: {\"type\":\"content_block_start\",\"index\":1,\"content_block\":{\"type\":\"tool_use\",\"id\":\"toolu_1\",\"name\":\"upload_content\",\"input\":{}}}",
+                "",
+                "event: content_block_delta",
+                "data: {\"type\":\"content_block_delta\",\"index\":1,\"delta\":{\"type\":\"input_json_delta\",\"partial_json\":\"{\\\"title\\\": \\\"春\"}}",
+                "",
+                "event: content_block_delta",
+                "data: {\"type\":\"content_block_delta\",\"index\":1,\"delta\":{\"type\":\"input_json_delta\",\"partial_json\":\"天\\\", \\\"authorId\\\": \\\"u1\\\"}\"}}",
+                "",
+                "event: content_block_stop",
+                "data: {\"type\":\"content_block_stop\",\"index\":1}",
+                "",
+                "event: message_delta",
+                "data: {\"type\":\"message_delta\",\"delta\":{\"stop_reason\":\"tool_use\"},\"usage\":{\"output_tokens\":42}}",
+                "",
+                "event: message_stop",
+                "data: {\"type\":\"message_stop\"}",
+                "");
+        ClaudeResponse response = parser.finish();
+        
+        assertEquals(List.of("先上传", "内容"), deltas);
+        assertEquals("msg_1", response.getId());
+        assertEquals("tool_use", response.getStopReason());
+        assertEquals(new ClaudeUsage(120, 42, 0, 1800), response.getUsage());
+        assertEquals("先上传内容", response.getContent());
+        assertEquals(1, toolUses.size());
+        assertSame(toolUses.get(0), response.getToolUse());
+        assertEquals("upload_content", response.getToolUse().getName());
+        assertEquals("春天", response.getToolUse().getInput().path("title").asText());
+        assertEquals("u1", response.getToolUse().getInput().path("authorId").asText());
+    }
+    
+    @Test
+    void testToolWithoutArgumentsGetsEmptyInput() throws IOException {
+        ClaudeStreamParser parser = new ClaudeStreamParser(objectMapper, delta -> { });
+        feed(parser,
+                "data: {\"type\":\"content_block_start\",\"index\":0,\"content_block\":{\"type\":\"tool_use\",\"id\":\"toolu_2\",\"name\":\"list_pending\",\"input\":{}}}",
+                "",
+                "data: {\"type\":\"content_block_stop\",\"index\":0}",
+                "",
+                "data: {\"type\":\"message_stop\"}");
+        ClaudeResponse response = parser.finish();
+        
+        assertTrue(response.getToolUse().getInput().isObject());
+        assertEquals(0, response.getToolUse().getInput().size());
+        assertNull(response.getContent());
+    }
+    
+    @Test
+    void testErrorEventAndTruncatedStreamFail() throws IOException {
+        ClaudeStreamParser overloaded = new ClaudeStreamParser(objectMapper, delta -> { });
+        IOException error = assertThrows(IOException.class, () -> feed(overloaded,
+                "event: error",
+                "data: {\"type\":\"error\",\"error\":{\"type\":\"overloaded_error\",\"message\":\"Overloaded\"}}",
+                ""));
+        assertTrue(error.getMessage().contains("overloaded_error"));
+        
+        ClaudeStreamParser truncated = new ClaudeStreamParser(objectMapper, delta -> { });
+        feed(truncated,
+                "data: {\"type\":\"message_start\",\"message\":{\"id\":\"msg_2\"}}",
+                "");
+        assertThrows(IOException.class, truncated::finish);
+    }
+    
+    private static void feed(ClaudeStreamParser parser, String... lines) throws IOException {
+        for (String line : lines) {
+            parser.feedLine(line);
+        }
+    }
+}
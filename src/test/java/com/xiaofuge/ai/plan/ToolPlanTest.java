@@ -0,0 +1,75 @@
+package com.xiaofuge.ai.plan;
+
+import com.xiaofuge.functioncalling.FunctionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolPlanTest {
+    
+    @Test
+    void testArgumentsTemplatedFromInputAndEarlierResults() {
+        ToolPlan plan = ToolPlan.from(run(7L, "作者A", true));
+        
+        PlanStep check = plan.getSteps().get(1);
+        assertEquals(ArgumentTemplate.result(0, "contentId"), check.getArguments().get("contentId"));
+        assertEquals("ok{passed=true}", check.getBranch());
+        
+        PlanStep notify = plan.getSteps().get(2);
+        assertEquals(ArgumentTemplate.input("authorId"), notify.getArguments().get("recipient"));
+        assertEquals(ArgumentTemplate.literal("PUSH"), notify.getArguments().get("type"));
+        
+        Object contentId = check.getArguments().get("contentId")
+                .resolve(Map.of(), List.of(Map.of("contentId", 99L)));
+        assertEquals(99L, contentId);
+    }
+    
+    @Test
+    void testRepeatedObservationsStayStableAcrossDifferentValues() {
+        ToolPlan plan = ToolPlan.from(run(7L, "作者A", true))
+                .merge(ToolPlan.from(run(8L, "作者B", true)));
+        
+        assertEquals(2, plan.getObservations());
+        assertEquals(2, plan.replayableSteps());
+    }
+    
+    @Test
+    void testDifferentBranchReplacesPlan() {
+        ToolPlan plan = ToolPlan.from(run(7L, "作者A", true))
+                .merge(ToolPlan.from(run(8L, "作者B", true)))
+                .merge(ToolPlan.from(run(9L, "作者C", false)));
+        
+        assertEquals(1, plan.getObservations());
+        assertEquals("ok{passed=false}", plan.getSteps().get(1).getBranch());
+    }
+    
+    @Test
+    void testInconsistentLiteralStopsReplayBeforeThatStep() {
+        List<ObservedCall> first = run(7L, "作者A", true);
+        List<ObservedCall> second = run(8L, "作者B", true);
+        second.set(2, new ObservedCall("send_notification",
+                Map.of("contentId", 8L, "type", "EMAIL", "recipient", "作者B"), second.get(2).getResult()));
+        
+        ToolPlan plan = ToolPlan.from(first).merge(ToolPlan.from(second));
+        
+        assertEquals(2, plan.getObservations());
+        assertTrue(plan.getSteps().get(1).isStable());
+        assertFalse(plan.getSteps().get(2).isStable());
+        assertEquals(1, plan.replayableSteps());
+    }
+    
+    private List<ObservedCall> run(long contentId, String authorId, boolean passed) {
+        return new ArrayList<>(List.of(
+                new ObservedCall("upload_content", Map.of("title", "标题", "authorId", authorId),
+                        FunctionResult.success("upload_content", Map.of("contentId", contentId, "status", "PENDING"))),
+                new ObservedCall("check_sensitive_words", Map.of("contentId", contentId),
+                        FunctionResult.success("check_sensitive_words", Map.of("contentId", contentId, "passed", passed))),
+                new ObservedCall("send_notification",
+                        Map.of("contentId", contentId, "type", "PUSH", "recipient", authorId),
+                        FunctionResult.success("send_notification", Map.of("sent", true)))));
+    }
+}
@@ -0,0 +1,77 @@
+package com.xiaofuge.ai.slot;
+
+import com.xiaofuge.service.dto.ContentUploadRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UploadSlotExtractorTest {
+    
+    private final UploadSlotExtractor extractor = new UploadSlotExtractor();
+    
+    @Test
+    void testLabeledFieldsRunUntilNextLabel() {
+        SlotExtraction slots = extractor.extract(
+                "帮我发布一篇文章，标题：Java 并发编程实战，正文：线程池的核心参数包括 corePoolSize、maximumPoolSize，作者ID：user_001");
+        ContentUploadRequest request = slots.getRequest();
+        
+        assertEquals("Java 并发编程实战", request.getTitle());
+        assertEquals("线程池的核心参数包括 corePoolSize、maximumPoolSize", request.getTextContent());
+        assertEquals("user_001", request.getAuthorId());
+        assertTrue(slots.isConfident(UploadSlotExtractor.REQUIRED_FIELDS, 0.8));
+    }
+    
+    @Test
+    void testUrlsClassifiedByLabelOrExtension() {
+        SlotExtraction image = extractor.extract("发布图片 https://cdn.example.com/a/b.png 标题是《春天的花》 作者是 alice");
+        assertEquals("https://cdn.example.com/a/b.png", image.getRequest().getImageUrl());
+        assertEquals("春天的花", image.getRequest().getTitle());
+        assertEquals(0.9, image.confidenceOf(UploadSlotExtractor.IMAGE_URL));
+        
+        SlotExtraction video = extractor.extract("上传视频，视频：https://v.example.com/x/play?id=3 ，title: Demo day, author=bob");
+        assertEquals("https://v.example.com/x/play?id=3", video.getRequest().getVideoUrl());
+        assertEquals("Demo day", video.getRequest().getTitle());
+        assertEquals("bob", video.getRequest().getAuthorId());
+        assertEquals(0.95, video.confidenceOf(UploadSlotExtractor.VIDEO_URL));
+    }
+    
+    @Test
+    void testLowConfidenceFallbacksDoNotSkipModel() {
+        SlotExtraction quoted = extractor.extract("发布“周末随笔”，作者：张三。内容是今天天气不错，适合写代码。");
+        assertEquals("周末随笔", quoted.getRequest().getTitle());
+        assertEquals("今天天气不错，适合写代码", quoted.getRequest().getTextContent());
+        assertFalse(quoted.isConfident(UploadSlotExtractor.REQUIRED_FIELDS, 0.8));
+        
+        SlotExtraction empty = extractor.extract("我想发布一篇技术文章");
+        assertNull(empty.getRequest().getTitle());
+        assertTrue(empty.toArguments().isEmpty());
+        assertEquals(0.0, empty.confidenceOf(UploadSlotExtractor.AUTHOR_ID));
+    }
+    
+    @Test
+    void testLabelWordsInsideBodyAreNotFields() {
+        SlotExtraction slots = extractor.extract("标题：Trip，作者：u1，正文：图片是我拍的，风景很美");
+        ContentUploadRequest request = slots.getRequest();
+        
+        assertEquals("Trip", request.getTitle());
+        assertEquals("u1", request.getAuthorId());
+        assertEquals("图片是我拍的，风景很美", request.getTextContent());
+        assertNull(request.getImageUrl());
+        assertTrue(slots.isConfident(UploadSlotExtractor.REQUIRED_FIELDS, 0.8));
+        
+        // 正文只在分隔符后的标签处结束
+        SlotExtraction trailing = extractor.extract("标题：Trip，正文：这张照片 图片为旧作，作者：u1");
+        assertEquals("这张照片 图片为旧作", trailing.getRequest().getTextContent());
+        assertEquals("u1", trailing.getRequest().getAuthorId());
+    }
+    
+    @Test
+    void testEmptyLabeledBodyDoesNotSkipModel() {
+        SlotExtraction slots = extractor.extract("标题：Trip，作者：u1，正文：");
+        
+        assertNull(slots.getRequest().getTextContent());
+        assertEquals(0.95, slots.confidenceOf(UploadSlotExtractor.TITLE));
+        assertEquals(0.95, slots.confidenceOf(UploadSlotExtractor.AUTHOR_ID));
+        assertFalse(slots.isConfident(UploadSlotExtractor.REQUIRED_FIELDS, 0.8));
+    }
+}
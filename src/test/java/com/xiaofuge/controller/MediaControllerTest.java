@@ -0,0 +1,77 @@
+package com.xiaofuge.controller;
+
+import com.xiaofuge.media.BlobDescriptor;
+import com.xiaofuge.media.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class MediaControllerTest {
+    
+    @TempDir
+    Path mediaDir;
+    
+    private MockMvc mockMvc;
+    private String blobId;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        BlobStore blobStore = new BlobStore();
+        ReflectionTestUtils.setField(blobStore, "directory", mediaDir.toString());
+        ReflectionTestUtils.setField(blobStore, "bufferSize", 65536);
+        ReflectionTestUtils.invokeMethod(blobStore, "init");
+        BlobDescriptor descriptor = blobStore.store(
+                new ByteArrayInputStream("0123456789".getBytes(StandardCharsets.UTF_8)), "text/plain");
+        blobId = descriptor.getBlobId();
+        mockMvc = MockMvcBuilders.standaloneSetup(new MediaController(blobStore)).build();
+    }
+    
+    @Test
+    void testFullDownload() throws Exception {
+        mockMvc.perform(get("/api/media/{blobId}", blobId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + blobId + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string("0123456789"));
+    }
+    
+    @Test
+    void testRangeDownload() throws Exception {
+        mockMvc.perform(get("/api/media/{blobId}", blobId).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+    }
+    
+    @Test
+    void testUnsatisfiableRangeAndMissingBlob() throws Exception {
+        mockMvc.perform(get("/api/media/{blobId}", blobId).header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+        mockMvc.perform(get("/api/media/{blobId}", "0".repeat(64)))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void testSendfileDelegatedToContainer() throws Exception {
+        mockMvc.perform(get("/api/media/{blobId}", blobId)
+                        .header(HttpHeaders.RANGE, "bytes=4-")
+                        .requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isPartialContent())
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 4L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 10L))
+                .andExpect(content().string(""));
+    }
+}
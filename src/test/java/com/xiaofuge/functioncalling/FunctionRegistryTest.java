@@ -3,7 +3,15 @@ package com.xiaofuge.functioncalling;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,4 +93,278 @@ public class FunctionRegistryTest {
         assertFalse(result.isSuccess());
         assertTrue(result.getErrorMessage().contains("测试异常"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRegisterAnnotatedFunctions() {
+        functionRegistry.registerAnnotatedFunctions(new GreetingFunctions());
+        
+        // schema 由方法参数和 DTO 字段生成
+        FunctionDefinition definition = functionRegistry.getFunctionDefinition("greet");
+        assertNotNull(definition);
+        assertEquals("String", definition.getReturnType());
+        Map<String, Object> properties = (Map<String, Object>) definition.getParameters().get("properties");
+        assertEquals(List.of("name", "times", "lang"), List.copyOf(properties.keySet()));
+        assertEquals("integer", ((Map<String, Object>) properties.get("times")).get("type"));
+        assertEquals(List.of("zh", "en"), ((Map<String, Object>) properties.get("lang")).get("enum"));
+        assertEquals(List.of("name"), definition.getParameters().get("required"));
+        
+        // 字符串形式的数字按参数类型转换
+        FunctionResult result = functionRegistry.executeFunction(FunctionCall.builder()
+                .name("greet")
+                .arguments(Map.of("name", "World", "times", "2"))
+                .build());
+        assertTrue(result.isSuccess());
+        assertEquals("Hello, World! Hello, World!", result.getResult());
+        
+        FunctionResult byId = functionRegistry.executeFunction(FunctionCall.builder()
+                .name("find_greeting")
+                .arguments(Map.of("greetingId", 7))
+                .build());
+        assertTrue(byId.isSuccess());
+        assertEquals(7L, byId.getResult());
+    }
+    
+    @Test
+    void testAnnotatedFunctionArgumentTypeMismatch() {
+        functionRegistry.registerAnnotatedFunctions(new GreetingFunctions());
+        
+        FunctionResult result = functionRegistry.executeFunction(FunctionCall.builder()
+                .name("find_greeting")
+                .arguments(Map.of("greetingId", "abc"))
+                .build());
+        
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorMessage().contains("greetingId"));
+    }
+    
+    @Test
+    void testArgumentsValidatedBeforeDispatch() {
+        functionRegistry.registerAnnotatedFunctions(new GreetingFunctions());
+        
+        FunctionResult result = functionRegistry.executeFunction(FunctionCall.builder()
+                .name("greet")
+                .arguments(Map.of("times", List.of(1), "lang", "fr"))
+                .build());
+        
+        assertFalse(result.isSuccess());
+        assertTrue(result.hasValidationErrors());
+        assertEquals(List.of("name", "times", "lang"),
+                result.getValidationErrors().stream().map(ValidationError::getPath).toList());
+    }
+    
+    @Test
+    void testIntegerArgumentsOutsideTargetRangeRejected() {
+        functionRegistry.registerAnnotatedFunctions(new GreetingFunctions());
+        
+        // 超出 long 范围的整数值在分发前被 schema 校验拒绝
+        for (Object tooLarge : List.of(1e20, 9.3e18, new BigInteger("9223372036854775808"), "9999999999999999999")) {
+            FunctionResult result = functionRegistry.executeFunction(call("find_greeting", Map.of("greetingId", tooLarge)));
+            assertFalse(result.isSuccess(), "应拒绝: " + tooLarge);
+            assertTrue(result.hasValidationErrors(), "应拒绝: " + tooLarge);
+        }
+        
+        // long 范围内但超出 Integer 的值由参数转换拒绝，不会被截断
+        FunctionResult overflow = functionRegistry.executeFunction(call("greet", Map.of("name", "World", "times", 3_000_000_000L)));
+        assertFalse(overflow.isSuccess());
+        assertTrue(overflow.getErrorMessage().contains("times"));
+        
+        FunctionResult integral = functionRegistry.executeFunction(call("find_greeting", Map.of("greetingId", 7.0)));
+        assertTrue(integral.isSuccess());
+        assertEquals(7L, integral.getResult());
+    }
+    
+    @Test
+    void testExecuteAllRunsIndependentCallsConcurrentlyInOrder() {
+        CopyOnWriteArrayList<String> events = new CopyOnWriteArrayList<>();
+        registerSleeper("slow_write", "itemId", false, 200, events);
+        registerSleeper("fast_read", "itemId", true, 10, events);
+        registerSleeper("independent", null, false, 200, events);
+        
+        long start = System.nanoTime();
+        List<FunctionResult> results = functionRegistry.executeAll(List.of(
+                call("slow_write", 1),
+                call("fast_read", 1),
+                call("independent", 1),
+                call("fast_read", 2)));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        assertEquals(List.of("slow_write", "fast_read", "independent", "fast_read"),
+                results.stream().map(FunctionResult::getFunctionName).toList());
+        assertTrue(results.stream().allMatch(FunctionResult::isSuccess));
+        // 同一资源上的读等待写完成；其他调用与之并行
+        assertTrue(events.indexOf("end:slow_write:1") < events.indexOf("start:fast_read:1"));
+        assertTrue(events.indexOf("end:fast_read:2") < events.indexOf("end:slow_write:1"));
+        assertTrue(elapsedMillis < 400, "独立调用应并行执行，实际耗时: " + elapsedMillis + "ms");
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDispatchRecordsMetricsByOutcome() {
+        functionRegistry.registerAnnotatedFunctions(new GreetingFunctions());
+        functionRegistry.executeFunction(call("find_greeting", Map.of("greetingId", 1)));
+        functionRegistry.executeFunction(call("find_greeting", Map.of("greetingId", "abc")));
+        functionRegistry.executeFunction(call("no_such_function", Map.of()));
+        
+        Map<String, Object> stats = (Map<String, Object>) functionRegistry.getStats().get("find_greeting");
+        Map<String, Map<String, Object>> outcomes = (Map<String, Map<String, Object>>) stats.get("outcomes");
+        assertEquals(1L, outcomes.get("success").get("count"));
+        assertEquals(1L, outcomes.get("invalid").get("count"));
+        assertEquals(0L, outcomes.get("error").get("count"));
+        assertTrue(outcomes.get("success").containsKey("p99Ms"));
+        assertFalse(functionRegistry.getStats().containsKey("no_such_function"));
+    }
+    
+    @Test
+    void testTimeoutAndCircuitBreaker() {
+        ResiliencePolicy policy = ResiliencePolicy.builder()
+                .timeout(Duration.ofMillis(50))
+                .maxConcurrent(4)
+                .failureRateThreshold(50)
+                .slidingWindowSize(4)
+                .minimumCalls(2)
+                .openDuration(Duration.ofMinutes(1))
+                .halfOpenProbes(1)
+                .build();
+        functionRegistry.registerFunction("hanging", FunctionDefinition.builder()
+                .name("hanging")
+                .parameters(Map.of("type", "object"))
+                .resilience(policy)
+                .build(), arguments -> {
+            Thread.sleep(5_000);
+            return "never";
+        });
+        
+        FunctionResult first = functionRegistry.executeFunction(call("hanging", Map.of()));
+        assertFalse(first.isSuccess());
+        assertTrue(first.getErrorMessage().contains("超时"));
+        functionRegistry.executeFunction(call("hanging", Map.of()));
+        
+        // 两次超时后熔断打开，后续调用直接拒绝
+        long start = System.nanoTime();
+        FunctionResult rejected = functionRegistry.executeFunction(call("hanging", Map.of()));
+        assertTrue(rejected.getErrorMessage().contains("熔断"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+    }
+    
+    @Test
+    void testTimeoutRequiresBulkhead() {
+        ResiliencePolicy policy = ResiliencePolicy.builder()
+                .timeout(Duration.ofMillis(50))
+                .build();
+        FunctionDefinition definition = FunctionDefinition.builder()
+                .name("unbounded")
+                .parameters(Map.of("type", "object"))
+                .resilience(policy)
+                .build();
+        
+        assertThrows(IllegalArgumentException.class,
+                () -> functionRegistry.registerFunction("unbounded", definition, arguments -> "ok"));
+    }
+    
+    @Test
+    void testCacheableResultsInvalidatedByResource() {
+        AtomicInteger invocations = new AtomicInteger();
+        functionRegistry.registerFunction("lookup_item", FunctionDefinition.builder()
+                .name("lookup_item")
+                .parameters(Map.of("type", "object"))
+                .conflictKey("contentId")
+                .cacheTtl(Duration.ofMinutes(1))
+                .cacheKeys(List.of("contentId"))
+                .build(), arguments -> arguments.get("contentId") + ":" + invocations.incrementAndGet());
+    
+        FunctionResult first = functionRegistry.executeFunction(call("lookup_item", Map.of("contentId", 42)));
+        FunctionResult repeated = functionRegistry.executeFunction(call("lookup_item", Map.of("contentId", 42)));
+        FunctionResult other = functionRegistry.executeFunction(call("lookup_item", Map.of("contentId", 7)));
+        assertEquals("42:1", first.getResult());
+        assertEquals("42:1", repeated.getResult());
+        assertEquals("7:2", other.getResult());
+    
+        // 资源状态变化后重新执行，其他资源的结果不受影响
+        functionRegistry.invalidateResults("contentId=42");
+        assertEquals("42:3", functionRegistry.executeFunction(call("lookup_item", Map.of("contentId", 42))).getResult());
+        assertEquals("7:2", functionRegistry.executeFunction(call("lookup_item", Map.of("contentId", 7))).getResult());
+        assertEquals(3, invocations.get());
+    }
+    
+    @Test
+    void testAsyncFunctionsMixWithSyncFunctions() {
+        functionRegistry.registerAsyncFunction("delayed_echo", FunctionDefinition.builder()
+                .name("delayed_echo")
+                .parameters(Map.of("type", "object"))
+                .build(), arguments -> CompletableFuture.supplyAsync(() -> arguments.get("itemId"),
+                CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS)));
+        functionRegistry.registerAsyncFunction("async_failure", FunctionDefinition.builder()
+                .name("async_failure")
+                .parameters(Map.of("type", "object"))
+                .build(), arguments -> CompletableFuture.failedFuture(new IllegalStateException("下游不可用")));
+        registerSleeper("sync_sleeper", null, false, 200, new CopyOnWriteArrayList<>());
+    
+        // 异步函数立即返回 future，不占用调用线程
+        long start = System.nanoTime();
+        CompletableFuture<FunctionResult> pending = functionRegistry.executeFunctionAsync(call("delayed_echo", 1));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+        assertEquals(1, pending.join().getResult());
+        assertTrue(functionRegistry.isAsyncFunction("delayed_echo"));
+    
+        FunctionResult failure = functionRegistry.executeFunction(call("async_failure", Map.of()));
+        assertFalse(failure.isSuccess());
+        assertTrue(failure.getErrorMessage().contains("下游不可用"));
+    
+        start = System.nanoTime();
+        List<FunctionResult> results = functionRegistry.executeAllAsync(List.of(
+                call("delayed_echo", 2), call("sync_sleeper", 3), call("delayed_echo", 4))).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(List.of(2, 3, 4), results.stream().map(FunctionResult::getResult).toList());
+        assertTrue(elapsedMillis < 400, "同步与异步调用应并行执行，实际耗时: " + elapsedMillis + "ms");
+    }
+    
+    private void registerSleeper(String name, String conflictKey, boolean readOnly, long sleepMillis,
+                                 List<String> events) {
+        FunctionDefinition definition = FunctionDefinition.builder()
+                .name(name)
+                .description(name)
+                .parameters(Map.of("type", "object"))
+                .conflictKey(conflictKey)
+                .readOnly(readOnly)
+                .build();
+        functionRegistry.registerFunction(name, definition, arguments -> {
+            events.add("start:" + name + ":" + arguments.get("itemId"));
+            Thread.sleep(sleepMillis);
+            events.add("end:" + name + ":" + arguments.get("itemId"));
+            return arguments.get("itemId");
+        });
+    }
+    
+    private static FunctionCall call(String name, int itemId) {
+        return call(name, Map.of("itemId", itemId));
+    }
+    
+    private static FunctionCall call(String name, Map<String, Object> arguments) {
+        return FunctionCall.builder().name(name).arguments(arguments).build();
+    }
+    
+    public static class GreetingRequest {
+        @AiParam(description = "名字", required = true)
+        private String name;
+        @AiParam(description = "重复次数")
+        private Integer times;
+        @AiParam(description = "语言", allowableValues = {"zh", "en"})
+        private String lang;
+        private String internal;
+    }
+    
+    public static class GreetingFunctions {
+        
+        @AiFunction(name = "greet", description = "打招呼")
+        public String greet(GreetingRequest request) {
+            int times = request.times != null ? request.times : 1;
+            return String.join(" ", Collections.nCopies(times, "Hello, " + request.name + "!"));
+        }
+        
+        @AiFunction(name = "find_greeting", description = "按ID查找")
+        public Long findGreeting(@AiParam(name = "greetingId", required = true) Long greetingId) {
+            return greetingId;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.xiaofuge.journal;
+
+import com.xiaofuge.domain.Content;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedReviewJournalTest {
+    
+    private static final int SEGMENT_SIZE = 8 * 1024;
+    
+    @TempDir
+    Path journalDir;
+    
+    @Test
+    void testAppendRollAndScanByTimeRange() throws Exception {
+        MappedReviewJournal journal = new MappedReviewJournal(journalDir, SEGMENT_SIZE, 8);
+        for (int i = 0; i < 500; i++) {
+            journal.append(event(i, 1_000L + i));
+        }
+        journal.flush();
+        
+        assertTrue(journal.segmentCount() > 1, "应该已经滚动出多个段");
+        
+        List<ReviewEvent> events = new ArrayList<>();
+        journal.scan(1_100L, 1_149L, events::add);
+        
+        assertEquals(50, events.size());
+        assertEquals(100L, events.get(0).getContentId());
+        assertEquals(149L, events.get(49).getContentId());
+        assertEquals(Content.ReviewStatus.TEXT_REVIEWING, events.get(0).getToStatus());
+        assertEquals("原因-100", events.get(0).getReason());
+    }
+    
+    @Test
+    void testReplayAfterReopen() throws Exception {
+        MappedReviewJournal journal = new MappedReviewJournal(journalDir, SEGMENT_SIZE, 8);
+        for (int i = 0; i < 300; i++) {
+            journal.append(event(i, 2_000L + i));
+        }
+        journal.close();
+        
+        MappedReviewJournal reopened = new MappedReviewJournal(journalDir, SEGMENT_SIZE, 8);
+        reopened.append(event(300, 2_300L));
+        
+        List<ReviewEvent> events = new ArrayList<>();
+        reopened.replay(events::add);
+        
+        assertEquals(301, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i, events.get(i).getContentId());
+        }
+    }
+    
+    @Test
+    void testTimestampsAreMonotonic() throws Exception {
+        MappedReviewJournal journal = new MappedReviewJournal(journalDir, SEGMENT_SIZE, 8);
+        journal.append(event(1, 5_000L));
+        journal.append(event(2, 4_000L));
+        
+        List<ReviewEvent> events = new ArrayList<>();
+        journal.replay(events::add);
+        
+        assertEquals(5_000L, events.get(1).getTimestamp());
+    }
+    
+    @Test
+    void testScanIncludesSameTimestampBeforeIndexPoint() throws Exception {
+        MappedReviewJournal journal = new MappedReviewJournal(journalDir, SEGMENT_SIZE, 4);
+        // 第 0、4 条记录被索引；第 2~5 条同一毫秒，索引点落在中间
+        long[] timestamps = {1_000L, 1_001L, 1_005L, 1_005L, 1_005L, 1_005L, 1_006L};
+        for (int i = 0; i < timestamps.length; i++) {
+            journal.append(event(i, timestamps[i]));
+        }
+        
+        List<ReviewEvent> events = new ArrayList<>();
+        journal.scan(1_005L, 1_005L, events::add);
+        
+        assertEquals(4, events.size());
+        assertEquals(2L, events.get(0).getContentId());
+        assertEquals(5L, events.get(3).getContentId());
+    }
+    
+    @Test
+    void testLongReasonTruncatedAtCharacterBoundary() throws Exception {
+        MappedReviewJournal journal = new MappedReviewJournal(journalDir, SEGMENT_SIZE, 8);
+        // 每个汉字 3 字节，4096 不是 3 的倍数，原样截断会切开最后一个汉字
+        String reason = "违".repeat(1_366);
+        journal.append(ReviewEvent.builder()
+                .contentId(1L)
+                .fromStatus(Content.ReviewStatus.MANUAL_REVIEWING)
+                .toStatus(Content.ReviewStatus.REJECTED)
+                .stage(Content.ReviewStage.MANUAL)
+                .reason(reason)
+                .timestamp(1_000L)
+                .build());
+        
+        List<ReviewEvent> events = new ArrayList<>();
+        journal.replay(events::add);
+        
+        assertEquals("违".repeat(1_365), events.get(0).getReason());
+        assertFalse(events.get(0).getReason().contains("\uFFFD"));
+    }
+    
+    private ReviewEvent event(long contentId, long timestamp) {
+        return ReviewEvent.builder()
+                .contentId(contentId)
+                .fromStatus(Content.ReviewStatus.PENDING)
+                .toStatus(Content.ReviewStatus.TEXT_REVIEWING)
+                .stage(Content.ReviewStage.TEXT)
+                .reason("原因-" + contentId)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.xiaofuge.media;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlobStoreTest {
+    
+    @TempDir
+    Path mediaDir;
+    
+    private BlobStore blobStore;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        blobStore = new BlobStore();
+        ReflectionTestUtils.setField(blobStore, "directory", mediaDir.toString());
+        // 小缓冲区，让上传跨多次读写
+        ReflectionTestUtils.setField(blobStore, "bufferSize", 16);
+        ReflectionTestUtils.invokeMethod(blobStore, "init");
+    }
+    
+    @Test
+    void testStoreIsContentAddressedAndDeduplicated() throws Exception {
+        byte[] bytes = "同一段媒体内容，长度超过缓冲区".getBytes(StandardCharsets.UTF_8);
+        String expectedId = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        
+        BlobDescriptor first = blobStore.store(new ByteArrayInputStream(bytes), "image/png");
+        BlobDescriptor second = blobStore.store(new ByteArrayInputStream(bytes), "image/jpeg");
+        
+        assertEquals(expectedId, first.getBlobId());
+        assertEquals(BlobStore.REF_PREFIX + expectedId, first.getRef());
+        assertEquals(bytes.length, first.getSize());
+        assertFalse(first.isDeduplicated());
+        assertTrue(second.isDeduplicated());
+        assertEquals(first.getBlobId(), second.getBlobId());
+        assertEquals("image/png", second.getContentType(), "重复上传保留首次的内容类型");
+        assertArrayEquals(bytes, Files.readAllBytes(blobStore.locate(expectedId).orElseThrow()));
+        try (var tmpFiles = Files.list(mediaDir.resolve("tmp"))) {
+            assertEquals(0, tmpFiles.count(), "临时文件应已移走或删除");
+        }
+    }
+    
+    @Test
+    void testLocateRejectsInvalidIds() {
+        assertTrue(blobStore.locate(null).isEmpty());
+        assertTrue(blobStore.locate("../../etc/passwd").isEmpty());
+        assertTrue(blobStore.locate("ABCDEF").isEmpty());
+        assertFalse(blobStore.exists("0".repeat(64)));
+    }
+    
+    @Test
+    void testMapReadsStoredBytes() throws Exception {
+        byte[] bytes = {1, 2, 3, 4, 5};
+        BlobDescriptor descriptor = blobStore.store(new ByteArrayInputStream(bytes), null);
+        
+        MappedByteBuffer mapped = blobStore.map(descriptor.getBlobId());
+        byte[] read = new byte[mapped.remaining()];
+        mapped.get(read);
+        
+        assertArrayEquals(bytes, read);
+        assertEquals("application/octet-stream", descriptor.getContentType());
+    }
+}
@@ -0,0 +1,40 @@
+package com.xiaofuge.ratelimit;
+
+import com.xiaofuge.exception.ContentReviewException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthorRateLimiterTest {
+    
+    @Test
+    void testDefaultTierDoesNotMutateProperties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setWidth(1024);
+        AuthorRateLimiter limiter = new AuthorRateLimiter(properties);
+        limiter.init();
+        
+        assertTrue(properties.getTiers().isEmpty(), "默认档位不应写回配置 bean");
+        Map<?, ?> tiers = (Map<?, ?>) limiter.snapshot().get("tiers");
+        assertTrue(tiers.containsKey("standard"));
+        assertThrows(UnsupportedOperationException.class, tiers::clear);
+    }
+    
+    @Test
+    void testLaterPropertyChangesDoNotAffectLimits() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setWidth(1024);
+        RateLimitProperties.Tier tier = new RateLimitProperties.Tier();
+        tier.setLimit(1);
+        properties.getTiers().put("standard", tier);
+        AuthorRateLimiter limiter = new AuthorRateLimiter(properties);
+        limiter.init();
+        
+        tier.setLimit(100);
+        limiter.acquire("author_1");
+        
+        assertThrows(ContentReviewException.class, () -> limiter.acquire("author_1"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.xiaofuge.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlidingWindowSketchTest {
+    
+    private static final long WINDOW = 60_000L;
+    private static final long START = WINDOW * 1000;
+    
+    @Test
+    void testRejectWhenLimitReachedWithinWindow() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 4, 1024);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(sketch.tryAcquire("author_1", 3, START + i));
+        }
+        assertFalse(sketch.tryAcquire("author_1", 3, START + 10));
+        assertTrue(sketch.tryAcquire("author_2", 3, START + 10), "其他作者不受影响");
+        assertEquals(3.0, sketch.estimate("author_1", START + 10), 0.0001);
+    }
+    
+    @Test
+    void testPreviousWindowDecaysLinearly() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 4, 1024);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(sketch.tryAcquire("author_1", 3, START + i));
+        }
+        
+        // 下一个窗口过半：上一窗口计 1.5，本次之后为 2.5
+        long halfway = START + WINDOW + WINDOW / 2;
+        assertEquals(1.5, sketch.estimate("author_1", halfway), 0.0001);
+        assertTrue(sketch.tryAcquire("author_1", 3, halfway));
+        assertFalse(sketch.tryAcquire("author_1", 3, halfway));
+        
+        // 两个窗口之后全部过期
+        assertEquals(0.0, sketch.estimate("author_1", START + WINDOW * 3), 0.0001);
+    }
+    
+    @Test
+    void testMemoryIsBoundedByDimensions() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 4, 1000);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.tryAcquire("author_" + i, Long.MAX_VALUE, START);
+        }
+        assertEquals(4L * 1024 * Long.BYTES, sketch.memoryBytes());
+    }
+}
@@ -0,0 +1,60 @@
+package com.xiaofuge.repository;
+
+import com.xiaofuge.domain.Content;
+import com.xiaofuge.domain.ContentBody;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class ContentBodyRepositoryTest {
+    
+    @Autowired
+    private ContentRepository contentRepository;
+    
+    @Autowired
+    private ContentBodyRepository contentBodyRepository;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Test
+    void testBodyStoredSeparatelyAndReadByProjection() {
+        Content content = contentRepository.save(Content.builder()
+                .title("分表")
+                .type(Content.ContentType.TEXT)
+                .authorId("author")
+                .build());
+        ContentBody body = contentBodyRepository.save(ContentBody.builder()
+                .contentId(content.getId())
+                .textContent("正文内容")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        
+        assertFalse(body.isNew(), "持久化后不再是新实体");
+        assertEquals("正文内容", contentBodyRepository.findTextContentByContentId(content.getId()).orElseThrow());
+        assertFalse(contentBodyRepository.findById(content.getId()).orElseThrow().isNew());
+    }
+    
+    @Test
+    void testMissingBodyReturnsEmpty() {
+        assertTrue(contentBodyRepository.findTextContentByContentId(Long.MAX_VALUE).isEmpty());
+    }
+    
+    @Test
+    void testNewBodyIsInsertedWithoutMerge() {
+        contentBodyRepository.save(ContentBody.builder().contentId(1_000L).textContent("第一次").build());
+        entityManager.flush();
+        entityManager.clear();
+        
+        // 新实体直接 persist：同一主键再次以新实体保存会冲突，而不是被合并覆盖
+        assertThrows(RuntimeException.class, () -> {
+            contentBodyRepository.save(ContentBody.builder().contentId(1_000L).textContent("第二次").build());
+            entityManager.flush();
+        });
+    }
+}
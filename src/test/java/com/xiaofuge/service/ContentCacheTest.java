@@ -0,0 +1,116 @@
+package com.xiaofuge.service;
+
+import com.xiaofuge.domain.Content;
+import com.xiaofuge.repository.ContentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ContentCache.class, ContentStateMachine.class, ContentCacheTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ContentCacheTest {
+    
+    @Autowired
+    private ContentCache contentCache;
+    
+    @Autowired
+    private ContentStateMachine stateMachine;
+    
+    @Autowired
+    private ContentRepository contentRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void testRolledBackSaveIsNotCached() {
+        long before = contentCache.size();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long id = tx.execute(status -> {
+            Content saved = contentCache.save(content("回滚"));
+            status.setRollbackOnly();
+            return saved.getId();
+        });
+        
+        assertEquals(before, contentCache.size());
+        assertTrue(contentCache.findById(id).isEmpty());
+    }
+    
+    @Test
+    void testSaveIsCachedOnlyAfterCommit() {
+        long before = contentCache.size();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long id = tx.execute(status -> {
+            Content saved = contentCache.save(content("提交"));
+            assertEquals(before, contentCache.size(), "提交前不应写入缓存");
+            return saved.getId();
+        });
+        
+        assertEquals(before + 1, contentCache.size());
+        assertEquals("提交", contentCache.findById(id).orElseThrow().getTitle());
+    }
+    
+    @Test
+    void testReadersGetIndependentSnapshots() {
+        Long id = contentCache.save(content("快照")).getId();
+        
+        Content first = contentCache.findById(id).orElseThrow();
+        first.setTitle("被调用方修改");
+        Content second = contentCache.findById(id).orElseThrow();
+        
+        assertNotSame(first, second);
+        assertEquals("快照", second.getTitle());
+    }
+    
+    @Test
+    void testStaleReadIsNotCachedAfterConcurrentTransition() throws Exception {
+        Long id = contentRepository.save(content("并发")).getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        
+        tx.executeWithoutResult(status -> {
+            // 事务内未命中缓存，读到的 PENDING 要等提交后才写入缓存
+            assertEquals(Content.ReviewStatus.PENDING, contentCache.findById(id).orElseThrow().getStatus());
+            
+            // 另一个事务在此期间完成流转并提交，触发提交后的失效
+            Thread other = new Thread(() -> assertTrue(stateMachine.transition(id, Content.ReviewStage.TEXT,
+                    Content.ReviewStatus.PENDING, Content.ReviewStatus.TEXT_REVIEWING, null)));
+            other.start();
+            try {
+                other.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        
+        assertEquals(Content.ReviewStatus.TEXT_REVIEWING, contentCache.findById(id).orElseThrow().getStatus());
+    }
+    
+    private Content content(String title) {
+        return Content.builder()
+                .title(title)
+                .type(Content.ContentType.TEXT)
+                .authorId("author")
+                .status(Content.ReviewStatus.PENDING)
+                .build();
+    }
+    
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.xiaofuge.service;
+
+import com.xiaofuge.domain.Content;
+import com.xiaofuge.repository.ContentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ContentStateMachine.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ContentStateMachineTest {
+    
+    @Autowired
+    private ContentStateMachine contentStateMachine;
+    
+    @Autowired
+    private ContentRepository contentRepository;
+    
+    @Test
+    void testTransitionUpdatesStatusAndIncrementsVersion() {
+        Content saved = save(Content.ReviewStatus.MANUAL_REVIEWING);
+        
+        assertTrue(contentStateMachine.transition(saved.getId(), Content.ReviewStage.MANUAL,
+                Content.ReviewStatus.MANUAL_REVIEWING, Content.ReviewStatus.REJECTED, "质量不达标"));
+        
+        Content reloaded = contentRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(Content.ReviewStatus.REJECTED, reloaded.getStatus());
+        assertEquals("质量不达标", reloaded.getRejectReason());
+        assertEquals(Content.ReviewStage.MANUAL, reloaded.getRejectStage());
+        assertNull(reloaded.getReviewResult());
+        assertEquals(saved.getVersion() + 1, reloaded.getVersion());
+    }
+    
+    @Test
+    void testInvalidSourceStateIsRejected() {
+        Content saved = save(Content.ReviewStatus.PENDING);
+        
+        // 期望状态本身不合法，本地直接拒绝
+        assertFalse(contentStateMachine.transition(saved.getId(), Content.ReviewStage.MANUAL,
+                Content.ReviewStatus.PENDING, Content.ReviewStatus.APPROVED, "通过"));
+        // 不指定期望状态时由 WHERE 条件拒绝
+        assertFalse(contentStateMachine.publish(saved.getId(), LocalDateTime.now()));
+        
+        Content reloaded = contentRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(Content.ReviewStatus.PENDING, reloaded.getStatus());
+        assertEquals(saved.getVersion(), reloaded.getVersion());
+    }
+    
+    @Test
+    void testStaleExpectedStatusLoses() {
+        Content saved = save(Content.ReviewStatus.MANUAL_REVIEWING);
+        
+        assertTrue(contentStateMachine.transition(saved.getId(), Content.ReviewStage.MANUAL,
+                Content.ReviewStatus.MANUAL_REVIEWING, Content.ReviewStatus.APPROVED, "通过"));
+        assertFalse(contentStateMachine.transition(saved.getId(), Content.ReviewStage.MANUAL,
+                Content.ReviewStatus.MANUAL_REVIEWING, Content.ReviewStatus.REJECTED, "不通过"));
+        
+        Content reloaded = contentRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(Content.ReviewStatus.APPROVED, reloaded.getStatus());
+        assertEquals(saved.getVersion() + 1, reloaded.getVersion());
+    }
+    
+    @Test
+    void testConcurrentTransitionsHaveSingleWinner() throws Exception {
+        Content saved = save(Content.ReviewStatus.MANUAL_REVIEWING);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Content.ReviewStatus target = i % 2 == 0 ? Content.ReviewStatus.APPROVED : Content.ReviewStatus.REJECTED;
+            results.add(pool.submit(() -> {
+                start.await();
+                return contentStateMachine.transition(saved.getId(), Content.ReviewStage.MANUAL,
+                        Content.ReviewStatus.MANUAL_REVIEWING, target, "并发");
+            }));
+        }
+        start.countDown();
+        
+        int winners = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                winners++;
+            }
+        }
+        pool.shutdown();
+        
+        assertEquals(1, winners);
+        assertEquals(saved.getVersion() + 1, contentRepository.findById(saved.getId()).orElseThrow().getVersion());
+    }
+    
+    private Content save(Content.ReviewStatus status) {
+        return contentRepository.save(Content.builder()
+                .title("状态流转")
+                .type(Content.ContentType.TEXT)
+                .authorId("author")
+                .status(status)
+                .build());
+    }
+}
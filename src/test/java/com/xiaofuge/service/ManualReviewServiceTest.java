@@ -0,0 +1,69 @@
+package com.xiaofuge.service;
+
+import com.xiaofuge.domain.Content;
+import com.xiaofuge.service.dto.ManualReviewResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ManualReviewService.class, ContentStateMachine.class, ContentCache.class, ManualReviewServiceTest.Config.class})
+public class ManualReviewServiceTest {
+    
+    @Autowired
+    private ManualReviewService manualReviewService;
+    
+    @Autowired
+    private ContentStateMachine contentStateMachine;
+    
+    @Autowired
+    private ContentCache contentCache;
+    
+    @Test
+    void testTextRejectionIsNotReportedAsManualResult() {
+        Long id = save(Content.ReviewStatus.TEXT_REVIEWING);
+        assertTrue(contentStateMachine.transition(id, Content.ReviewStage.TEXT, Content.ReviewStatus.REJECTED, "包含敏感词"));
+        
+        ManualReviewResponse response = manualReviewService.checkManualReviewResult(id);
+        
+        assertFalse(response.isSubmitted());
+        assertEquals(Content.ReviewStatus.REJECTED, contentCache.findById(id).orElseThrow().getStatus());
+    }
+    
+    @Test
+    void testRepeatedCheckReturnsRecordedVerdict() {
+        Long id = save(Content.ReviewStatus.MANUAL_REVIEWING);
+        
+        ManualReviewResponse first = manualReviewService.checkManualReviewResult(id);
+        ManualReviewResponse repeated = manualReviewService.checkManualReviewResult(id);
+        
+        assertTrue(first.isSubmitted());
+        assertTrue(repeated.isSubmitted());
+        assertEquals(first.isPassed(), repeated.isPassed());
+        assertEquals(first.getReason(), repeated.getReason());
+    }
+    
+    private Long save(Content.ReviewStatus status) {
+        return contentCache.save(Content.builder()
+                .title("人工审核")
+                .type(Content.ContentType.TEXT)
+                .authorId("author")
+                .status(status)
+                .build()).getId();
+    }
+    
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.xiaofuge.stats;
+
+import com.xiaofuge.domain.Content;
+import com.xiaofuge.domain.event.ContentStatusChangedEvent;
+import com.xiaofuge.domain.event.ContentUploadedEvent;
+import com.xiaofuge.repository.ContentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ReviewStatistics.class)
+public class ReviewStatisticsTest {
+    
+    @Autowired
+    private ReviewStatistics reviewStatistics;
+    
+    @Autowired
+    private ContentRepository contentRepository;
+    
+    @Test
+    void testReconcileLoadsCountsFromDatabase() {
+        save(Content.ContentType.TEXT, Content.ReviewStatus.PENDING, "author_1");
+        save(Content.ContentType.IMAGE, Content.ReviewStatus.PENDING, "author_1");
+        save(Content.ContentType.TEXT, Content.ReviewStatus.REJECTED, "author_2");
+        
+        reviewStatistics.reconcile();
+        
+        assertEquals(2, reviewStatistics.countByStatus(Content.ReviewStatus.PENDING));
+        assertEquals(1, reviewStatistics.countByStatus(Content.ReviewStatus.REJECTED));
+        assertEquals(2, reviewStatistics.countByType(Content.ContentType.TEXT));
+        assertEquals(2, reviewStatistics.countByAuthor("author_1"));
+        assertEquals(0, reviewStatistics.countByAuthor("nobody"));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEventsUpdateCountsIncrementally() {
+        reviewStatistics.reconcile();
+        
+        reviewStatistics.onUploaded(ContentUploadedEvent.builder()
+                .contentId(1L).type(Content.ContentType.TEXT).authorId("author_1").build());
+        reviewStatistics.onUploaded(ContentUploadedEvent.builder()
+                .contentId(2L).type(Content.ContentType.TEXT).authorId("author_1").build());
+        reviewStatistics.onStatusChanged(changed(1L, Content.ReviewStatus.PENDING, Content.ReviewStatus.TEXT_REVIEWING));
+        reviewStatistics.onStatusChanged(changed(2L, Content.ReviewStatus.PENDING, Content.ReviewStatus.REJECTED));
+        
+        assertEquals(0, reviewStatistics.countByStatus(Content.ReviewStatus.PENDING));
+        assertEquals(1, reviewStatistics.countByStatus(Content.ReviewStatus.TEXT_REVIEWING));
+        assertEquals(1, reviewStatistics.countByStatus(Content.ReviewStatus.REJECTED));
+        assertEquals(2, reviewStatistics.countByAuthor("author_1"));
+        
+        Map<String, Object> text = (Map<String, Object>) ((Map<String, Object>) reviewStatistics.snapshot().get("stages")).get("TEXT");
+        assertEquals(1L, text.get("passed"));
+        assertEquals(1L, text.get("rejected"));
+        assertEquals(0.5, (double) text.get("passRate1m"), 0.0001);
+        assertEquals(2L, text.get("throughput1m"));
+    }
+    
+    private ContentStatusChangedEvent changed(Long contentId, Content.ReviewStatus from, Content.ReviewStatus to) {
+        return ContentStatusChangedEvent.builder()
+                .contentId(contentId)
+                .fromStatus(from)
+                .toStatus(to)
+                .stage(Content.ReviewStage.TEXT)
+                .build();
+    }
+    
+    private void save(Content.ContentType type, Content.ReviewStatus status, String authorId) {
+        contentRepository.save(Content.builder()
+                .title("统计")
+                .type(type)
+                .status(status)
+                .authorId(authorId)
+                .build());
+    }
+}
@@ -0,0 +1,33 @@
+package com.xiaofuge.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollingWindowCounterTest {
+    
+    private static final long START = 1_000_000_000L;
+    
+    @Test
+    void testSumCoversOnlyRequestedWindow() {
+        RollingWindowCounter counter = new RollingWindowCounter(1_000L, 60);
+        counter.increment(START);
+        counter.increment(START + 500);
+        counter.increment(START + 10_000);
+        
+        assertEquals(1, counter.sum(START + 10_000, 1_000L));
+        assertEquals(3, counter.sum(START + 10_000, 30_000L));
+        assertEquals(60_000L, counter.getWindowMillis());
+    }
+    
+    @Test
+    void testReusedSlotDropsExpiredCount() {
+        RollingWindowCounter counter = new RollingWindowCounter(1_000L, 10);
+        counter.increment(START);
+        counter.increment(START);
+        // 一整圈之后落到同一槽位，旧计数应被重置而不是累加
+        counter.increment(START + 10_000);
+        
+        assertEquals(1, counter.sum(START + 10_000, 10_000L));
+    }
+}
@@ -0,0 +1,90 @@
+package com.xiaofuge.tracing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracerTest {
+    
+    private final List<Span> exported = new CopyOnWriteArrayList<>();
+    private final SpanExporter exporter = exported::add;
+    
+    @BeforeEach
+    void setUp() {
+        Tracer.addExporter(exporter);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        Tracer.removeExporter(exporter);
+    }
+    
+    @Test
+    void testNestedSpansShareTraceAndRestoreParent() {
+        Span root = Tracer.startSpan("root", SpanKind.SERVER);
+        assertTrue(root.isRoot());
+        assertEquals(32, root.getTraceId().length());
+        
+        try (Scope ignored = root.makeCurrent()) {
+            Span child = Tracer.startSpan("child");
+            try (Scope alsoIgnored = child.makeCurrent()) {
+                assertSame(child, Tracer.current());
+            } finally {
+                child.end();
+            }
+            assertSame(root, Tracer.current());
+            assertEquals(root.getTraceId(), child.getTraceId());
+            assertEquals(root.getSpanId(), child.getParentSpanId());
+        } finally {
+            root.end();
+        }
+        
+        assertNull(Tracer.current());
+        assertEquals(List.of("child", "root"), exported.stream().map(Span::getName).toList());
+        assertTrue(root.getDurationNanos() >= exported.get(0).getDurationNanos());
+    }
+    
+    @Test
+    void testContextPropagatesAcrossExecutors() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Span root = Tracer.startSpan("root");
+            CompletableFuture<Span> async;
+            try (Scope ignored = root.makeCurrent()) {
+                async = CompletableFuture.supplyAsync(Tracer.wrapSupplier(() -> {
+                    Span child = Tracer.startSpan("async");
+                    child.end();
+                    return child;
+                }), pool);
+            }
+            Span child = async.get();
+            root.end();
+            
+            assertEquals(root.getSpanId(), child.getParentSpanId());
+            // 工作线程上的上下文在任务结束后恢复
+            assertNull(pool.submit(Tracer::current).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    void testEndIsIdempotent() {
+        Span span = Tracer.startSpan("once");
+        span.recordException(new IllegalStateException("失败"));
+        span.end();
+        span.end();
+        
+        assertEquals(1, exported.size());
+        assertEquals(Span.Status.ERROR, span.getStatus());
+        assertEquals(IllegalStateException.class.getName(), span.getAttributes().get("exception.type"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.xiaofuge.workflow;
+
+import com.xiaofuge.functioncalling.FunctionDefinition;
+import com.xiaofuge.functioncalling.FunctionHandler;
+import com.xiaofuge.functioncalling.FunctionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkflowEngineTest {
+    
+    private FunctionRegistry functionRegistry;
+    private WorkflowEngine workflowEngine;
+    private final List<String> invoked = new CopyOnWriteArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        functionRegistry = new FunctionRegistry();
+        workflowEngine = new WorkflowEngine(functionRegistry);
+        register("upload", arguments -> Map.of("contentId", 42L));
+        register("check", arguments -> Map.of("passed", !"bad".equals(arguments.get("text")), "reason", "包含敏感词"));
+        register("publish", arguments -> Map.of("published", true, "contentId", arguments.get("contentId")));
+    }
+    
+    @Test
+    void testStepsRunInDependencyOrderWithResultsPassedForward() {
+        WorkflowResult result = workflowEngine.run(definition(false), Map.of("text", "hello"));
+        
+        assertTrue(result.isCompleted());
+        assertEquals(List.of("upload", "check", "publish"), invoked);
+        assertEquals(42L, ((Map<?, ?>) result.step("publish").getFunctionResult().getResult()).get("contentId"));
+        assertEquals(StepResult.Status.SKIPPED, result.step("image").getStatus());
+    }
+    
+    @Test
+    void testFailedStepAbortsDependents() {
+        WorkflowResult result = workflowEngine.run(definition(false), Map.of("text", "bad"));
+        
+        assertFalse(result.isCompleted());
+        assertEquals("check", result.getFailedStep());
+        assertEquals("包含敏感词", result.getReason());
+        assertEquals(StepResult.Status.ABORTED, result.step("publish").getStatus());
+        assertEquals(List.of("upload", "check"), invoked);
+    }
+    
+    @Test
+    void testToleratedFailureLetsDependentsRun() {
+        WorkflowResult result = workflowEngine.run(definition(true), Map.of("text", "bad"));
+        
+        assertTrue(result.isCompleted());
+        assertEquals(StepResult.Status.FAILED, result.step("check").getStatus());
+        assertEquals(StepResult.Status.PASSED, result.step("publish").getStatus());
+    }
+    
+    @Test
+    void testDependencyMustBeDeclaredBefore() {
+        assertThrows(IllegalArgumentException.class, () -> WorkflowDefinition.of("invalid", List.of(
+                WorkflowStep.builder().id("a").function("upload").arguments(ctx -> Map.of())
+                        .dependsOn(List.of("b")).build(),
+                WorkflowStep.builder().id("b").function("upload").arguments(ctx -> Map.of()).build())));
+    }
+    
+    private WorkflowDefinition definition(boolean tolerateCheckFailure) {
+        return WorkflowDefinition.of("test", List.of(
+                WorkflowStep.builder()
+                        .id("upload")
+                        .function("upload")
+                        .arguments(WorkflowContext::getInput)
+                        .build(),
+                WorkflowStep.builder()
+                        .id("check")
+                        .function("check")
+                        .arguments(ctx -> Map.of("contentId", ctx.value("upload", "contentId"), "text", ctx.input("text")))
+                        .dependsOn(List.of("upload"))
+                        .passedField("passed")
+                        .continueOnFailure(tolerateCheckFailure)
+                        .build(),
+                WorkflowStep.builder()
+                        .id("image")
+                        .function("check")
+                        .arguments(ctx -> Map.of())
+                        .dependsOn(List.of("upload"))
+                        .when(ctx -> ctx.input("imageUrl") != null)
+                        .build(),
+                WorkflowStep.builder()
+                        .id("publish")
+                        .function("publish")
+                        .arguments(ctx -> Map.of("contentId", ctx.value("upload", "contentId")))
+                        .dependsOn(List.of("check", "image"))
+                        .passedField("published")
+                        .build()));
+    }
+    
+    private void register(String name, FunctionHandler handler) {
+        functionRegistry.registerFunction(name, FunctionDefinition.builder()
+                .name(name)
+                .parameters(Map.of("type", "object"))
+                .build(), arguments -> {
+                    invoked.add(name);
+                    return handler.handle(arguments);
+                });
+    }
+}